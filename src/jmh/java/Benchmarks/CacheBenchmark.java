@@ -0,0 +1,140 @@
+package Benchmarks;
+
+import CacheImpl.CacheDecorator;
+import CacheImpl.CacheFactory;
+import CacheImpl.LFUCacheBuilder;
+import CacheImpl.LegacyCacheAdapter;
+import Enums.CacheTypeEnum;
+import Interfaces.ICache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Benchmarks get, put and a mixed workload against every ICache engine.
+ * The key space is twice the capacity, so gets miss and puts evict at a rate that depends on the distribution.
+ * Engines that are not thread-safe are wrapped in a single global lock when the benchmark runs with
+ * more than one thread, which is how they have to be shared today.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CacheBenchmark {
+    private static final int KEYS_PER_THREAD = 1 << 20;
+    private static final int KEYS_MASK = KEYS_PER_THREAD - 1;
+
+    @Param({"FIFO", "LRU", "LFU", "LFU_CONSTANT_TIME", "CONCURRENT_LRU", "CONCURRENT_LFU", "W_TINY_LFU", "ARC", "TWO_QUEUE", "LIRS", "SIEVE", "SHARDED_LRU", "LEGACY"})
+    public String cacheType;
+
+    @Param({"1000", "100000"})
+    public int capacity;
+
+    @Param({"UNIFORM", "ZIPFIAN", "SCAN"})
+    public KeyDistribution distribution;
+
+    private ICache<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        cache = createCache();
+        if (params.getThreads() > 1 && !cacheType.startsWith("CONCURRENT_") && !cacheType.startsWith("SHARDED_")) {
+            cache = new GloballyLockedCache<>(cache);
+        }
+        for (int i = 0; i < capacity; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer get(ThreadKeys keys) {
+        return cache.get(keys.next());
+    }
+
+    @Benchmark
+    public void put(ThreadKeys keys) {
+        Integer key = keys.next();
+        cache.put(key, key);
+    }
+
+    /**
+     * Three reads for every write.
+     */
+    @Benchmark
+    public Integer mixed(ThreadKeys keys) {
+        Integer key = keys.next();
+        if ((keys.index & 3) == 0) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+
+    private ICache<Integer, Integer> createCache() {
+        return switch (cacheType) {
+            case "LEGACY" -> new LegacyCacheAdapter<>(capacity);
+            case "SHARDED_LRU" -> new CacheFactory<Integer, Integer>().createShardedCacheInstance(CacheTypeEnum.LRU, capacity, 64);
+            case "LFU_CONSTANT_TIME" -> new LFUCacheBuilder<Integer, Integer>().setCapacity(capacity).buildConstantTime();
+            default -> new CacheFactory<Integer, Integer>().createCacheInstance(CacheTypeEnum.valueOf(cacheType), capacity);
+        };
+    }
+
+    /**
+     * Pre-generated key sequence of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private Integer[] keys;
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setUp(CacheBenchmark benchmark, ThreadParams threadParams) {
+            Random random = new Random(31L * threadParams.getThreadIndex() + 17);
+            keys = benchmark.distribution.generate(benchmark.capacity * 2, KEYS_PER_THREAD, random);
+        }
+
+        private Integer next() {
+            return keys[index++ & KEYS_MASK];
+        }
+    }
+
+    /**
+     * Serializes every call with one lock, the way a non-thread-safe engine has to be shared between threads.
+     */
+    private static final class GloballyLockedCache<K,V> extends CacheDecorator<K,V> {
+        private GloballyLockedCache(ICache<K,V> cache) {
+            super(cache);
+        }
+
+        @Override
+        public synchronized V get(K key) {
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized void put(K key, V value) {
+            super.put(key, value);
+        }
+
+        @Override
+        public synchronized void remove(K key) {
+            super.remove(key);
+        }
+
+        @Override
+        public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+    }
+}
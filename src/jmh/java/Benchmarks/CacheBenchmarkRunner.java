@@ -0,0 +1,48 @@
+package Benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Without arguments it runs CacheBenchmark with 1, 4 and 16 threads, once for throughput in ops/s and once
+ * for sampled latency percentiles in ns, with the GC profiler reporting the allocation rate. Results are
+ * written as JSON next to the jar so they can be compared between builds. Any argument switches to the
+ * regular JMH command line, e.g. "-p cacheType=LRU -t 8 -prof gc".
+ */
+public class CacheBenchmarkRunner {
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        for (int threads : THREAD_COUNTS) {
+            run(threads, Mode.Throughput, TimeUnit.SECONDS);
+            run(threads, Mode.SampleTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void run(int threads, Mode mode, TimeUnit timeUnit) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CacheBenchmark.class.getSimpleName())
+                .threads(threads)
+                .mode(mode)
+                .timeUnit(timeUnit)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(MessageFormat.format("target/jmh-{0}-{1}threads.json", mode.shortLabel(), threads))
+                .build();
+        new Runner(options).run();
+    }
+}
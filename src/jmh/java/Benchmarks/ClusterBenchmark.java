@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import CacheImpl.CacheCluster;
+import CacheImpl.CacheClusterBuilder;
+import CacheImpl.CacheServer;
+import Enums.CacheTypeEnum;
+import Interfaces.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks a CacheCluster of CacheServer nodes on the loopback interface of this JVM. Every node serves its
+ * connections with one thread, so with enough benchmark threads and cores the throughput grows with the node
+ * count. Run it with several threads, e.g. java -jar target/benchmarks.jar ClusterBenchmark -t 16.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClusterBenchmark {
+    private static final int KEY_COUNT = 1 << 16;
+    private static final int BATCH_SIZE = 64;
+
+    @Param({"1", "2", "4"})
+    public int nodeCount;
+
+    private final List<CacheServer> servers = new ArrayList<>();
+    private CacheCluster<Integer, Integer> cluster;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CacheClusterBuilder<Integer, Integer> builder = new CacheClusterBuilder<Integer, Integer>()
+                .setKeySerializer(Serializer.integer())
+                .setValueSerializer(Serializer.integer());
+        for (int i = 0; i < nodeCount; i++) {
+            CacheServer server = new CacheServer(CacheTypeEnum.LRU, KEY_COUNT, 0);
+            servers.add(server);
+            builder.addNode(server.getAddress());
+        }
+        cluster = builder.build();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            cluster.put(i, i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        cluster.close();
+        for (CacheServer server : servers) {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    public Integer get(ThreadKeys keys) {
+        return cluster.get(keys.next());
+    }
+
+    @Benchmark
+    public void put(ThreadKeys keys) {
+        Integer key = keys.next();
+        cluster.put(key, key);
+    }
+
+    /**
+     * Pipelined batch reads; reported per key.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Map<Integer, Integer> getAll(ThreadKeys keys) {
+        List<Integer> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(keys.next());
+        }
+        return cluster.getAll(batch);
+    }
+
+    /**
+     * Uniform key sequence of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private Random random;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            random = new Random(31L * threadParams.getThreadIndex() + 17);
+        }
+
+        private Integer next() {
+            return random.nextInt(KEY_COUNT);
+        }
+    }
+}
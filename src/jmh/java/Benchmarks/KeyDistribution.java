@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Key access patterns used by the benchmarks. Keys are generated up front, so the benchmark loop only
+ * reads the next boxed key from an array and the generator cost never shows up in the measurements.
+ */
+public enum KeyDistribution {
+    /**
+     * Every key of the key space is equally likely.
+     */
+    UNIFORM {
+        @Override
+        Integer[] generate(int keySpace, int count, Random random) {
+            Integer[] keys = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = random.nextInt(keySpace);
+            }
+            return keys;
+        }
+    },
+    /**
+     * Skewed popularity with exponent 0.99, the usual model for web and database caches.
+     */
+    ZIPFIAN {
+        @Override
+        Integer[] generate(int keySpace, int count, Random random) {
+            double[] cumulative = new double[keySpace];
+            double sum = 0;
+            for (int rank = 0; rank < keySpace; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, 0.99);
+                cumulative[rank] = sum;
+            }
+            Integer[] keys = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                keys[i] = rank >= 0 ? rank : Math.min(-rank - 1, keySpace - 1);
+            }
+            return keys;
+        }
+    },
+    /**
+     * Sequential loop over the whole key space, the worst case for recency-based eviction.
+     */
+    SCAN {
+        @Override
+        Integer[] generate(int keySpace, int count, Random random) {
+            Integer[] keys = new Integer[count];
+            int start = random.nextInt(keySpace);
+            for (int i = 0; i < count; i++) {
+                keys[i] = (start + i) % keySpace;
+            }
+            return keys;
+        }
+    };
+
+    /**
+     * Generates a sequence of keys drawn from [0, keySpace).
+     *
+     * @param keySpace The number of distinct keys.
+     * @param count    The length of the sequence.
+     * @param random   The source of randomness, seeded per benchmark thread.
+     * @return The generated keys.
+     */
+    abstract Integer[] generate(int keySpace, int count, Random random);
+}
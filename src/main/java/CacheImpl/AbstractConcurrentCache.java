@@ -0,0 +1,344 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Base class for thread-safe caches backed by a ConcurrentHashMap.
+ * Lookups never take a lock: a hit is only recorded in a striped, lossy read buffer and the eviction policy
+ * replays those records later in batches under a single lock. Inserts, removals and evictions update the
+ * policy under the same lock, so subclasses only have to implement the ordering structure itself.
+ */
+abstract class AbstractConcurrentCache<K,V> implements ICache<K,V> {
+    private static final int READ_BUFFER_SIZE = 32;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+    // Counters of neighbouring stripes are spread 8 longs (one cache line) apart to avoid false sharing.
+    private static final int COUNTER_SPACING_SHIFT = 3;
+
+    protected final int capacity;
+    private final ConcurrentHashMap<K, ConcurrentCacheNode<K,V>> cache;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int stripeMask;
+    private final AtomicReferenceArray<ConcurrentCacheNode<K,V>>[] readBuffers;
+    private final AtomicLongArray readBufferWriteCounts;
+    private final AtomicLongArray readBufferDrainCounts;
+    private int linkedCount;
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs the cache with one read buffer stripe per available processor, rounded up to a power of two.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected AbstractConcurrentCache(int capacity) {
+        this.capacity = capacity;
+        this.cache = new ConcurrentHashMap<>(capacity);
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+        this.stripeMask = stripes - 1;
+        this.readBuffers = new AtomicReferenceArray[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        }
+        this.readBufferWriteCounts = new AtomicLongArray(stripes << COUNTER_SPACING_SHIFT);
+        this.readBufferDrainCounts = new AtomicLongArray(stripes << COUNTER_SPACING_SHIFT);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        ConcurrentCacheNode<K,V> node = new ConcurrentCacheNode<>(key, value);
+        ConcurrentCacheNode<K,V> prior = cache.putIfAbsent(key, node);
+        if (prior != null) {
+            prior.value = value;
+            afterRead(prior);
+            return;
+        }
+        afterInsert(node);
+    }
+
+    @Override
+    public V get(K key) {
+        ConcurrentCacheNode<K,V> node = cache.get(key);
+        if (node == null) {
+            listener.onMiss(key);
+            return null;
+        }
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * Computes a missing value outside of any lock. When several threads miss the same key at once,
+     * the first value to be stored wins and is returned to all of them.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        ConcurrentCacheNode<K,V> node = cache.get(key);
+        if (node != null) {
+            afterRead(node);
+            return node.value;
+        }
+        listener.onMiss(key);
+        V value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+        node = new ConcurrentCacheNode<>(key, value);
+        ConcurrentCacheNode<K,V> prior = cache.putIfAbsent(key, node);
+        if (prior != null) {
+            afterRead(prior);
+            return prior.value;
+        }
+        afterInsert(node);
+        return value;
+    }
+
+    @Override
+    public void remove(K key) {
+        ConcurrentCacheNode<K,V> node = cache.remove(key);
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Adds all entries to the map first and links the new ones into the eviction order under a single
+     * acquisition of the eviction lock.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        List<ConcurrentCacheNode<K,V>> insertedNodes = new ArrayList<>(entries.size());
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            ConcurrentCacheNode<K,V> node = new ConcurrentCacheNode<>(entry.getKey(), entry.getValue());
+            ConcurrentCacheNode<K,V> prior = cache.putIfAbsent(entry.getKey(), node);
+            if (prior != null) {
+                prior.value = entry.getValue();
+                afterRead(prior);
+            } else {
+                insertedNodes.add(node);
+            }
+        }
+        if (insertedNodes.isEmpty()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (ConcurrentCacheNode<K,V> node : insertedNodes) {
+                linkInserted(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all keys from the map and unlinks them under a single acquisition of the eviction lock.
+     */
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        List<ConcurrentCacheNode<K,V>> removedNodes = new ArrayList<>();
+        for (K key : keys) {
+            ConcurrentCacheNode<K,V> node = cache.remove(key);
+            if (node != null) {
+                removedNodes.add(node);
+            }
+        }
+        if (removedNodes.isEmpty()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            for (ConcurrentCacheNode<K,V> node : removedNodes) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (ConcurrentCacheNode<K,V> node : cache.values()) {
+                unlink(node);
+            }
+            cache.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * The ConcurrentHashMap's own weakly consistent spliterator: it neither copies the entries nor blocks
+     * writers, and splits by hash table ranges for parallel streams.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return cache.keySet().spliterator();
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.map(cache.values().spliterator(), node -> Map.entry(node.key, node.value));
+    }
+
+    /**
+     * Adds a newly inserted node to the eviction order. Called under the eviction lock.
+     */
+    protected abstract void onInsert(ConcurrentCacheNode<K,V> node);
+
+    /**
+     * Replays a recorded hit on a node that is still part of the eviction order. Called under the eviction lock.
+     */
+    protected abstract void onAccess(ConcurrentCacheNode<K,V> node);
+
+    /**
+     * Detaches a node from the eviction order. Called under the eviction lock.
+     */
+    protected abstract void onRemove(ConcurrentCacheNode<K,V> node);
+
+    /**
+     * Returns the node the policy would evict next, or null when the order is empty. Called under the eviction lock.
+     */
+    protected abstract ConcurrentCacheNode<K,V> victim();
+
+    /**
+     * Links a node that was just added to the map into the eviction order, evicting to make room for it.
+     */
+    private void afterInsert(ConcurrentCacheNode<K,V> node) {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            linkInserted(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Links a new node, evicting to make room for it. Called under the eviction lock.
+     */
+    private void linkInserted(ConcurrentCacheNode<K,V> node) {
+        // a concurrent remove or clear may already have dropped the node from the map
+        if (cache.get(node.key) == node) {
+            while (linkedCount >= capacity && evictOne()) {
+                // evict until there is room for the new node
+            }
+            node.linked = true;
+            linkedCount++;
+            onInsert(node);
+        }
+    }
+
+    private boolean evictOne() {
+        ConcurrentCacheNode<K,V> victim = victim();
+        if (victim == null) {
+            return false;
+        }
+        unlink(victim);
+        if (cache.remove(victim.key, victim)) {
+            listener.onEviction(victim.key, victim.value);
+        }
+        return true;
+    }
+
+    private void unlink(ConcurrentCacheNode<K,V> node) {
+        if (node.linked) {
+            onRemove(node);
+            node.linked = false;
+            linkedCount--;
+        }
+    }
+
+    /**
+     * Records a hit in the read buffer of the calling thread's stripe. When the buffer is full the record
+     * is dropped, which only costs a little precision in the eviction order.
+     */
+    private void afterRead(ConcurrentCacheNode<K,V> node) {
+        int stripe = readBufferStripe();
+        int counterIndex = stripe << COUNTER_SPACING_SHIFT;
+        long writeCount = readBufferWriteCounts.get(counterIndex);
+        long pending = writeCount - readBufferDrainCounts.get(counterIndex);
+        if (pending < READ_BUFFER_SIZE && readBufferWriteCounts.compareAndSet(counterIndex, writeCount, writeCount + 1)) {
+            readBuffers[stripe].lazySet((int) (writeCount & READ_BUFFER_MASK), node);
+            pending++;
+        }
+        if (pending >= READ_BUFFER_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (int stripe = 0; stripe < readBuffers.length; stripe++) {
+            AtomicReferenceArray<ConcurrentCacheNode<K,V>> buffer = readBuffers[stripe];
+            int counterIndex = stripe << COUNTER_SPACING_SHIFT;
+            long drainCount = readBufferDrainCounts.get(counterIndex);
+            long writeCount = readBufferWriteCounts.get(counterIndex);
+            while (drainCount < writeCount) {
+                int index = (int) (drainCount & READ_BUFFER_MASK);
+                ConcurrentCacheNode<K,V> node = buffer.get(index);
+                if (node == null) {
+                    // the slot was claimed but its writer has not published the node yet
+                    break;
+                }
+                buffer.lazySet(index, null);
+                if (node.linked) {
+                    onAccess(node);
+                }
+                drainCount++;
+            }
+            readBufferDrainCounts.set(counterIndex, drainCount);
+        }
+    }
+
+    private int readBufferStripe() {
+        long threadId = Thread.currentThread().threadId();
+        return Long.hashCode(threadId * 0x9E3779B97F4A7C15L) & stripeMask;
+    }
+}
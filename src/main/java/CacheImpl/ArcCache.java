@@ -0,0 +1,209 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementation of an ARC (Adaptive Replacement Cache, by Megiddo and Modha).
+ * Items seen once are kept in the LRU list T1, items seen at least twice in the LRU list T2. The keys of items
+ * evicted from T1 and T2 are remembered in the ghost lists B1 and B2. A new item whose key is in B1 shows that
+ * T1 was too small, one in B2 that T2 was too small, and the target size p of T1 adapts accordingly. The cache
+ * thereby balances recency and frequency by itself; scans only pass through T1. All operations are O(1).
+ */
+public class ArcCache<K,V> implements ICache<K,V> {
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+
+    private final int capacity;
+    // holds the ghost entries of B1 and B2 as well as the cached items
+    private final Map<K, PolicyNode<K,V>> cache;
+    private final PolicyNodeList<K,V> t1 = new PolicyNodeList<>();
+    private final PolicyNodeList<K,V> t2 = new PolicyNodeList<>();
+    private final PolicyNodeList<K,V> b1 = new PolicyNodeList<>();
+    private final PolicyNodeList<K,V> b2 = new PolicyNodeList<>();
+    // target size of T1
+    private int p;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs an ArcCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold; ghost keys are not counted.
+     */
+    public ArcCache(int capacity) {
+        this.capacity = capacity;
+        this.cache = new HashMap<>();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (capacity <= 0) {
+            // nothing fits, so the entry is rejected like an entry heavier than a weighted engine's maximum
+            listener.onRejection(key, value);
+            return;
+        }
+        PolicyNode<K,V> node = cache.get(key);
+        if (node != null) {
+            switch (node.queue) {
+                case T1, T2 -> {
+                    node.value = value;
+                    promote(node);
+                }
+                case B1 -> {
+                    p = Math.min(capacity, p + Math.max(b2.size / b1.size, 1));
+                    b1.remove(node);
+                    replace(false);
+                    node.value = value;
+                    node.queue = T2;
+                    t2.addLast(node);
+                }
+                default -> {
+                    p = Math.max(0, p - Math.max(b1.size / b2.size, 1));
+                    b2.remove(node);
+                    replace(true);
+                    node.value = value;
+                    node.queue = T2;
+                    t2.addLast(node);
+                }
+            }
+            return;
+        }
+        if (t1.size + b1.size >= capacity) {
+            if (t1.size < capacity) {
+                cache.remove(b1.removeFirst().key);
+                replace(false);
+            } else {
+                PolicyNode<K,V> victim = t1.removeFirst();
+                cache.remove(victim.key);
+                listener.onEviction(victim.key, victim.value);
+            }
+        } else {
+            int total = t1.size + t2.size + b1.size + b2.size;
+            if (total >= capacity) {
+                if (total >= 2 * capacity) {
+                    cache.remove(b2.removeFirst().key);
+                }
+                replace(false);
+            }
+        }
+        node = new PolicyNode<>(key, value, T1);
+        cache.put(key, node);
+        t1.addLast(node);
+    }
+
+    @Override
+    public V get(K key) {
+        PolicyNode<K,V> node = cache.get(key);
+        if (node == null || node.queue >= B1) {
+            listener.onMiss(key);
+            return null;
+        }
+        promote(node);
+        return node.value;
+    }
+
+    @Override
+    public void remove(K key) {
+        PolicyNode<K,V> node = cache.remove(key);
+        if (node != null) {
+            listOf(node).remove(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        t1.clear();
+        t2.clear();
+        b1.clear();
+        b2.clear();
+        p = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return t1.size + t2.size;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        PolicyNode<K,V> node = cache.get(key);
+        return node != null && node.queue < B1;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the cached entries of T1 and then T2; ghost entries are left out.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(t1, t2), node -> node.key);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(t1, t2), node -> Map.entry(node.key, node.value));
+    }
+
+    /**
+     * Moves a hit item to the most recently used end of T2.
+     */
+    private void promote(PolicyNode<K,V> node) {
+        if (node.queue == T1) {
+            t1.remove(node);
+            node.queue = T2;
+            t2.addLast(node);
+        } else {
+            t2.moveToLast(node);
+        }
+    }
+
+    /**
+     * Evicts one item if the cache is full: from T1 while T1 exceeds its target size, otherwise from T2.
+     * The key of the evicted item is kept in the matching ghost list.
+     */
+    private void replace(boolean ghostOfT2) {
+        if (t1.size + t2.size < capacity) {
+            return;
+        }
+        PolicyNode<K,V> victim;
+        if (t1.size > 0 && (t1.size > p || (ghostOfT2 && t1.size == p) || t2.size == 0)) {
+            victim = t1.removeFirst();
+            victim.queue = B1;
+            b1.addLast(victim);
+        } else {
+            victim = t2.removeFirst();
+            victim.queue = B2;
+            b2.addLast(victim);
+        }
+        V value = victim.value;
+        victim.value = null;
+        listener.onEviction(victim.key, value);
+    }
+
+    private PolicyNodeList<K,V> listOf(PolicyNode<K,V> node) {
+        return switch (node.queue) {
+            case T1 -> t1;
+            case T2 -> t2;
+            case B1 -> b1;
+            default -> b2;
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package CacheImpl;
+
+import Interfaces.CacheLoader;
+import Interfaces.IAsyncCache;
+import Interfaces.ICache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * IAsyncCache on top of any cache engine, e.g. one created by CacheFactory.
+ * Hits are answered on the caller's thread. Each miss starts at most one load per key, and by default each load
+ * runs on its own virtual thread, so tens of thousands of loads can be outstanding without a thread pool
+ * limiting them. Callers waiting for a load do not occupy any thread at all.
+ * Coalescing and the store of loaded values are shared with LoadingCache, which is also the synchronous view.
+ */
+public class AsyncCache<K,V> implements IAsyncCache<K,V>, AutoCloseable {
+    private final LoadingCache<K,V> cache;
+    private final CacheLoader<K,V> loader;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Constructs an async cache that runs every load on a new virtual thread.
+     *
+     * @param cache  The cache holding the loaded values.
+     * @param loader Loads the values of missing keys; may block.
+     */
+    public AsyncCache(ICache<K,V> cache, CacheLoader<K,V> loader) {
+        this(cache, loader, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    /**
+     * Constructs an async cache that runs loads on the given executor.
+     *
+     * @param cache    The cache holding the loaded values.
+     * @param loader   Loads the values of missing keys.
+     * @param executor Runs the loads; it is not shut down by close.
+     */
+    public AsyncCache(ICache<K,V> cache, CacheLoader<K,V> loader, ExecutorService executor) {
+        this(cache, loader, executor, false);
+    }
+
+    private AsyncCache(ICache<K,V> cache, CacheLoader<K,V> loader, ExecutorService executor, boolean ownsExecutor) {
+        this.cache = new LoadingCache<>(cache, loader);
+        this.loader = loader;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    @Override
+    public CompletableFuture<V> get(K key) {
+        return cache.getAsync(key, loader, executor);
+    }
+
+    @Override
+    public CompletableFuture<V> get(K key, Function<? super K, ? extends V> mappingFunction) {
+        return cache.getAsync(key, mappingFunction::apply, executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<K,V>> getAll(Iterable<? extends K> keys) {
+        return cache.getAllAsync(keys, executor);
+    }
+
+    /**
+     * Stores the value on the caller's thread; the write only touches memory, so the future is already completed.
+     */
+    @Override
+    public CompletableFuture<Void> put(K key, V value) {
+        cache.put(key, value);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public ICache<K,V> synchronous() {
+        return cache;
+    }
+
+    /**
+     * Shuts down the default virtual-thread executor. Loads that are already running complete normally.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
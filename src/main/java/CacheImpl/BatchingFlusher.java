@@ -0,0 +1,280 @@
+package CacheImpl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+
+/**
+ * Queue of pending updates per key that a daemon thread hands to an action in batches, used by WriteBehindCache
+ * to write to the store and by NearCache to publish invalidations. An update of a key that is already pending is
+ * merged into the queued one. A batch of up to batchSize of the oldest keys is due as soon as batchSize keys are
+ * pending or the oldest update has waited for the flush interval. A failed batch is merged back into the queue
+ * and retried after the flush interval. While maxPending keys are pending, updates of further keys block until
+ * the next batch is taken.
+ */
+final class BatchingFlusher<K,U,E extends Exception> {
+    /**
+     * Flushes one batch, e.g. writes it to a store. The keys are in the order they were first queued.
+     */
+    @FunctionalInterface
+    interface BatchAction<K,U,E extends Exception> {
+        void flush(Map<K,U> batch) throws E;
+    }
+
+    private final ReentrantLock lock;
+    private final Condition flushDue;
+    private final Condition notFull;
+    // held while a batch is flushed, so two updates of a key never reach the action out of order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final LinkedHashMap<K,U> pending = new LinkedHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int maxPending;
+    private final BinaryOperator<U> merger;
+    private final BatchAction<K,U,E> action;
+    private final Thread flusher;
+    private long oldestPendingNanos;
+    private long retryAfterNanos;
+    private long flushedCount;
+    private boolean closed;
+    private volatile Exception lastFailure;
+
+    /**
+     * Starts the daemon thread.
+     *
+     * @param lock   Guards the queue. An owner that holds it while queueing can change its own state together
+     *               with the queue.
+     * @param merger Merges the queued update of a key with a newer one, which is the second argument.
+     */
+    BatchingFlusher(ReentrantLock lock, String threadName, int batchSize, long flushIntervalNanos, int maxPending,
+                    BinaryOperator<U> merger, BatchAction<K,U,E> action) {
+        this.lock = lock;
+        this.flushDue = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.maxPending = maxPending;
+        this.merger = merger;
+        this.action = action;
+        this.retryAfterNanos = System.nanoTime();
+        this.flusher = new Thread(this::runFlusher, threadName);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * @return Whether an update of the key can be queued without blocking.
+     */
+    boolean hasCapacity(K key) {
+        lock.lock();
+        try {
+            return pending.size() < maxPending || pending.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the update, merged with the pending one of the key; blocks while too many other keys are pending.
+     *
+     * @throws IllegalStateException if the flusher is stopped.
+     */
+    void enqueue(K key, U update) {
+        lock.lock();
+        try {
+            while (!closed && !hasCapacity(key)) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                throw new IllegalStateException("The cache is closed.");
+            }
+            if (pending.isEmpty()) {
+                oldestPendingNanos = System.nanoTime();
+                flushDue.signal();
+            }
+            pending.merge(key, update, merger);
+            if (pending.size() == batchSize) {
+                flushDue.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes all pending updates on the caller's thread, including updates queued while the flush is running.
+     *
+     * @throws E the failure of the action; the failed batch stays queued.
+     */
+    void flush() throws E {
+        while (flushBatch()) {
+            // keep flushing until nothing is pending
+        }
+    }
+
+    /**
+     * Stops the daemon thread and rejects later updates; the pending ones are kept for a last flush.
+     *
+     * @return false if the flusher was stopped already.
+     */
+    boolean stop() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            flushDue.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of keys with pending updates.
+     */
+    int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of updates the action has flushed successfully.
+     */
+    long getFlushedCount() {
+        lock.lock();
+        try {
+            return flushedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The exception of the last failed batch, or null if no batch has failed.
+     */
+    Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    private void runFlusher() {
+        while (true) {
+            lock.lock();
+            try {
+                long delay;
+                while (!closed && (delay = nanosUntilFlush()) > 0) {
+                    if (delay == Long.MAX_VALUE) {
+                        flushDue.await();
+                    } else {
+                        flushDue.awaitNanos(delay);
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flushBatch();
+            } catch (Exception e) {
+                // kept in lastFailure; the batch is queued again and retried after the flush interval
+            }
+        }
+    }
+
+    /**
+     * @return The time until the next batch is due, or Long.MAX_VALUE when nothing is pending.
+     */
+    private long nanosUntilFlush() {
+        if (pending.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        long now = System.nanoTime();
+        if (now - retryAfterNanos < 0) {
+            return retryAfterNanos - now;
+        }
+        if (pending.size() >= batchSize) {
+            return 0;
+        }
+        return oldestPendingNanos + flushIntervalNanos - now;
+    }
+
+    /**
+     * Takes up to batchSize of the oldest pending updates and flushes them.
+     *
+     * @return false when nothing was pending.
+     */
+    private boolean flushBatch() throws E {
+        flushLock.lock();
+        try {
+            Map<K,U> batch = new LinkedHashMap<>();
+            lock.lock();
+            try {
+                Iterator<Map.Entry<K,U>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    Map.Entry<K,U> update = iterator.next();
+                    iterator.remove();
+                    batch.put(update.getKey(), update.getValue());
+                }
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            try {
+                action.flush(batch);
+            } catch (Exception e) {
+                lastFailure = e;
+                requeue(batch);
+                throw e;
+            }
+            lock.lock();
+            try {
+                flushedCount += batch.size();
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Queues a failed batch again, merged with the updates queued meanwhile, and delays the retry.
+     */
+    private void requeue(Map<K,U> batch) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (pending.isEmpty()) {
+                oldestPendingNanos = now;
+            }
+            for (Map.Entry<K,U> update : batch.entrySet()) {
+                pending.merge(update.getKey(), update.getValue(), (newer, failed) -> merger.apply(failed, newer));
+            }
+            retryAfterNanos = now + flushIntervalNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
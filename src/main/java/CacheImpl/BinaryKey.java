@@ -0,0 +1,30 @@
+package CacheImpl;
+
+import java.util.Arrays;
+
+/**
+ * Serialized key with value semantics, so byte arrays can be used as keys of a cache engine.
+ */
+final class BinaryKey {
+    private final byte[] bytes;
+    private final int hash;
+
+    BinaryKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BinaryKey binaryKey && hash == binaryKey.hash && Arrays.equals(bytes, binaryKey.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,487 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Serializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe ICache spread over CacheServer nodes. Keys are serialized and routed to their owner on a
+ * consistent-hash ring with virtual nodes, so the capacity of the cluster is the sum of the node capacities and
+ * the load is shared evenly. Each node is reached over one pipelined connection: concurrent callers do not wait
+ * for each other's responses, and getAll, putAll and removeAll send all requests of a node in one write.
+ * addNode and removeNode rebalance the cluster: the ring is switched at once, then only the entries whose owner
+ * changed are copied to their new owner with put-if-absent, skipping keys written or removed meanwhile, so a
+ * rebalance never overwrites a newer value or restores a removed one. Until its entry arrived, a moved key misses.
+ * A node that cannot be reached makes the calls routed to it fail with an UncheckedIOException until it is
+ * removed. Evictions happen on the nodes and are not reported; the listener only sees misses.
+ * Use CacheClusterBuilder to create instances.
+ */
+public class CacheCluster<K,V> implements ICache<K,V>, AutoCloseable {
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final Map<String, CacheNodeConnection> connections = new ConcurrentHashMap<>();
+    // held shared while a write is routed and sent, and exclusively to switch the ring
+    private final ReentrantReadWriteLock routingLock = new ReentrantReadWriteLock();
+    // serializes rebalancing and clear
+    private final Object membershipLock = new Object();
+    private volatile ConsistentHashRing ring;
+    // the keys written or removed since the current rebalance started; null when none is running
+    private volatile Set<BinaryKey> touchedKeys;
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    CacheCluster(Serializer<K> keySerializer, Serializer<V> valueSerializer, int virtualNodeCount) {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.ring = new ConsistentHashRing(List.of(), virtualNodeCount);
+    }
+
+    /**
+     * Connects to the server and moves the entries it now owns from the other nodes to it.
+     *
+     * @return The number of entries moved to the new node; 0 if the node was already a member.
+     */
+    public int addNode(InetSocketAddress address) throws IOException {
+        synchronized (membershipLock) {
+            String serverName = CacheServer.serverName(address);
+            if (connections.containsKey(serverName)) {
+                return 0;
+            }
+            CacheNodeConnection connection = new CacheNodeConnection(address);
+            ConsistentHashRing oldRing = ring;
+            Set<String> nodes = new HashSet<>(oldRing.getNodes());
+            nodes.add(serverName);
+            Set<BinaryKey> touched = ConcurrentHashMap.newKeySet();
+            routingLock.writeLock().lock();
+            try {
+                connections.put(serverName, connection);
+                touchedKeys = touched;
+                ring = oldRing.withNodes(nodes);
+            } finally {
+                routingLock.writeLock().unlock();
+            }
+            try {
+                int movedCount = 0;
+                for (String source : oldRing.getNodes()) {
+                    movedCount += moveEntries(source, true);
+                }
+                return movedCount;
+            } finally {
+                touchedKeys = null;
+            }
+        }
+    }
+
+    /**
+     * Moves the entries of the node to their new owners and disconnects from it; the server keeps running.
+     * If the node cannot be reached any more, its entries are lost.
+     *
+     * @return The number of entries moved away from the node; 0 if it was not a member.
+     */
+    public int removeNode(InetSocketAddress address) {
+        synchronized (membershipLock) {
+            String serverName = CacheServer.serverName(address);
+            CacheNodeConnection connection = connections.get(serverName);
+            if (connection == null) {
+                return 0;
+            }
+            Set<String> nodes = new HashSet<>(ring.getNodes());
+            nodes.remove(serverName);
+            Set<BinaryKey> touched = ConcurrentHashMap.newKeySet();
+            routingLock.writeLock().lock();
+            try {
+                touchedKeys = touched;
+                ring = ring.withNodes(nodes);
+            } finally {
+                routingLock.writeLock().unlock();
+            }
+            try {
+                return nodes.isEmpty() ? 0 : moveEntries(serverName, false);
+            } catch (UncheckedIOException e) {
+                // the node or a new owner cannot be reached; the entries not copied yet are lost
+                return 0;
+            } finally {
+                touchedKeys = null;
+                connections.remove(serverName);
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * @return The server names of the nodes, in order.
+     */
+    public Set<String> getNodeNames() {
+        return ring.getNodes();
+    }
+
+    /**
+     * @return The server name of the node owning the key, or null if the cluster has no nodes.
+     */
+    public String getOwner(K key) {
+        return ring.getOwner(serialize(keySerializer, key));
+    }
+
+    @Override
+    public void put(K key, V value) {
+        byte[] keyBytes = serialize(keySerializer, key);
+        byte[] valueBytes = serialize(valueSerializer, value);
+        CompletableFuture<Void> future;
+        routingLock.readLock().lock();
+        try {
+            touch(keyBytes);
+            future = route(ring, keyBytes).put(keyBytes, valueBytes);
+        } finally {
+            routingLock.readLock().unlock();
+        }
+        join(future);
+    }
+
+    /**
+     * Reads the value from the key's owner. A read racing with the removal of its node is sent again to the
+     * new owner.
+     */
+    @Override
+    public V get(K key) {
+        byte[] keyBytes = serialize(keySerializer, key);
+        ConsistentHashRing currentRing = ring;
+        byte[] valueBytes;
+        try {
+            valueBytes = join(route(currentRing, keyBytes).get(keyBytes));
+        } catch (UncheckedIOException e) {
+            if (ring == currentRing) {
+                throw e;
+            }
+            valueBytes = join(route(ring, keyBytes).get(keyBytes));
+        }
+        if (valueBytes == null) {
+            listener.onMiss(key);
+            return null;
+        }
+        return deserialize(valueSerializer, valueBytes);
+    }
+
+    @Override
+    public void remove(K key) {
+        byte[] keyBytes = serialize(keySerializer, key);
+        CompletableFuture<Void> future;
+        routingLock.readLock().lock();
+        try {
+            touch(keyBytes);
+            future = route(ring, keyBytes).remove(keyBytes);
+        } finally {
+            routingLock.readLock().unlock();
+        }
+        join(future);
+    }
+
+    /**
+     * Clears all nodes; waits for a running rebalance first, so it cannot bring entries back.
+     */
+    @Override
+    public void clear() {
+        synchronized (membershipLock) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (String node : ring.getNodes()) {
+                futures.add(connections.get(node).clear());
+            }
+            join(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+        }
+    }
+
+    /**
+     * @return The sum of the node sizes, asked from all nodes at once. A count racing with the removal of a node
+     * is repeated on the new ring.
+     */
+    @Override
+    public int getSize() {
+        while (true) {
+            ConsistentHashRing currentRing = ring;
+            try {
+                List<CompletableFuture<Integer>> futures = new ArrayList<>();
+                for (String node : currentRing.getNodes()) {
+                    futures.add(connection(node).size());
+                }
+                int size = 0;
+                for (CompletableFuture<Integer> future : futures) {
+                    size += join(future);
+                }
+                return size;
+            } catch (UncheckedIOException e) {
+                if (ring == currentRing) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        byte[] keyBytes = serialize(keySerializer, key);
+        return join(route(ring, keyBytes).containsKey(keyBytes));
+    }
+
+    /**
+     * Registers the listener; only onMiss is called, for gets that found no value.
+     */
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Groups the keys by owner and sends the gets of each node in one write; all nodes are asked in parallel.
+     */
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        ConsistentHashRing currentRing = ring;
+        Map<String, List<K>> keysByNode = new HashMap<>();
+        Map<String, List<byte[]>> keyBytesByNode = new HashMap<>();
+        Map<K, byte[]> serializedKeys = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (serializedKeys.containsKey(key)) {
+                continue;
+            }
+            byte[] keyBytes = serialize(keySerializer, key);
+            serializedKeys.put(key, keyBytes);
+            String node = owner(currentRing, keyBytes);
+            keysByNode.computeIfAbsent(node, ignored -> new ArrayList<>()).add(key);
+            keyBytesByNode.computeIfAbsent(node, ignored -> new ArrayList<>()).add(keyBytes);
+        }
+        Map<K, CompletableFuture<byte[]>> futures = new HashMap<>();
+        for (Map.Entry<String, List<K>> entry : keysByNode.entrySet()) {
+            List<CompletableFuture<byte[]>> nodeFutures = connection(entry.getKey()).getAll(keyBytesByNode.get(entry.getKey()));
+            for (int i = 0; i < nodeFutures.size(); i++) {
+                futures.put(entry.getValue().get(i), nodeFutures.get(i));
+            }
+        }
+        Map<K,V> values = new LinkedHashMap<>();
+        for (K key : serializedKeys.keySet()) {
+            byte[] valueBytes = join(futures.get(key));
+            if (valueBytes == null) {
+                listener.onMiss(key);
+            } else {
+                values.put(key, deserialize(valueSerializer, valueBytes));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        List<Map.Entry<byte[], byte[]>> serializedEntries = new ArrayList<>(entries.size());
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            serializedEntries.add(Map.entry(serialize(keySerializer, entry.getKey()), serialize(valueSerializer, entry.getValue())));
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        routingLock.readLock().lock();
+        try {
+            for (Map.Entry<String, List<Map.Entry<byte[], byte[]>>> node : groupByOwner(serializedEntries, ring).entrySet()) {
+                for (Map.Entry<byte[], byte[]> entry : node.getValue()) {
+                    touch(entry.getKey());
+                }
+                futures.add(connection(node.getKey()).putAll(node.getValue(), false, null));
+            }
+        } finally {
+            routingLock.readLock().unlock();
+        }
+        join(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        List<Map.Entry<byte[], byte[]>> serializedKeys = new ArrayList<>();
+        for (K key : keys) {
+            serializedKeys.add(new AbstractMap.SimpleImmutableEntry<>(serialize(keySerializer, key), null));
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        routingLock.readLock().lock();
+        try {
+            for (Map.Entry<String, List<Map.Entry<byte[], byte[]>>> node : groupByOwner(serializedKeys, ring).entrySet()) {
+                List<byte[]> nodeKeys = new ArrayList<>(node.getValue().size());
+                for (Map.Entry<byte[], byte[]> entry : node.getValue()) {
+                    touch(entry.getKey());
+                    nodeKeys.add(entry.getKey());
+                }
+                futures.add(connection(node.getKey()).removeAll(nodeKeys));
+            }
+        } finally {
+            routingLock.readLock().unlock();
+        }
+        join(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.map(entrySpliterator(), Map.Entry::getKey);
+    }
+
+    /**
+     * Traverses the nodes one after another; the entries of a node are fetched when the traversal reaches it,
+     * and parallel streams split by node. A node removed before it is reached is skipped, as its entries moved
+     * to the other nodes.
+     */
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        Set<String> nodes = ring.getNodes();
+        List<Supplier<Spliterator<Map.Entry<K,V>>>> parts = new ArrayList<>(nodes.size());
+        for (String node : nodes) {
+            parts.add(() -> CacheSpliterators.snapshot(entriesOf(node),
+                    entry -> Map.entry(deserialize(keySerializer, entry.getKey()), deserialize(valueSerializer, entry.getValue()))));
+        }
+        return CacheSpliterators.concat(parts, nodes.isEmpty() ? 0 : getSize() / nodes.size() + 1);
+    }
+
+    /**
+     * Disconnects from all nodes; the servers keep running.
+     */
+    @Override
+    public void close() {
+        for (CacheNodeConnection connection : connections.values()) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Copies the entries of the source that belong to another node under the current ring to their owner,
+     * leaving out keys that were written or removed since the ring was switched.
+     *
+     * @param removeMoved Whether to remove the moved entries from the source, which stays a member.
+     * @return The number of entries copied.
+     */
+    private int moveEntries(String source, boolean removeMoved) {
+        CacheNodeConnection sourceConnection = connection(source);
+        ConsistentHashRing currentRing = ring;
+        // the server filters by the ring, so the entries the source keeps do not cross the network
+        List<Map.Entry<byte[], byte[]>> entries = join(sourceConnection.movedEntries(currentRing, source));
+        Set<BinaryKey> touched = touchedKeys;
+        int movedCount = 0;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<byte[]> movedKeys = new ArrayList<>();
+        for (Map.Entry<String, List<Map.Entry<byte[], byte[]>>> node : groupByOwner(entries, currentRing).entrySet()) {
+            // the check runs under the connection's write lock, so a write touching the key afterwards is sent
+            // after the copy and wins
+            futures.add(connection(node.getKey()).putAll(node.getValue(), true, key -> touched.contains(new BinaryKey(key))));
+            for (Map.Entry<byte[], byte[]> entry : node.getValue()) {
+                movedKeys.add(entry.getKey());
+            }
+            movedCount += node.getValue().size();
+        }
+        join(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+        if (removeMoved && !movedKeys.isEmpty()) {
+            join(sourceConnection.removeAll(movedKeys));
+        }
+        return movedCount;
+    }
+
+    /**
+     * @return The entries of the node, or none if it left the cluster before or while they were fetched.
+     */
+    private List<Map.Entry<byte[], byte[]>> entriesOf(String node) {
+        CacheNodeConnection connection = connections.get(node);
+        if (connection == null) {
+            return List.of();
+        }
+        try {
+            return join(connection.entries());
+        } catch (UncheckedIOException e) {
+            // removeNode drops the connection before closing it
+            if (connections.get(node) == connection) {
+                throw e;
+            }
+            return List.of();
+        }
+    }
+
+    private void touch(byte[] keyBytes) {
+        Set<BinaryKey> touched = touchedKeys;
+        if (touched != null) {
+            touched.add(new BinaryKey(keyBytes));
+        }
+    }
+
+    private Map<String, List<Map.Entry<byte[], byte[]>>> groupByOwner(List<Map.Entry<byte[], byte[]>> entries, ConsistentHashRing currentRing) {
+        Map<String, List<Map.Entry<byte[], byte[]>>> entriesByNode = new HashMap<>();
+        for (Map.Entry<byte[], byte[]> entry : entries) {
+            entriesByNode.computeIfAbsent(owner(currentRing, entry.getKey()), ignored -> new ArrayList<>()).add(entry);
+        }
+        return entriesByNode;
+    }
+
+    private CacheNodeConnection route(ConsistentHashRing currentRing, byte[] keyBytes) {
+        return connection(owner(currentRing, keyBytes));
+    }
+
+    private static String owner(ConsistentHashRing currentRing, byte[] keyBytes) {
+        String node = currentRing.getOwner(keyBytes);
+        if (node == null) {
+            throw new IllegalStateException("The cluster has no nodes.");
+        }
+        return node;
+    }
+
+    private CacheNodeConnection connection(String node) {
+        CacheNodeConnection connection = connections.get(node);
+        if (connection == null) {
+            throw new UncheckedIOException(new IOException("Node " + node + " left the cluster."));
+        }
+        return connection;
+    }
+
+    private static <T> byte[] serialize(Serializer<T> serializer, T value) {
+        try {
+            return serializer.serialize(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T deserialize(Serializer<T> serializer, byte[] bytes) {
+        try {
+            return serializer.deserialize(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for the future; failures of the connection are rethrown as UncheckedIOException.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
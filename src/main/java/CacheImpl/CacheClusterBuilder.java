@@ -0,0 +1,80 @@
+package CacheImpl;
+
+import Interfaces.Serializer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builder class for constructing CacheCluster objects connected to a set of CacheServer nodes.
+ */
+public class CacheClusterBuilder<K,V> {
+    private Serializer<K> keySerializer;
+    private Serializer<V> valueSerializer;
+    private int virtualNodeCount = 160;
+    private final List<InetSocketAddress> nodes = new ArrayList<>();
+
+    /**
+     * Constructs a new CacheClusterBuilder.
+     */
+    public CacheClusterBuilder() {
+    }
+
+    /**
+     * Sets the serializer of the keys; required. Equal keys must serialize to equal bytes.
+     */
+    public CacheClusterBuilder<K,V> setKeySerializer(Serializer<K> keySerializer) {
+        this.keySerializer = keySerializer;
+        return this;
+    }
+
+    /**
+     * Sets the serializer of the values; required.
+     */
+    public CacheClusterBuilder<K,V> setValueSerializer(Serializer<V> valueSerializer) {
+        this.valueSerializer = valueSerializer;
+        return this;
+    }
+
+    /**
+     * Sets the number of points of every node on the hash ring; more points share the keys more evenly.
+     * Defaults to 160.
+     */
+    public CacheClusterBuilder<K,V> setVirtualNodeCount(int virtualNodeCount) {
+        this.virtualNodeCount = virtualNodeCount;
+        return this;
+    }
+
+    /**
+     * Adds the server listening on the address as a node.
+     */
+    public CacheClusterBuilder<K,V> addNode(InetSocketAddress address) {
+        nodes.add(address);
+        return this;
+    }
+
+    /**
+     * Builds the cluster and connects to the nodes.
+     *
+     * @return CacheCluster routing the keys over the added nodes.
+     * @throws IllegalStateException if a serializer is missing.
+     * @throws IOException           if a node cannot be reached.
+     */
+    public CacheCluster<K,V> build() throws IOException {
+        if (keySerializer == null || valueSerializer == null) {
+            throw new IllegalStateException("A key and a value Serializer are required.");
+        }
+        CacheCluster<K,V> cluster = new CacheCluster<>(keySerializer, valueSerializer, virtualNodeCount);
+        try {
+            for (InetSocketAddress node : nodes) {
+                cluster.addNode(node);
+            }
+        } catch (IOException e) {
+            cluster.close();
+            throw e;
+        }
+        return cluster;
+    }
+}
@@ -1,8 +1,13 @@
 package CacheImpl;
 
 import Interfaces.ICache;
+import Interfaces.ICacheListener;
 
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
 
 /**
  * Decorator class that adds additional functionality to the ICache interface.
@@ -46,9 +51,43 @@ public class CacheDecorator<K,V> implements ICache<K,V> {
         return cache.containsKey(key);
     }
 
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        cache.setCacheListener(listener);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return cache.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        cache.putAll(entries);
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        cache.removeAll(keys);
+    }
+
     @Override
     public Iterator<K> iterator() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'iterator'");
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<K> spliterator() {
+        return cache.spliterator();
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return cache.entrySpliterator();
     }
 }
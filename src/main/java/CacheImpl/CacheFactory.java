@@ -2,6 +2,7 @@ package CacheImpl;
 
 import Enums.CacheTypeEnum;
 import Interfaces.ICache;
+import Interfaces.Weigher;
 
 import java.text.MessageFormat;
 
@@ -13,7 +14,8 @@ public class CacheFactory<K,V> {
     /**
      * Creates an instance of a cache based on the specified type and capacity.
      *
-     * @param type     The type of cache to create (FIFO, LFU, LRU).
+     * @param type     The type of cache to create (FIFO, LFU, LRU, CONCURRENT_LRU, CONCURRENT_LFU, W_TINY_LFU,
+     *                 ARC, TWO_QUEUE, LIRS, SIEVE).
      * @param capacity The maximum capacity of the cache.
      * @return An instance of the specified cache type.
      */
@@ -29,10 +31,96 @@ public class CacheFactory<K,V> {
             case LRU -> {
                 return new LRUCache(capacity);
             }
+            case CONCURRENT_LRU -> {
+                return new ConcurrentLRUCache<>(capacity);
+            }
+            case CONCURRENT_LFU -> {
+                return new ConcurrentLFUCache<>(capacity);
+            }
+            case W_TINY_LFU -> {
+                return new WTinyLFUCache<>(capacity);
+            }
+            case ARC -> {
+                return new ArcCache<>(capacity);
+            }
+            case TWO_QUEUE -> {
+                return new TwoQueueCache<>(capacity);
+            }
+            case LIRS -> {
+                return new LirsCache<>(capacity);
+            }
+            case SIEVE -> {
+                return new SieveCache<>(capacity);
+            }
             default -> {
                 System.out.println(MessageFormat.format("Cache with type {0} is not implemented yet.", type));
                 return null;
             }
         }
     }
+
+    /**
+     * Creates an instance of a cache bounded by the total weight of its entries instead of their number.
+     *
+     * @param type          The type of cache to create (FIFO, LFU, LRU).
+     * @param maximumWeight The maximum total weight of the entries, e.g. in bytes.
+     * @param weigher       Computes the weight of each entry, e.g. ObjectSizeEstimator.weigher().
+     * @return An instance of the specified cache type.
+     */
+    public ICache<K,V> createCacheInstance(CacheTypeEnum type, long maximumWeight, Weigher<K,V> weigher) {
+        switch (type) {
+            case FIFO -> {
+                return new FIFOCache<>(maximumWeight, weigher);
+            }
+            case LFU -> {
+                LFUCacheBuilder<K,V> lfuCacheBuilder = new LFUCacheBuilder<K,V>().setMaximumWeight(maximumWeight).setWeigher(weigher).setServerName("localhost:8080");
+                return lfuCacheBuilder.build();
+            }
+            case LRU -> {
+                return new LRUCache<>(maximumWeight, weigher);
+            }
+            default -> {
+                System.out.println(MessageFormat.format("Weighted cache with type {0} is not implemented yet.", type));
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Creates a thread-safe cache that spreads keys over independent shards of the given type,
+     * each with its own lock and an equal share of the capacity.
+     *
+     * @param type       The type of every shard, any type supported by createCacheInstance.
+     * @param capacity   The maximum capacity of the whole cache.
+     * @param shardCount The number of shards, rounded up to a power of two.
+     * @return A sharded instance of the specified cache type.
+     */
+    public ICache<K,V> createShardedCacheInstance(CacheTypeEnum type, int capacity, int shardCount) {
+        return new ShardedCacheBuilder<K,V>().setCacheType(type).setCapacity(capacity).setShardCount(shardCount).build();
+    }
+
+    /**
+     * Creates a cache specialized for primitive long keys, which neither boxes keys nor allocates per entry.
+     *
+     * @param type     The eviction policy of the cache (FIFO, LFU, LRU).
+     * @param capacity The maximum capacity of the cache.
+     * @return An instance of the specified long-key cache type.
+     */
+    public LongKeyCache<V> createLongKeyCacheInstance(CacheTypeEnum type, int capacity) {
+        switch (type) {
+            case FIFO -> {
+                return new LongKeyFIFOCache<>(capacity);
+            }
+            case LFU -> {
+                return new LongKeyLFUCache<>(capacity);
+            }
+            case LRU -> {
+                return new LongKeyLRUCache<>(capacity);
+            }
+            default -> {
+                System.out.println(MessageFormat.format("Long-key cache with type {0} is not implemented yet.", type));
+                return null;
+            }
+        }
+    }
 }
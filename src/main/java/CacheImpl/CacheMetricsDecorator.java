@@ -0,0 +1,210 @@
+package CacheImpl;
+
+import Enums.CacheOperationEnum;
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A decorator that collects cache statistics: hits, misses, puts, evictions, load time and the latency
+ * distribution of every cache operation. Counters are LongAdders and latencies go into lock-free histograms,
+ * so recording is cheap, thread-safe and does not allocate. Call snapshot() to scrape the current values.
+ * Evictions are counted through the cache listener of the wrapped cache, so a listener of your own has to
+ * be registered on this decorator rather than on the wrapped cache.
+ */
+public final class CacheMetricsDecorator<K,V> extends CacheDecorator<K,V> {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LatencyHistogram[] latencies;
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    public CacheMetricsDecorator(ICache<K,V> cache) {
+        super(cache);
+        CacheOperationEnum[] operations = CacheOperationEnum.values();
+        this.latencies = new LatencyHistogram[operations.length];
+        for (int i = 0; i < operations.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        super.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onMiss(K key) {
+                listener.onMiss(key);
+            }
+
+            @Override
+            public void onEviction(K key, V value) {
+                evictionCount.increment();
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onExpiration(K key, V value) {
+                listener.onExpiration(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                listener.onRejection(key, value);
+            }
+        });
+    }
+
+    @Override
+    public V get(K key) {
+        long startTime = System.nanoTime();
+        V value = super.get(key);
+        record(CacheOperationEnum.GET, startTime);
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        long startTime = System.nanoTime();
+        super.put(key, value);
+        record(CacheOperationEnum.PUT, startTime);
+        putCount.increment();
+    }
+
+    /**
+     * Forwards the distinct keys as one batch and records its latency once, under GET_ALL; every distinct key
+     * counts as a hit or a miss. The keys are iterated once, so single-use Iterables work.
+     */
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        Set<K> distinctKeys = new LinkedHashSet<>();
+        for (K key : keys) {
+            distinctKeys.add(key);
+        }
+        long startTime = System.nanoTime();
+        Map<K,V> values = super.getAll(distinctKeys);
+        record(CacheOperationEnum.GET_ALL, startTime);
+        hitCount.add(values.size());
+        missCount.add(distinctKeys.size() - values.size());
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        long startTime = System.nanoTime();
+        super.putAll(entries);
+        record(CacheOperationEnum.PUT_ALL, startTime);
+        putCount.add(entries.size());
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        long startTime = System.nanoTime();
+        super.removeAll(keys);
+        record(CacheOperationEnum.REMOVE_ALL, startTime);
+    }
+
+    /**
+     * Counts the lookup as a hit or a miss and, on a miss, records the time spent in the mapping function
+     * as a load before putting the value through this decorator.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long startTime = System.nanoTime();
+        value = mappingFunction.apply(key);
+        recordLoad(System.nanoTime() - startTime);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void remove(K key) {
+        long startTime = System.nanoTime();
+        super.remove(key);
+        record(CacheOperationEnum.REMOVE, startTime);
+    }
+
+    @Override
+    public void clear() {
+        long startTime = System.nanoTime();
+        super.clear();
+        record(CacheOperationEnum.CLEAR, startTime);
+    }
+
+    @Override
+    public int getSize() {
+        long startTime = System.nanoTime();
+        int size = super.getSize();
+        record(CacheOperationEnum.GET_SIZE, startTime);
+        return size;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        long startTime = System.nanoTime();
+        boolean contains = super.containsKey(key);
+        record(CacheOperationEnum.CONTAINS_KEY, startTime);
+        return contains;
+    }
+
+    /**
+     * Records the duration of a load from the backing store, for layers that fill the cache on a miss.
+     *
+     * @param loadTimeNanos The time the load took in nanoseconds.
+     */
+    public void recordLoad(long loadTimeNanos) {
+        loadCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * @return A copy of all counters and latency histograms. It is safe to call from a scraper thread while the cache is in use.
+     */
+    public CacheMetricsSnapshot snapshot() {
+        EnumMap<CacheOperationEnum, LatencySnapshot> latencySnapshots = new EnumMap<>(CacheOperationEnum.class);
+        for (CacheOperationEnum operation : CacheOperationEnum.values()) {
+            latencySnapshots.put(operation, latencies[operation.ordinal()].snapshot());
+        }
+        return new CacheMetricsSnapshot(hitCount.sum(), missCount.sum(), putCount.sum(), evictionCount.sum(),
+                loadCount.sum(), totalLoadTime.sum(), latencySnapshots);
+    }
+
+    /**
+     * Resets every counter and histogram, e.g. after each scrape when deltas are wanted.
+     */
+    public void reset() {
+        hitCount.reset();
+        missCount.reset();
+        putCount.reset();
+        evictionCount.reset();
+        loadCount.reset();
+        totalLoadTime.reset();
+        for (LatencyHistogram latency : latencies) {
+            latency.reset();
+        }
+    }
+
+    private void record(CacheOperationEnum operation, long startTime) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startTime);
+    }
+}
@@ -0,0 +1,100 @@
+package CacheImpl;
+
+import Enums.CacheOperationEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable point-in-time view of the statistics collected by a CacheMetricsDecorator.
+ */
+public class CacheMetricsSnapshot {
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long loadCount;
+    private final long totalLoadTimeNanos;
+    private final Map<CacheOperationEnum, LatencySnapshot> latencies;
+
+    CacheMetricsSnapshot(long hitCount, long missCount, long putCount, long evictionCount,
+                         long loadCount, long totalLoadTimeNanos, EnumMap<CacheOperationEnum, LatencySnapshot> latencies) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.latencies = latencies;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return The share of get calls that found a value, or 1.0 when there was no get call yet.
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    public double getAverageLoadTimeNanos() {
+        return loadCount == 0 ? 0 : (double) totalLoadTimeNanos / loadCount;
+    }
+
+    /**
+     * @param operation The cache operation.
+     * @return The latency distribution of that operation in nanoseconds.
+     */
+    public LatencySnapshot getLatency(CacheOperationEnum operation) {
+        return latencies.get(operation);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("hits=").append(hitCount)
+                .append(", misses=").append(missCount)
+                .append(", hitRate=").append(getHitRate())
+                .append(", puts=").append(putCount)
+                .append(", evictions=").append(evictionCount)
+                .append(", loads=").append(loadCount)
+                .append(", avgLoadNanos=").append(getAverageLoadTimeNanos());
+        for (Map.Entry<CacheOperationEnum, LatencySnapshot> entry : latencies.entrySet()) {
+            LatencySnapshot latency = entry.getValue();
+            if (latency.getCount() > 0) {
+                builder.append(", ").append(entry.getKey())
+                        .append("[p50=").append(latency.getValueAtPercentile(50))
+                        .append("ns, p99=").append(latency.getValueAtPercentile(99))
+                        .append("ns, max=").append(latency.getMax()).append("ns]");
+            }
+        }
+        return builder.toString();
+    }
+}
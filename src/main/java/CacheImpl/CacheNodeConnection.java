@@ -0,0 +1,355 @@
+package CacheImpl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Client side of one connection to a CacheServer. Requests of all threads are pipelined over the connection:
+ * a caller writes its frames and gets futures without waiting for earlier responses, and a reader thread
+ * completes the futures in the order the server answers, which is the order the requests were written.
+ * When the connection fails, all pending and later requests fail with the IOException.
+ */
+final class CacheNodeConnection implements AutoCloseable {
+    private final SocketChannel channel;
+    private final String serverName;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // added under writeLock in the order the requests are written
+    private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(ClusterProtocol.CHUNK_LENGTH);
+    private volatile IOException failure;
+
+    CacheNodeConnection(InetSocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        this.serverName = CacheServer.serverName(address);
+        Thread reader = new Thread(this::read, "cache-cluster-reader-" + serverName);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * @return A future of the value, or of null if the server has none.
+     */
+    CompletableFuture<byte[]> get(byte[] key) {
+        return send(new Request(ClusterProtocol.GET, key, null));
+    }
+
+    CompletableFuture<Boolean> containsKey(byte[] key) {
+        return send(new Request(ClusterProtocol.CONTAINS, key, null)).thenApply(found -> found != null);
+    }
+
+    CompletableFuture<Void> put(byte[] key, byte[] value) {
+        return send(new Request(ClusterProtocol.PUT, key, value)).thenApply(ignored -> null);
+    }
+
+    CompletableFuture<Void> remove(byte[] key) {
+        return send(new Request(ClusterProtocol.REMOVE, key, null)).thenApply(ignored -> null);
+    }
+
+    CompletableFuture<Void> clear() {
+        return send(new Request(ClusterProtocol.CLEAR, null, null)).thenApply(ignored -> null);
+    }
+
+    CompletableFuture<Integer> size() {
+        return send(new Request(ClusterProtocol.SIZE, null, null)).thenApply(payload -> ByteBuffer.wrap(payload).getInt());
+    }
+
+    /**
+     * @return A future of all entries of the server, as key and value bytes.
+     */
+    CompletableFuture<List<Map.Entry<byte[], byte[]>>> entries() {
+        Request request = new Request(ClusterProtocol.ENTRIES, null, null);
+        send(List.of(request), null);
+        return request.future.thenApply(ignored -> request.entries);
+    }
+
+    /**
+     * Lets the server filter the entries by the ring, so a rebalance only transfers the entries that move.
+     *
+     * @param keptNode The node whose entries are left out; if it is not on the ring, all entries are returned.
+     * @return A future of the entries of the server that another node than keptNode owns on the ring.
+     */
+    CompletableFuture<List<Map.Entry<byte[], byte[]>>> movedEntries(ConsistentHashRing ring, String keptNode) {
+        List<String> nodes = new ArrayList<>(ring.getNodes());
+        List<byte[]> names = new ArrayList<>(nodes.size());
+        int length = 3 * Integer.BYTES;
+        for (String node : nodes) {
+            byte[] name = node.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            length += Integer.BYTES + name.length;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length).putInt(ring.getVirtualNodeCount()).putInt(names.size());
+        for (byte[] name : names) {
+            payload.putInt(name.length).put(name);
+        }
+        payload.putInt(nodes.indexOf(keptNode));
+        Request request = new Request(ClusterProtocol.MOVED_ENTRIES, payload.array(), null);
+        send(List.of(request), null);
+        return request.future.thenApply(ignored -> request.entries);
+    }
+
+    /**
+     * Writes a GET for every key at once.
+     *
+     * @return The futures of the values, in the order of the keys.
+     */
+    List<CompletableFuture<byte[]>> getAll(List<byte[]> keys) {
+        List<Request> requests = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            requests.add(new Request(ClusterProtocol.GET, key, null));
+        }
+        send(requests, null);
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            futures.add(request.future);
+        }
+        return futures;
+    }
+
+    /**
+     * Writes a PUT, or a PUT_IF_ABSENT, for every entry at once.
+     *
+     * @param skip Decides under the write lock which entries to leave out, or null to write all.
+     * @return A future completed once the server stored all entries.
+     */
+    CompletableFuture<Void> putAll(List<Map.Entry<byte[], byte[]>> entries, boolean ifAbsent, Predicate<byte[]> skip) {
+        List<Request> requests = new ArrayList<>(entries.size());
+        for (Map.Entry<byte[], byte[]> entry : entries) {
+            requests.add(new Request(ifAbsent ? ClusterProtocol.PUT_IF_ABSENT : ClusterProtocol.PUT, entry.getKey(), entry.getValue()));
+        }
+        return allOf(send(requests, skip));
+    }
+
+    CompletableFuture<Void> removeAll(List<byte[]> keys) {
+        List<Request> requests = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            requests.add(new Request(ClusterProtocol.REMOVE, key, null));
+        }
+        return allOf(send(requests, null));
+    }
+
+    /**
+     * Closes the connection; pending requests fail.
+     */
+    @Override
+    public void close() {
+        fail(new IOException("The connection to " + serverName + " was closed."));
+    }
+
+    private CompletableFuture<byte[]> send(Request request) {
+        send(List.of(request), null);
+        return request.future;
+    }
+
+    /**
+     * Queues and writes the requests, flushing the buffer only when it is full and after the last request.
+     *
+     * @return The requests that were written.
+     */
+    private List<Request> send(List<Request> requests, Predicate<byte[]> skip) {
+        List<Request> written = skip == null ? requests : new ArrayList<>(requests.size());
+        writeLock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            for (Request request : requests) {
+                if (skip != null) {
+                    if (skip.test(request.key)) {
+                        continue;
+                    }
+                    written.add(request);
+                }
+                int keyLength = request.key == null ? 0 : request.key.length;
+                int valueLength = request.value == null ? 0 : request.value.length;
+                boolean withKeyLength = request.value != null;
+                long frameLength = 1L + (withKeyLength ? Integer.BYTES : 0) + keyLength + valueLength;
+                if (frameLength > ClusterProtocol.MAX_FRAME_LENGTH) {
+                    request.future.completeExceptionally(new IllegalArgumentException("The entry is larger than "
+                            + ClusterProtocol.MAX_FRAME_LENGTH + " bytes."));
+                    continue;
+                }
+                ensureCapacity(Integer.BYTES + (int) frameLength);
+                pending.add(request);
+                writeBuffer.putInt((int) frameLength).put(request.operation);
+                if (withKeyLength) {
+                    writeBuffer.putInt(keyLength);
+                }
+                if (request.key != null) {
+                    writeBuffer.put(request.key);
+                }
+                if (request.value != null) {
+                    writeBuffer.put(request.value);
+                }
+            }
+            flush();
+        } catch (IOException e) {
+            fail(e);
+            for (Request request : requests) {
+                request.future.completeExceptionally(failure);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return written;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (writeBuffer.remaining() >= length) {
+            return;
+        }
+        flush();
+        if (writeBuffer.capacity() < length) {
+            writeBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(length - 1) << 1);
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void read() {
+        ByteBuffer in = ByteBuffer.allocate(ClusterProtocol.CHUNK_LENGTH);
+        try {
+            while (true) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("The connection was closed by " + serverName + ".");
+                }
+                in.flip();
+                while (in.remaining() >= Integer.BYTES) {
+                    int length = in.getInt(in.position());
+                    if (length < 1 || length > ClusterProtocol.MAX_FRAME_LENGTH) {
+                        throw new IOException("Invalid frame length " + length);
+                    }
+                    if (in.remaining() < Integer.BYTES + length) {
+                        break;
+                    }
+                    in.getInt();
+                    int end = in.position() + length;
+                    complete(in.get(), in, end);
+                    in.position(end);
+                }
+                in.compact();
+                if (in.position() >= Integer.BYTES && Integer.BYTES + in.getInt(0) > in.capacity()) {
+                    ByteBuffer grown = ByteBuffer.allocate(Integer.BYTES + in.getInt(0));
+                    in.flip();
+                    in = grown.put(in);
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (RuntimeException e) {
+            fail(new IOException("Malformed response from " + serverName + ".", e));
+        }
+    }
+
+    /**
+     * Passes one response frame to the oldest pending request.
+     */
+    private void complete(byte status, ByteBuffer in, int end) throws IOException {
+        Request request = pending.peek();
+        if (request == null) {
+            throw new IOException("Unexpected response from " + serverName + ".");
+        }
+        byte[] payload = new byte[end - in.position()];
+        switch (status) {
+            case ClusterProtocol.CHUNK -> {
+                if (request.entries == null) {
+                    throw new IOException("Unexpected chunk from " + serverName + ".");
+                }
+                while (in.position() < end) {
+                    byte[] key = new byte[in.getInt()];
+                    in.get(key);
+                    byte[] value = new byte[in.getInt()];
+                    in.get(value);
+                    request.entries.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+                }
+                return;
+            }
+            case ClusterProtocol.OK, ClusterProtocol.FOUND -> {
+                in.get(payload);
+                pending.poll();
+                request.future.complete(payload);
+            }
+            case ClusterProtocol.NOT_FOUND -> {
+                pending.poll();
+                request.future.complete(null);
+            }
+            case ClusterProtocol.ERROR -> {
+                in.get(payload);
+                pending.poll();
+                request.future.completeExceptionally(new IOException(serverName + ": " + new String(payload, StandardCharsets.UTF_8)));
+            }
+            default -> throw new IOException("Unknown status " + status + " from " + serverName + ".");
+        }
+    }
+
+    /**
+     * Closes the connection and fails every pending request; later requests fail right away.
+     */
+    private void fail(IOException e) {
+        // closing first releases a writer blocked on a full socket, which holds the write lock
+        try {
+            channel.close();
+        } catch (IOException closeFailure) {
+            // nothing left to release
+        }
+        writeLock.lock();
+        try {
+            if (failure == null) {
+                failure = e;
+            }
+            Request request;
+            while ((request = pending.poll()) != null) {
+                request.future.completeExceptionally(failure);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static CompletableFuture<Void> allOf(List<Request> requests) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = requests.get(i).future;
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    private static final class Request {
+        private final byte operation;
+        private final byte[] key;
+        private final byte[] value;
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        // the entries of an ENTRIES response, filled by the reader thread
+        private final List<Map.Entry<byte[], byte[]>> entries;
+
+        Request(byte operation, byte[] key, byte[] value) {
+            this.operation = operation;
+            this.key = key;
+            this.value = value;
+            this.entries = operation == ClusterProtocol.ENTRIES || operation == ClusterProtocol.MOVED_ENTRIES ? new ArrayList<>() : null;
+        }
+    }
+}
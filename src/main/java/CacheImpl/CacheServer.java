@@ -0,0 +1,400 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+import Interfaces.ICache;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache node of a CacheCluster. It holds serialized keys and values in an engine created like CacheFactory does,
+ * and serves the ClusterProtocol over TCP. A single thread runs a Selector over all connections and is the only
+ * thread touching the engine, so the engine needs no lock; reading a batch of pipelined requests and writing all
+ * their responses takes one system call each. Several servers in one JVM each use their own thread and core.
+ * The server name is the host and port it listens on; it names the node on the hash ring and is passed on to
+ * engines that keep one, like LFUCache.
+ */
+public class CacheServer implements AutoCloseable {
+    // stop reading requests of a connection while this many response bytes wait for the client
+    private static final int OUTPUT_LIMIT = 1 << 20;
+
+    private final ICache<BinaryKey, byte[]> cache;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final InetSocketAddress address;
+    private final String serverName;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param type     The type of the engine holding the entries.
+     * @param capacity The maximum number of entries of this node.
+     * @param port     The port to listen on; 0 picks a free one, see getAddress.
+     */
+    public CacheServer(CacheTypeEnum type, int capacity, int port) throws IOException {
+        this(type, capacity, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Starts a server listening on the given address.
+     */
+    public CacheServer(CacheTypeEnum type, int capacity, InetSocketAddress bindAddress) throws IOException {
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(bindAddress);
+            serverChannel.configureBlocking(false);
+            this.address = (InetSocketAddress) serverChannel.getLocalAddress();
+            this.serverName = serverName(address);
+            this.cache = createEngine(type, capacity, serverName);
+            this.selector = Selector.open();
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException | RuntimeException e) {
+            serverChannel.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "cache-server-" + serverName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * @return The host and port of this server, e.g. 127.0.0.1:41234.
+     */
+    public String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * Stops the server and closes all connections; the entries are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The name a server listening on the address has, and a cluster node connecting to it gets.
+     */
+    static String serverName(InetSocketAddress address) {
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    private static ICache<BinaryKey, byte[]> createEngine(CacheTypeEnum type, int capacity, String serverName) {
+        if (type == CacheTypeEnum.LFU) {
+            return new LFUCacheBuilder<BinaryKey, byte[]>().setCapacity(capacity).setServerName(serverName).build();
+        }
+        ICache<BinaryKey, byte[]> cache = new CacheFactory<BinaryKey, byte[]>().createCacheInstance(type, capacity);
+        if (cache == null) {
+            throw new IllegalArgumentException("Cache type " + type + " is not supported.");
+        }
+        return cache;
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable() && connection.channel.read(connection.in) < 0) {
+                            connection.close();
+                            continue;
+                        }
+                        connection.pump();
+                    } catch (IOException | RuntimeException e) {
+                        // the client went away or broke the protocol; the other connections are served on
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the selector failed; nothing can be served any more
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                selector.close();
+                serverChannel.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        try {
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        } catch (ClosedChannelException e) {
+            // closed by the client right away
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        // both buffers are kept in write mode
+        private ByteBuffer in = ByteBuffer.allocate(ClusterProtocol.CHUNK_LENGTH);
+        private ByteBuffer out = ByteBuffer.allocate(ClusterProtocol.CHUNK_LENGTH);
+        // the rest of an ENTRIES or MOVED_ENTRIES response; later requests wait until it is sent
+        private Iterator<Map.Entry<BinaryKey, byte[]>> entries;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        /**
+         * Answers the buffered requests and writes the responses until the socket or the requests run out.
+         */
+        void pump() throws IOException {
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                if (entries != null && out.position() < ClusterProtocol.CHUNK_LENGTH) {
+                    writeEntries();
+                    progress = true;
+                }
+                if (entries == null && out.position() < OUTPUT_LIMIT && handleRequests()) {
+                    progress = true;
+                }
+                if (out.position() > 0) {
+                    out.flip();
+                    channel.write(out);
+                    out.compact();
+                    if (out.position() > 0) {
+                        // the socket is full; continue once it is writable
+                        break;
+                    }
+                }
+            }
+            int interestOps = out.position() > 0 || entries != null ? SelectionKey.OP_WRITE : 0;
+            if (entries == null && out.position() < OUTPUT_LIMIT) {
+                interestOps |= SelectionKey.OP_READ;
+            }
+            key.interestOps(interestOps);
+        }
+
+        /**
+         * @return Whether at least one complete request was answered.
+         */
+        private boolean handleRequests() throws IOException {
+            boolean handled = false;
+            in.flip();
+            try {
+                while (entries == null && out.position() < OUTPUT_LIMIT && in.remaining() >= Integer.BYTES) {
+                    int length = in.getInt(in.position());
+                    if (length < 1 || length > ClusterProtocol.MAX_FRAME_LENGTH) {
+                        throw new IOException("Invalid frame length " + length);
+                    }
+                    if (in.remaining() < Integer.BYTES + length) {
+                        break;
+                    }
+                    in.getInt();
+                    int end = in.position() + length;
+                    handle(in.get(), end);
+                    in.position(end);
+                    handled = true;
+                }
+            } finally {
+                in.compact();
+            }
+            if (in.position() >= Integer.BYTES) {
+                int frameLength = Integer.BYTES + in.getInt(0);
+                if (frameLength > in.capacity()) {
+                    in = grow(in, frameLength);
+                }
+            }
+            return handled;
+        }
+
+        private void handle(byte operation, int end) throws IOException {
+            switch (operation) {
+                case ClusterProtocol.GET -> {
+                    byte[] value = cache.get(new BinaryKey(readBytes(end - in.position())));
+                    if (value == null) {
+                        writeFrame(ClusterProtocol.NOT_FOUND, 0);
+                    } else {
+                        writeFrame(ClusterProtocol.FOUND, value.length).put(value);
+                    }
+                }
+                case ClusterProtocol.CONTAINS -> {
+                    boolean found = cache.containsKey(new BinaryKey(readBytes(end - in.position())));
+                    writeFrame(found ? ClusterProtocol.FOUND : ClusterProtocol.NOT_FOUND, 0);
+                }
+                case ClusterProtocol.PUT, ClusterProtocol.PUT_IF_ABSENT -> {
+                    int keyLength = readInt(end);
+                    if (keyLength < 0 || keyLength > end - in.position()) {
+                        throw new IOException("Invalid key length " + keyLength);
+                    }
+                    BinaryKey key = new BinaryKey(readBytes(keyLength));
+                    byte[] value = readBytes(end - in.position());
+                    if (operation == ClusterProtocol.PUT || !cache.containsKey(key)) {
+                        cache.put(key, value);
+                    }
+                    writeFrame(ClusterProtocol.OK, 0);
+                }
+                case ClusterProtocol.REMOVE -> {
+                    cache.remove(new BinaryKey(readBytes(end - in.position())));
+                    writeFrame(ClusterProtocol.OK, 0);
+                }
+                case ClusterProtocol.SIZE -> writeFrame(ClusterProtocol.OK, Integer.BYTES).putInt(cache.getSize());
+                case ClusterProtocol.CLEAR -> {
+                    cache.clear();
+                    writeFrame(ClusterProtocol.OK, 0);
+                }
+                case ClusterProtocol.ENTRIES -> entries = cache.entryIterator();
+                case ClusterProtocol.MOVED_ENTRIES -> entries = movedEntries(end);
+                default -> {
+                    byte[] message = ("Unknown operation " + operation).getBytes(StandardCharsets.UTF_8);
+                    writeFrame(ClusterProtocol.ERROR, message.length).put(message);
+                }
+            }
+        }
+
+        /**
+         * Reads the ring of a MOVED_ENTRIES request. The ring is built once per request, which is cheap next to
+         * the scan, and the entries are filtered while the response is written.
+         */
+        private Iterator<Map.Entry<BinaryKey, byte[]>> movedEntries(int end) throws IOException {
+            int virtualNodeCount = readInt(end);
+            int nodeCount = readInt(end);
+            if (virtualNodeCount <= 0 || nodeCount <= 0 || nodeCount > (end - in.position()) / Integer.BYTES) {
+                throw new IOException("Invalid ring of " + nodeCount + " nodes with " + virtualNodeCount + " virtual nodes");
+            }
+            List<String> nodes = new ArrayList<>(nodeCount);
+            for (int i = 0; i < nodeCount; i++) {
+                int nameLength = readInt(end);
+                if (nameLength < 0 || nameLength > end - in.position()) {
+                    throw new IOException("Invalid node name length " + nameLength);
+                }
+                nodes.add(new String(readBytes(nameLength), StandardCharsets.UTF_8));
+            }
+            int keptIndex = readInt(end);
+            String keptNode = keptIndex >= 0 && keptIndex < nodeCount ? nodes.get(keptIndex) : null;
+            ConsistentHashRing ring = new ConsistentHashRing(nodes, virtualNodeCount);
+            return cache.entryStream(false)
+                    .filter(entry -> !ring.getOwner(entry.getKey().getBytes()).equals(keptNode))
+                    .iterator();
+        }
+
+        /**
+         * Appends one CHUNK of the pending ENTRIES or MOVED_ENTRIES response, or the closing OK once all entries
+         * are sent.
+         */
+        private void writeEntries() {
+            if (!entries.hasNext()) {
+                entries = null;
+                writeFrame(ClusterProtocol.OK, 0);
+                return;
+            }
+            int lengthPosition = writeFrame(ClusterProtocol.CHUNK, 0).position() - 1 - Integer.BYTES;
+            int start = out.position();
+            while (entries.hasNext() && out.position() - start < ClusterProtocol.CHUNK_LENGTH) {
+                Map.Entry<BinaryKey, byte[]> entry = entries.next();
+                byte[] key = entry.getKey().getBytes();
+                byte[] value = entry.getValue();
+                ensureOutput(2 * Integer.BYTES + key.length + value.length);
+                out.putInt(key.length).put(key).putInt(value.length).put(value);
+            }
+            out.putInt(lengthPosition, 1 + out.position() - start);
+        }
+
+        /**
+         * Appends the frame header and makes room for the payload.
+         *
+         * @return The output buffer, positioned at the payload.
+         */
+        private ByteBuffer writeFrame(byte status, int payloadLength) {
+            ensureOutput(Integer.BYTES + 1 + payloadLength);
+            return out.putInt(1 + payloadLength).put(status);
+        }
+
+        private void ensureOutput(int length) {
+            if (out.remaining() < length) {
+                out = grow(out, out.position() + length);
+            }
+        }
+
+        /**
+         * Reads an int of the payload, which ends at the given position.
+         */
+        private int readInt(int end) throws IOException {
+            if (end - in.position() < Integer.BYTES) {
+                throw new IOException("Truncated request");
+            }
+            return in.getInt();
+        }
+
+        private byte[] readBytes(int length) {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return bytes;
+        }
+
+        void close() {
+            entries = null;
+            closeQuietly(key);
+        }
+    }
+
+    /**
+     * @return A buffer of at least the capacity with the content of the given one, in write mode.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+}
@@ -0,0 +1,160 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.Serializer;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.concurrent.Executor;
+
+/**
+ * Saves the entries of a cache to a file and restores them after a restart, so the cache does not start cold.
+ * Entries are written in eviction order together with their access frequency, which keeps the LRU order of
+ * LRUCache, the insertion order of FIFOCache and the frequencies of LFUCache. Keys and values are converted
+ * with the given serializers; the file is written and read through memory-mapped windows.
+ * Layout: magic number, format version and entry count as 4-byte ints, followed by one record per entry made
+ * of the key bytes, the value bytes, each prefixed by its length, and the frequency; lengths and frequencies
+ * are variable-length ints.
+ */
+public class CacheSnapshot<K,V> {
+    private static final int MAGIC = 0x43455350;
+    private static final int VERSION = 1;
+    // entries restored per lock acquisition, so callers are not blocked for long
+    private static final int RESTORE_BATCH_SIZE = 256;
+
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+
+    /**
+     * @param keySerializer   Converts the keys.
+     * @param valueSerializer Converts the values.
+     */
+    public CacheSnapshot(Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /**
+     * Writes all entries of the cache to the file. The snapshot is written to a temporary file first and then
+     * moved over the target, so a crash while saving leaves the previous snapshot intact.
+     * The cache must not be changed while it is saved, unless it is a RestoringCache.
+     *
+     * @return The number of saved entries.
+     * @throws IllegalArgumentException if the cache engine does not support snapshots.
+     */
+    public int save(ICache<K,V> cache, Path file) throws IOException {
+        Snapshotable<K,V> source = snapshotable(cache);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        int[] count = new int[1];
+        try (MappedFileWriter writer = new MappedFileWriter(tempFile)) {
+            writer.writeInt(MAGIC);
+            writer.writeInt(VERSION);
+            long countPosition = writer.position();
+            writer.writeInt(0);
+            source.forEachInEvictionOrder((key, value, frequency) -> {
+                writer.writeBytes(keySerializer.serialize(key));
+                writer.writeBytes(valueSerializer.serialize(value));
+                writer.writeVarInt(frequency);
+                count[0]++;
+            });
+            writer.writeIntAt(countPosition, count[0]);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count[0];
+    }
+
+    /**
+     * Restores the snapshot into the cache on a background daemon thread.
+     *
+     * @see #restore(ICache, Path, Executor)
+     */
+    public RestoringCache<K,V> restore(ICache<K,V> cache, Path file) throws IOException {
+        return restore(cache, file, runnable -> {
+            Thread thread = new Thread(runnable, "cache-restore");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Checks the header of the snapshot and returns at once; the entries are read and added to the cache by a
+     * task on the executor. Entries are restored in the order they were saved, so a cache smaller than the
+     * saved one keeps the entries that were evicted last.
+     *
+     * @param cache    An empty cache of the same engine type as the saved one.
+     * @param file     The snapshot written by save.
+     * @param executor Runs the restore.
+     * @return The cache to use from now on; it must not be accessed directly while the restore is running.
+     * @throws IllegalArgumentException if the cache engine does not support snapshots.
+     * @throws StreamCorruptedException if the file is not a snapshot of this version.
+     */
+    public RestoringCache<K,V> restore(ICache<K,V> cache, Path file, Executor executor) throws IOException {
+        RestoringCache<K,V> restoringCache = new RestoringCache<>(cache, snapshotable(cache));
+        MappedFileReader reader = new MappedFileReader(file);
+        int count;
+        try {
+            if (reader.readInt() != MAGIC || reader.readInt() != VERSION) {
+                throw new StreamCorruptedException(MessageFormat.format("{0} is not a cache snapshot of version {1}.", file, VERSION));
+            }
+            count = reader.readInt();
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        executor.execute(() -> {
+            try (reader) {
+                readEntries(reader, count, restoringCache);
+                restoringCache.completeRestore(null);
+            } catch (Throwable e) {
+                restoringCache.completeRestore(e);
+            }
+        });
+        return restoringCache;
+    }
+
+    /**
+     * Deserializes the entries batch by batch outside of the cache's lock and hands each batch to the cache.
+     */
+    @SuppressWarnings("unchecked")
+    private void readEntries(MappedFileReader reader, int count, RestoringCache<K,V> restoringCache) throws IOException {
+        K[] keys = (K[]) new Object[RESTORE_BATCH_SIZE];
+        V[] values = (V[]) new Object[RESTORE_BATCH_SIZE];
+        int[] frequencies = new int[RESTORE_BATCH_SIZE];
+        int remaining = count;
+        while (remaining > 0) {
+            int size = Math.min(remaining, RESTORE_BATCH_SIZE);
+            for (int i = 0; i < size; i++) {
+                keys[i] = keySerializer.deserialize(reader.readBytes());
+                values[i] = valueSerializer.deserialize(reader.readBytes());
+                frequencies[i] = reader.readVarInt();
+            }
+            if (!restoringCache.restoreBatch(keys, values, frequencies, size)) {
+                return;
+            }
+            remaining -= size;
+        }
+    }
+
+    private static <K,V> Snapshotable<K,V> snapshotable(ICache<K,V> cache) {
+        if (cache instanceof LRUCache<K,V> lruCache) {
+            return lruCache.snapshotable();
+        }
+        if (cache instanceof FIFOCache<K,V> fifoCache) {
+            return fifoCache.snapshotable();
+        }
+        if (cache instanceof LFUCache<K,V> lfuCache) {
+            return lfuCache.snapshotable();
+        }
+        if (cache instanceof RestoringCache<K,V> restoringCache) {
+            return restoringCache.snapshotable();
+        }
+        throw new IllegalArgumentException(MessageFormat.format("{0} does not support snapshots.", cache.getClass().getSimpleName()));
+    }
+}
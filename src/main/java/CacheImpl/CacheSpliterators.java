@@ -0,0 +1,227 @@
+package CacheImpl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Weakly consistent spliterators used by the engines. Single-threaded engines take a snapshot of their entry
+ * references, which the caller can traverse while it keeps changing the cache; engines with fixed entry slots
+ * traverse the live slots. Elements are mapped when they are reached, so values reflect later updates, and
+ * mappings to null, e.g. of empty slots or ghost entries, are skipped.
+ */
+final class CacheSpliterators {
+    static final int CHARACTERISTICS = Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    private CacheSpliterators() {
+    }
+
+    /**
+     * Copies the element references into an array, which splits evenly without touching the cache again.
+     */
+    @SuppressWarnings("unchecked")
+    static <E,T> Spliterator<T> snapshot(Collection<E> elements, Function<? super E, ? extends T> mapper) {
+        return snapshot((E[]) elements.toArray(), mapper);
+    }
+
+    /**
+     * Traverses an array the caller has copied, e.g. to keep the order of an eviction list.
+     */
+    static <E,T> Spliterator<T> snapshot(E[] snapshot, Function<? super E, ? extends T> mapper) {
+        return slots(0, snapshot.length, index -> mapper.apply(snapshot[index]));
+    }
+
+    /**
+     * Traverses the slot indexes from (inclusive) to to (exclusive) and maps each one; empty slots map to null.
+     */
+    static <T> Spliterator<T> slots(int from, int to, IntFunction<? extends T> slot) {
+        return new SlotSpliterator<>(from, to, slot);
+    }
+
+    static <E,T> Spliterator<T> map(Spliterator<E> source, Function<? super E, ? extends T> mapper) {
+        return new MappingSpliterator<>(source, mapper);
+    }
+
+    /**
+     * Traverses the parts one after another. A part is only created when it is reached, e.g. to copy one shard
+     * under its lock; splitting hands whole parts to other threads.
+     *
+     * @param sizePerPart The estimated number of elements of a part.
+     */
+    static <T> Spliterator<T> concat(List<Supplier<Spliterator<T>>> parts, long sizePerPart) {
+        return new ConcatSpliterator<>(parts, 0, parts.size(), sizePerPart);
+    }
+
+    private static final class SlotSpliterator<T> implements Spliterator<T> {
+        private final IntFunction<? extends T> slot;
+        private int index;
+        private int end;
+
+        SlotSpliterator(int index, int end, IntFunction<? extends T> slot) {
+            this.index = index;
+            this.end = end;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (index < end) {
+                T element = slot.apply(index++);
+                if (element != null) {
+                    action.accept(element);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            int end = this.end;
+            for (int i = index; i < end; i++) {
+                T element = slot.apply(i);
+                if (element != null) {
+                    action.accept(element);
+                }
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int middle = (index + end) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            Spliterator<T> prefix = new SlotSpliterator<>(index, middle, slot);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static final class MappingSpliterator<E,T> implements Spliterator<T> {
+        private final Spliterator<E> source;
+        private final Function<? super E, ? extends T> mapper;
+        private T mapped;
+
+        MappingSpliterator(Spliterator<E> source, Function<? super E, ? extends T> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (source.tryAdvance(element -> mapped = mapper.apply(element))) {
+                T element = mapped;
+                if (element != null) {
+                    mapped = null;
+                    action.accept(element);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            source.forEachRemaining(element -> {
+                T mappedElement = mapper.apply(element);
+                if (mappedElement != null) {
+                    action.accept(mappedElement);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<E> prefix = source.trySplit();
+            return prefix == null ? null : new MappingSpliterator<>(prefix, mapper);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS | (source.characteristics() & Spliterator.CONCURRENT);
+        }
+    }
+
+    private static final class ConcatSpliterator<T> implements Spliterator<T> {
+        private final List<Supplier<Spliterator<T>>> parts;
+        private final long sizePerPart;
+        private int next;
+        private int end;
+        private Spliterator<T> current;
+
+        ConcatSpliterator(List<Supplier<Spliterator<T>>> parts, int next, int end, long sizePerPart) {
+            this.parts = parts;
+            this.next = next;
+            this.end = end;
+            this.sizePerPart = sizePerPart;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (current == null || !current.tryAdvance(action)) {
+                if (next == end) {
+                    return false;
+                }
+                current = parts.get(next++).get();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+            }
+            while (next < end) {
+                current = parts.get(next++).get();
+                current.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (current == null && end - next == 1) {
+                current = parts.get(next++).get();
+            }
+            if (next == end) {
+                return current != null ? current.trySplit() : null;
+            }
+            // hand the untouched parts, or the upper half of them, to another thread
+            int middle = current == null ? (next + end) >>> 1 : next;
+            Spliterator<T> split = new ConcatSpliterator<>(parts, middle, end, sizePerPart);
+            end = middle;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (end - next) * sizePerPart + (current != null ? current.estimateSize() : 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
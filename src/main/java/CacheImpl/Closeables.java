@@ -0,0 +1,28 @@
+package CacheImpl;
+
+import java.io.IOException;
+
+/**
+ * Closes the wrapped engines of decorators and tiered caches that hold resources.
+ */
+final class Closeables {
+    private Closeables() {
+    }
+
+    /**
+     * Closes the cache if it is AutoCloseable. A checked exception other than IOException is wrapped in one, so
+     * callers can declare close() with IOException instead of Exception.
+     */
+    static void closeIfCloseable(Object cache) throws IOException {
+        if (!(cache instanceof AutoCloseable closeable)) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
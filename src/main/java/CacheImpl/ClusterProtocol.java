@@ -0,0 +1,37 @@
+package CacheImpl;
+
+/**
+ * Wire format shared by CacheServer and CacheNodeConnection. Every request and response is a frame: a 4-byte
+ * length, then an operation or status byte, then the payload. A connection answers its requests in the order it
+ * received them, so clients can pipeline requests and match the responses by position.
+ * Payloads: GET, CONTAINS, REMOVE: key. PUT, PUT_IF_ABSENT: 4-byte key length, key, value. SIZE, CLEAR, ENTRIES: empty.
+ * MOVED_ENTRIES: a hash ring as 4-byte virtual node count, node count and per node its name length and UTF-8 name,
+ * then the index of the node whose entries are left out.
+ * FOUND: value, empty for CONTAINS. SIZE is answered by OK with a 4-byte size. ENTRIES is answered by any number of CHUNK frames,
+ * each a sequence of key length, key, value length and value, followed by OK; MOVED_ENTRIES likewise, with only the entries
+ * that another node owns on the ring. ERROR: UTF-8 message.
+ */
+final class ClusterProtocol {
+    static final byte GET = 1;
+    static final byte PUT = 2;
+    static final byte PUT_IF_ABSENT = 3;
+    static final byte REMOVE = 4;
+    static final byte SIZE = 5;
+    static final byte CLEAR = 6;
+    static final byte ENTRIES = 7;
+    static final byte CONTAINS = 8;
+    static final byte MOVED_ENTRIES = 9;
+
+    static final byte OK = 0;
+    static final byte FOUND = 1;
+    static final byte NOT_FOUND = 2;
+    static final byte CHUNK = 3;
+    static final byte ERROR = 4;
+
+    static final int MAX_FRAME_LENGTH = 64 << 20;
+    // ENTRIES responses are split into chunks of about this size
+    static final int CHUNK_LENGTH = 64 << 10;
+
+    private ClusterProtocol() {
+    }
+}
@@ -0,0 +1,21 @@
+package CacheImpl;
+
+/**
+ * Entry of a concurrent cache. The value is volatile so lock-free readers always see the latest put,
+ * while the links and the frequency belong to the eviction policy and are only touched under its lock.
+ */
+final class ConcurrentCacheNode<K,V> {
+    final K key;
+    volatile V value;
+
+    boolean linked;
+    int frequency;
+    ConcurrentCacheNode<K,V> prev;
+    ConcurrentCacheNode<K,V> next;
+    ConcurrentLFUCache.FrequencyBucket<K,V> bucket;
+
+    ConcurrentCacheNode(K key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+}
@@ -0,0 +1,121 @@
+package CacheImpl;
+
+/**
+ * Thread-safe implementation of a Least Frequently Used (LFU) cache.
+ * Reads are lock-free; frequencies are counted when the read buffers are replayed, using the same
+ * per-frequency bucket lists as LFUBucketCache, so every policy update is O(1).
+ * Among items with the same frequency the one that reached that frequency first is evicted first.
+ */
+public class ConcurrentLFUCache<K,V> extends AbstractConcurrentCache<K,V> {
+    // The first bucket always holds the items with the lowest frequency present in the cache.
+    private FrequencyBucket<K,V> minFrequencyBucket;
+
+    /**
+     * Constructs a ConcurrentLFUCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public ConcurrentLFUCache(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void onInsert(ConcurrentCacheNode<K,V> node) {
+        if (minFrequencyBucket == null || minFrequencyBucket.frequency != 1) {
+            minFrequencyBucket = insertBucketAfter(null, 1);
+        }
+        node.frequency = 1;
+        append(minFrequencyBucket, node);
+    }
+
+    @Override
+    protected void onAccess(ConcurrentCacheNode<K,V> node) {
+        FrequencyBucket<K,V> currentBucket = node.bucket;
+        int nextFrequency = currentBucket.frequency + 1;
+        FrequencyBucket<K,V> nextBucket = currentBucket.next;
+        node.frequency = nextFrequency;
+        if (nextBucket == null || nextBucket.frequency != nextFrequency) {
+            if (currentBucket.head == node && currentBucket.tail == node) {
+                currentBucket.frequency = nextFrequency;
+                return;
+            }
+            nextBucket = insertBucketAfter(currentBucket, nextFrequency);
+        }
+        onRemove(node);
+        append(nextBucket, node);
+    }
+
+    @Override
+    protected void onRemove(ConcurrentCacheNode<K,V> node) {
+        FrequencyBucket<K,V> bucket = node.bucket;
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            bucket.head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            bucket.tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.bucket = null;
+
+        if (bucket.head == null) {
+            if (bucket.prev != null) {
+                bucket.prev.next = bucket.next;
+            } else {
+                minFrequencyBucket = bucket.next;
+            }
+            if (bucket.next != null) {
+                bucket.next.prev = bucket.prev;
+            }
+        }
+    }
+
+    @Override
+    protected ConcurrentCacheNode<K,V> victim() {
+        return minFrequencyBucket == null ? null : minFrequencyBucket.head;
+    }
+
+    private FrequencyBucket<K,V> insertBucketAfter(FrequencyBucket<K,V> previous, int frequency) {
+        FrequencyBucket<K,V> bucket = new FrequencyBucket<>(frequency);
+        bucket.prev = previous;
+        bucket.next = previous == null ? minFrequencyBucket : previous.next;
+        if (bucket.next != null) {
+            bucket.next.prev = bucket;
+        }
+        if (previous != null) {
+            previous.next = bucket;
+        }
+        return bucket;
+    }
+
+    private void append(FrequencyBucket<K,V> bucket, ConcurrentCacheNode<K,V> node) {
+        node.bucket = bucket;
+        node.prev = bucket.tail;
+        node.next = null;
+        if (bucket.tail != null) {
+            bucket.tail.next = node;
+        } else {
+            bucket.head = node;
+        }
+        bucket.tail = node;
+    }
+
+    /**
+     * List of nodes sharing the same access frequency, ordered from the oldest to the newest arrival.
+     */
+    static final class FrequencyBucket<K,V> {
+        private int frequency;
+        private ConcurrentCacheNode<K,V> head;
+        private ConcurrentCacheNode<K,V> tail;
+        private FrequencyBucket<K,V> prev;
+        private FrequencyBucket<K,V> next;
+
+        private FrequencyBucket(int frequency) {
+            this.frequency = frequency;
+        }
+    }
+}
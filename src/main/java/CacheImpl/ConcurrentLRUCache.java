@@ -0,0 +1,64 @@
+package CacheImpl;
+
+/**
+ * Thread-safe implementation of an LRU (Least Recently Used) cache.
+ * Reads are lock-free; the access order is kept in a doubly linked list that is updated from the read buffers
+ * in batches, so the evicted item is the least recently used one as far as the replayed reads tell.
+ */
+public class ConcurrentLRUCache<K,V> extends AbstractConcurrentCache<K,V> {
+    private ConcurrentCacheNode<K,V> head;
+    private ConcurrentCacheNode<K,V> tail;
+
+    /**
+     * Constructs a ConcurrentLRUCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public ConcurrentLRUCache(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void onInsert(ConcurrentCacheNode<K,V> node) {
+        linkLast(node);
+    }
+
+    @Override
+    protected void onAccess(ConcurrentCacheNode<K,V> node) {
+        if (node != tail) {
+            onRemove(node);
+            linkLast(node);
+        }
+    }
+
+    @Override
+    protected void onRemove(ConcurrentCacheNode<K,V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    @Override
+    protected ConcurrentCacheNode<K,V> victim() {
+        return head;
+    }
+
+    private void linkLast(ConcurrentCacheNode<K,V> node) {
+        node.prev = tail;
+        if (tail != null) {
+            tail.next = node;
+        } else {
+            head = node;
+        }
+        tail = node;
+    }
+}
@@ -0,0 +1,81 @@
+package CacheImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring. Every node is placed on a 64-bit ring at a number of pseudo-random points, its
+ * virtual nodes, and a key belongs to the node of the first point at or after the key's hash. Adding or removing
+ * a node therefore only moves the keys between that node's points and their predecessors, about 1/n of all keys,
+ * and with enough virtual nodes every node owns close to the same share.
+ */
+final class ConsistentHashRing {
+    private final TreeMap<Long, String> points = new TreeMap<>();
+    private final Set<String> nodes;
+    private final int virtualNodeCount;
+
+    /**
+     * @param nodes            The names of the nodes, e.g. their server names.
+     * @param virtualNodeCount The number of points per node.
+     */
+    ConsistentHashRing(Collection<String> nodes, int virtualNodeCount) {
+        if (virtualNodeCount <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be positive.");
+        }
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+        this.virtualNodeCount = virtualNodeCount;
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodeCount; i++) {
+                // on the rare collision the smaller name wins, so every ring with the same nodes agrees
+                points.merge(hash((node + "#" + i).getBytes(StandardCharsets.UTF_8)), node,
+                        (first, second) -> first.compareTo(second) <= 0 ? first : second);
+            }
+        }
+    }
+
+    /**
+     * @return A ring with the same virtual node count and the given nodes.
+     */
+    ConsistentHashRing withNodes(Collection<String> nodes) {
+        return new ConsistentHashRing(nodes, virtualNodeCount);
+    }
+
+    Set<String> getNodes() {
+        return nodes;
+    }
+
+    int getVirtualNodeCount() {
+        return virtualNodeCount;
+    }
+
+    /**
+     * @return The name of the node owning the serialized key, or null if the ring is empty.
+     */
+    String getOwner(byte[] key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * FNV-1a followed by the finalizer of MurmurHash3, which spreads the similar names of virtual nodes evenly.
+     */
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,307 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Decorator that adds expiration to any cache engine.
+ * Entries can expire a fixed time after they were written (time-to-live), after they were last read or
+ * written (time-to-idle), or both; put(key, value, ttl) overrides the time-to-live of a single entry.
+ * Deadlines are kept in a TimerWheel. An expired entry is never returned: every call checks the entry it
+ * touches and advances the wheel, which removes the entries that became due since the previous call. An
+ * optional background task advances the wheel periodically so that idle caches release memory as well.
+ * All methods synchronize on the decorator, which also makes the wrapped engine safe to share between threads.
+ * Use ExpiringCacheBuilder to create instances.
+ */
+public class ExpiringCache<K,V> extends CacheDecorator<K,V> implements AutoCloseable {
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+    private final Map<K, TimerWheel.Node<K,V>> timers = new HashMap<>();
+    private final TimerWheel<K,V> timerWheel;
+    private final Consumer<TimerWheel.Node<K,V>> expireAction = this::expire;
+    private final ScheduledExecutorService cleanupExecutor;
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    ExpiringCache(ICache<K,V> cache, Duration expireAfterWrite, Duration expireAfterAccess,
+                  LongSupplier ticker, Duration cleanupInterval) {
+        super(cache);
+        this.expireAfterWriteNanos = toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = toNanos(expireAfterAccess);
+        this.ticker = ticker;
+        this.timerWheel = new TimerWheel<>(ticker.getAsLong());
+        super.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onMiss(K key) {
+                listener.onMiss(key);
+            }
+
+            @Override
+            public void onEviction(K key, V value) {
+                // called from within the wrapped cache, i.e. while this decorator's monitor is held
+                TimerWheel.Node<K,V> node = timers.remove(key);
+                if (node != null) {
+                    timerWheel.unschedule(node);
+                }
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                listener.onRejection(key, value);
+            }
+        });
+        if (cleanupInterval != null) {
+            long intervalNanos = toNanos(cleanupInterval);
+            this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-expiration");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cleanupExecutor.scheduleWithFixedDelay(this::cleanUp, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.cleanupExecutor = null;
+        }
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        putWithTimeToLive(key, value, expireAfterWriteNanos);
+    }
+
+    /**
+     * Adds or updates a value with its own time-to-live instead of the cache-wide one.
+     *
+     * @param key        The key of the entry.
+     * @param value      The value associated with the key.
+     * @param timeToLive How long after this write the entry expires.
+     */
+    public synchronized void put(K key, V value, Duration timeToLive) {
+        putWithTimeToLive(key, value, toNanos(timeToLive));
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        long now = ticker.getAsLong();
+        timerWheel.advance(now, expireAction);
+        TimerWheel.Node<K,V> node = timers.get(key);
+        if (node != null && node.isExpired(now)) {
+            expire(node);
+            listener.onMiss(key);
+            return null;
+        }
+        V value = super.get(key);
+        if (value != null && node != null && expireAfterAccessNanos > 0) {
+            node.accessDeadline = deadline(now, expireAfterAccessNanos);
+            node.updateDeadline();
+            timerWheel.schedule(node);
+        }
+        return value;
+    }
+
+    /**
+     * Advances the wheel once for the whole batch and forwards the keys that have not expired.
+     */
+    @Override
+    public synchronized Map<K,V> getAll(Iterable<? extends K> keys) {
+        long now = ticker.getAsLong();
+        timerWheel.advance(now, expireAction);
+        List<K> liveKeys = new ArrayList<>();
+        for (K key : keys) {
+            TimerWheel.Node<K,V> node = timers.get(key);
+            if (node != null && node.isExpired(now)) {
+                expire(node);
+                listener.onMiss(key);
+            } else {
+                liveKeys.add(key);
+            }
+        }
+        Map<K,V> values = super.getAll(liveKeys);
+        if (expireAfterAccessNanos > 0) {
+            long accessDeadline = deadline(now, expireAfterAccessNanos);
+            for (K key : values.keySet()) {
+                TimerWheel.Node<K,V> node = timers.get(key);
+                if (node != null) {
+                    node.accessDeadline = accessDeadline;
+                    node.updateDeadline();
+                    timerWheel.schedule(node);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Forwards the batch intact and then schedules the deadlines of the stored entries.
+     */
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        long now = ticker.getAsLong();
+        timerWheel.advance(now, expireAction);
+        super.putAll(entries);
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            scheduleWrite(entry.getKey(), entry.getValue(), now, expireAfterWriteNanos);
+        }
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        List<K> removedKeys = new ArrayList<>();
+        for (K key : keys) {
+            TimerWheel.Node<K,V> node = timers.remove(key);
+            if (node != null) {
+                timerWheel.unschedule(node);
+            }
+            removedKeys.add(key);
+        }
+        super.removeAll(removedKeys);
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        TimerWheel.Node<K,V> node = timers.remove(key);
+        if (node != null) {
+            timerWheel.unschedule(node);
+        }
+        super.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        timers.clear();
+        timerWheel.clear();
+        super.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        cleanUp();
+        return super.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        long now = ticker.getAsLong();
+        timerWheel.advance(now, expireAction);
+        TimerWheel.Node<K,V> node = timers.get(key);
+        if (node != null && node.isExpired(now)) {
+            expire(node);
+            return false;
+        }
+        return super.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Removes expired entries first, then creates the spliterator of the wrapped cache under this cache's lock.
+     * Entries that expire during the traversal may still be returned.
+     */
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        cleanUp();
+        return super.spliterator();
+    }
+
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        cleanUp();
+        return super.entrySpliterator();
+    }
+
+    /**
+     * Removes every entry whose deadline has passed. Called by the background task and by getSize.
+     */
+    public synchronized void cleanUp() {
+        timerWheel.advance(ticker.getAsLong(), expireAction);
+    }
+
+    /**
+     * Stops the background cleanup task, if any.
+     */
+    @Override
+    public void close() {
+        if (cleanupExecutor != null) {
+            cleanupExecutor.shutdownNow();
+        }
+    }
+
+    private void putWithTimeToLive(K key, V value, long timeToLiveNanos) {
+        long now = ticker.getAsLong();
+        timerWheel.advance(now, expireAction);
+        super.put(key, value);
+        scheduleWrite(key, value, now, timeToLiveNanos);
+    }
+
+    private void scheduleWrite(K key, V value, long now, long timeToLiveNanos) {
+        if (timeToLiveNanos <= 0 && expireAfterAccessNanos <= 0) {
+            TimerWheel.Node<K,V> node = timers.remove(key);
+            if (node != null) {
+                timerWheel.unschedule(node);
+            }
+            return;
+        }
+        if (!super.containsKey(key)) {
+            // the engine refused the entry, e.g. a full LegacyCacheAdapter
+            return;
+        }
+        TimerWheel.Node<K,V> node = timers.computeIfAbsent(key, TimerWheel.Node::new);
+        node.value = value;
+        node.writeDeadline = timeToLiveNanos > 0 ? deadline(now, timeToLiveNanos) : Long.MAX_VALUE;
+        node.accessDeadline = expireAfterAccessNanos > 0 ? deadline(now, expireAfterAccessNanos) : Long.MAX_VALUE;
+        node.updateDeadline();
+        timerWheel.schedule(node);
+    }
+
+    private void expire(TimerWheel.Node<K,V> node) {
+        timerWheel.unschedule(node);
+        timers.remove(node.key);
+        super.remove(node.key);
+        listener.onExpiration(node.key, node.value);
+    }
+
+    private static long deadline(long now, long durationNanos) {
+        long deadline = now + durationNanos;
+        // saturate instead of overflowing into the past; Long.MAX_VALUE means "never"
+        return deadline - now < 0 ? Long.MAX_VALUE - 1 : Math.min(deadline, Long.MAX_VALUE - 1);
+    }
+
+    private static long toNanos(Duration duration) {
+        if (duration == null || duration.isZero() || duration.isNegative()) {
+            return 0;
+        }
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Builder class for constructing ExpiringCache objects on top of any cache engine.
+ */
+public class ExpiringCacheBuilder<K,V> {
+    private CacheTypeEnum cacheType = CacheTypeEnum.LRU;
+    private int capacity = 10;
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
+    private LongSupplier ticker = System::nanoTime;
+    private Duration cleanupInterval;
+
+    /**
+     * Constructs a new ExpiringCacheBuilder.
+     */
+    public ExpiringCacheBuilder() {
+    }
+
+    public ExpiringCacheBuilder<K,V> setCacheType(CacheTypeEnum cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    public ExpiringCacheBuilder<K,V> setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Expires each entry a fixed time after it was created or last replaced.
+     */
+    public ExpiringCacheBuilder<K,V> setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+        return this;
+    }
+
+    /**
+     * Expires each entry a fixed time after it was last read or written.
+     */
+    public ExpiringCacheBuilder<K,V> setExpireAfterAccess(Duration expireAfterAccess) {
+        this.expireAfterAccess = expireAfterAccess;
+        return this;
+    }
+
+    /**
+     * Replaces System.nanoTime as time source, e.g. to control time in tests.
+     */
+    public ExpiringCacheBuilder<K,V> setTicker(LongSupplier ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    /**
+     * Starts a daemon thread that removes expired entries at the given interval. Without it, expired
+     * entries are only removed while the cache is being used.
+     */
+    public ExpiringCacheBuilder<K,V> setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+        return this;
+    }
+
+    /**
+     * Builds and returns the configured expiring cache instance.
+     *
+     * @return ExpiringCache wrapping an engine created by CacheFactory.
+     */
+    public ExpiringCache<K,V> build() {
+        CacheFactory<K,V> cacheFactory = new CacheFactory<>();
+        return new ExpiringCache<>(cacheFactory.createCacheInstance(cacheType, capacity),
+                expireAfterWrite, expireAfterAccess, ticker, cleanupInterval);
+    }
+}
@@ -1,22 +1,34 @@
 package CacheImpl;
 
 import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Weigher;
 
-import java.text.MessageFormat;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * Implementation of a First-In-First-Out (FIFO) cache.
  * This cache evicts the oldest inserted elements when it reaches its capacity.
+ * The capacity is either a number of items or, with a Weigher, a maximum total weight.
+ * Each item is one node of an intrusive linked list that the hash map points to, so insert, update, remove and
+ * eviction are all O(1). By default an update moves the item to the end of the queue; with
+ * keepPositionOnUpdate it keeps its original insertion position.
  */
 
 public class FIFOCache<K,V> implements ICache<K,V> {
-    private final int capacity;
-    private final Map<K, V> dictMap;
-    private final LinkedList<K> orderQueue;
+    private final long maximumWeight;
+    private final Weigher<K,V> weigher;
+    private final boolean keepPositionOnUpdate;
+    private final Map<K, PolicyNode<K,V>> dictMap;
+    private final PolicyNodeList<K,V> orderQueue;
+    private long totalWeight;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
 
     /**
      * Constructs a new FIFOCache with the specified capacity.
@@ -24,44 +36,125 @@ public class FIFOCache<K,V> implements ICache<K,V> {
      * @param capacity The maximum number of items the cache can hold.
      */
     public FIFOCache(int capacity) {
-        this.capacity = capacity;
-        this.orderQueue = new LinkedList<>();
+        this(capacity, false);
+    }
+
+    /**
+     * Constructs a new FIFOCache with the specified capacity.
+     *
+     * @param capacity             The maximum number of items the cache can hold.
+     * @param keepPositionOnUpdate Whether an update keeps the insertion position of the key instead of moving
+     *                             it to the end of the queue.
+     */
+    public FIFOCache(int capacity, boolean keepPositionOnUpdate) {
+        this(capacity, Weigher.singleton(), keepPositionOnUpdate);
+    }
+
+    /**
+     * Constructs a new FIFOCache bounded by the total weight of its items instead of their number.
+     *
+     * @param maximumWeight The maximum total weight of the items the cache can hold.
+     * @param weigher       Computes the weight of each item.
+     */
+    public FIFOCache(long maximumWeight, Weigher<K,V> weigher) {
+        this(maximumWeight, weigher, false);
+    }
+
+    /**
+     * Constructs a new FIFOCache bounded by the total weight of its items instead of their number.
+     *
+     * @param maximumWeight        The maximum total weight of the items the cache can hold.
+     * @param weigher              Computes the weight of each item.
+     * @param keepPositionOnUpdate Whether an update keeps the insertion position of the key instead of moving
+     *                             it to the end of the queue.
+     */
+    public FIFOCache(long maximumWeight, Weigher<K,V> weigher, boolean keepPositionOnUpdate) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.keepPositionOnUpdate = keepPositionOnUpdate;
+        this.orderQueue = new PolicyNodeList<>();
         this.dictMap = new HashMap<>();
     }
 
     @Override
     public void put(K key, V value) {
-        if (containsKey(key)) {
-            dictMap.put(key, value);
-            // update the order of the key from queue
-            orderQueue.remove(key);
-            orderQueue.addLast(key);
+        int weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            remove(key);
+            listener.onRejection(key, value);
+            return;
+        }
+        PolicyNode<K,V> node = dictMap.get(key);
+        if (node != null) {
+            update(node, value, weight);
+            evictUntilFits(0);
         } else {
-            while (getSize() >= capacity) {
-                K oldestItemKey = orderQueue.removeFirst();
-                dictMap.remove(oldestItemKey);
+            evictUntilFits(weight);
+            insert(key, value, weight);
+        }
+    }
+
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        Map<K,V> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            PolicyNode<K,V> node = dictMap.get(key);
+            if (node != null) {
+                values.put(key, node.value);
+            } else {
+                listener.onMiss(key);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Stores all entries, then evicts once for the whole batch.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            int weight = weigh(key, value);
+            if (weight > maximumWeight) {
+                remove(key);
+                listener.onRejection(key, value);
+                continue;
+            }
+            PolicyNode<K,V> node = dictMap.get(key);
+            if (node != null) {
+                update(node, value, weight);
+            } else {
+                insert(key, value, weight);
             }
-            dictMap.put(key, value);
-            orderQueue.addLast(key);
         }
+        evictUntilFits(0);
     }
 
     @Override
     public V get(K key) {
-        if (containsKey(key)) {
-            return dictMap.get(key);
+        PolicyNode<K,V> node = dictMap.get(key);
+        if (node == null) {
+            listener.onMiss(key);
+            return null;
         }
-        System.out.println(MessageFormat.format("ERROR: Key {0} is not in the cache", key));
-        return null;
+        return node.value;
     }
 
     @Override
     public void remove(K key) {
-        if (containsKey(key)) {
-            dictMap.remove(key);
-            orderQueue.remove(key);
-        } else {
-            System.out.println(MessageFormat.format("ERROR: Key {0} is not in the cache.", key));
+        PolicyNode<K,V> node = dictMap.remove(key);
+        if (node != null) {
+            orderQueue.remove(node);
+            totalWeight -= weigher.weigh(key, node.value);
+        }
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        for (K key : keys) {
+            remove(key);
         }
     }
 
@@ -69,6 +162,7 @@ public class FIFOCache<K,V> implements ICache<K,V> {
     public void clear() {
         dictMap.clear();
         orderQueue.clear();
+        totalWeight = 0;
     }
 
     @Override
@@ -80,10 +174,89 @@ public class FIFOCache<K,V> implements ICache<K,V> {
     public boolean containsKey(K key) {
         return dictMap.containsKey(key);
     }
+
+    /**
+     * @return The total weight of the cached items; equal to getSize() unless a weigher was given.
+     */
+    public long getWeightedSize() {
+        return totalWeight;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The hooks CacheSnapshot uses to visit the entries in insertion order and to restore each as the
+     * newest one.
+     */
+    Snapshotable<K,V> snapshotable() {
+        return new Snapshotable<>() {
+            @Override
+            public void forEachInEvictionOrder(EntryVisitor<K,V> visitor) throws IOException {
+                for (PolicyNode<K,V> node = orderQueue.head; node != null; node = node.next) {
+                    visitor.visit(node.key, node.value, 0);
+                }
+            }
+
+            @Override
+            public void restore(K key, V value, int frequency) {
+                put(key, value);
+            }
+        };
+    }
+
+    private void insert(K key, V value, int weight) {
+        PolicyNode<K,V> node = new PolicyNode<>(key, value, 0);
+        dictMap.put(key, node);
+        orderQueue.addLast(node);
+        totalWeight += weight;
+    }
+
+    private void update(PolicyNode<K,V> node, V value, int weight) {
+        totalWeight += weight - weigher.weigh(node.key, node.value);
+        node.value = value;
+        if (!keepPositionOnUpdate) {
+            orderQueue.moveToLast(node);
+        }
+    }
+
+    /**
+     * Evicts the oldest items until the given additional weight fits into the maximum weight.
+     */
+    private void evictUntilFits(int additionalWeight) {
+        while (orderQueue.size > 0 && totalWeight + additionalWeight > maximumWeight) {
+            PolicyNode<K,V> oldest = orderQueue.removeFirst();
+            dictMap.remove(oldest.key);
+            totalWeight -= weigher.weigh(oldest.key, oldest.value);
+            listener.onEviction(oldest.key, oldest.value);
+        }
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        return weight;
+    }
+
     @Override
     public Iterator<K> iterator() {
-        //return queue.iterator();
-        return orderQueue.iterator();
+        return Spliterators.iterator(spliterator());
     }
-}
 
+    /**
+     * Snapshot of the entries in insertion order; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(orderQueue), node -> node.key);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(orderQueue), node -> Map.entry(node.key, node.value));
+    }
+}
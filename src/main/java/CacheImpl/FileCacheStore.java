@@ -0,0 +1,177 @@
+package CacheImpl;
+
+import Interfaces.CacheLoader;
+import Interfaces.CacheWriter;
+import Interfaces.Serializer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Small file-backed store for tests and demos, usable as CacheLoader and CacheWriter at the same time.
+ * The entries are kept in a map and every change is appended to a log file, which is replayed when the store
+ * is opened. Each write, delete, writeAll or deleteAll call appends its records at once and forces them to disk,
+ * so the number of store writes can be compared directly, e.g. between write-through and write-behind.
+ */
+public class FileCacheStore<K,V> implements CacheLoader<K,V>, CacheWriter<K,V>, AutoCloseable {
+    private static final byte WRITE = 1;
+    private static final byte DELETE = 2;
+
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final Map<K,V> entries = new HashMap<>();
+    private final FileChannel log;
+    private long writeCount;
+
+    /**
+     * Opens the store, replaying the log file if it exists. A record cut off by a crash is dropped.
+     *
+     * @param file            The log file.
+     * @param keySerializer   Converts the keys.
+     * @param valueSerializer Converts the values.
+     */
+    public FileCacheStore(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) throws IOException {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        long validLength = Files.exists(file) ? replay(file) : 0;
+        this.log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        log.truncate(validLength);
+        log.position(validLength);
+    }
+
+    @Override
+    public synchronized V load(K key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void write(K key, V value) throws IOException {
+        writeAll(Map.of(key, value));
+    }
+
+    @Override
+    public synchronized void delete(K key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeDelete(out, key);
+        append(bytes);
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void writeAll(Map<? extends K, ? extends V> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Map.Entry<? extends K, ? extends V> entry : batch.entrySet()) {
+            out.writeByte(WRITE);
+            writeBytes(out, keySerializer.serialize(entry.getKey()));
+            writeBytes(out, valueSerializer.serialize(entry.getValue()));
+        }
+        append(bytes);
+        entries.putAll(batch);
+    }
+
+    @Override
+    public synchronized void deleteAll(Collection<? extends K> keys) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (K key : keys) {
+            writeDelete(out, key);
+        }
+        append(bytes);
+        for (K key : keys) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @return The number of entries in the store.
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of write and delete calls that reached the file, batches counting once.
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private void writeDelete(DataOutputStream out, K key) throws IOException {
+        out.writeByte(DELETE);
+        writeBytes(out, keySerializer.serialize(key));
+    }
+
+    private void append(ByteArrayOutputStream bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            log.write(buffer);
+        }
+        log.force(false);
+        writeCount++;
+    }
+
+    /**
+     * Applies the records of the log to the map.
+     *
+     * @return The length of the log up to the last complete record.
+     */
+    private long replay(Path file) throws IOException {
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int type = in.read();
+                if (type == -1) {
+                    return validLength;
+                }
+                byte[] key = readBytes(in);
+                if (type == WRITE) {
+                    byte[] value = readBytes(in);
+                    entries.put(keySerializer.deserialize(key), valueSerializer.deserialize(value));
+                    validLength += 1 + 4 + key.length + 4 + value.length;
+                } else if (type == DELETE) {
+                    entries.remove(keySerializer.deserialize(key));
+                    validLength += 1 + 4 + key.length;
+                } else {
+                    throw new StreamCorruptedException("Unknown record type " + type + " at " + validLength + ".");
+                }
+            }
+        } catch (EOFException e) {
+            return validLength;
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("Negative record length.");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,58 @@
+package CacheImpl;
+
+import Interfaces.InvalidationTransport;
+import Interfaces.InvalidationTransport.Invalidation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation bus for NearCaches living in the same JVM, e.g. to test a multi-process setup locally.
+ * Each connect() returns a transport; a batch published through one of them is delivered synchronously, on the
+ * publishing thread, to the subscribers of all other connected transports.
+ */
+public class InProcessInvalidationBus<K> {
+    private final List<Endpoint> endpoints = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return A new transport connected to this bus; closing it disconnects it.
+     */
+    public InvalidationTransport<K> connect() {
+        Endpoint endpoint = new Endpoint();
+        endpoints.add(endpoint);
+        return endpoint;
+    }
+
+    private final class Endpoint implements InvalidationTransport<K> {
+        private final List<Consumer<List<Invalidation<K>>>> subscribers = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+
+        @Override
+        public void publish(List<Invalidation<K>> invalidations) throws IOException {
+            if (closed) {
+                throw new IOException("The transport is closed.");
+            }
+            List<Invalidation<K>> batch = List.copyOf(invalidations);
+            for (Endpoint endpoint : endpoints) {
+                if (endpoint != this) {
+                    for (Consumer<List<Invalidation<K>>> subscriber : endpoint.subscribers) {
+                        subscriber.accept(batch);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<List<Invalidation<K>>> subscriber) {
+            subscribers.add(subscriber);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            endpoints.remove(this);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Weigher;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Constant-time implementation of a Least Frequently Used (LFU) cache.
+ * Items are kept in doubly linked lists, one per access frequency, and the lists themselves are chained
+ * in ascending frequency order. A hit moves the item to the neighbouring bucket in place, so get, put,
+ * remove and eviction are all O(1) and no item is cloned.
+ * Among items with the same frequency the one that reached that frequency first is evicted first.
+ * The capacity is either a number of items or, with a Weigher, a maximum total weight.
+ */
+public class LFUBucketCache<K,V> implements ICache<K,V> {
+    private long maximumWeight;
+    private Weigher<K,V> weigher = Weigher.singleton();
+    private long totalWeight;
+    private String serverName;
+    private final Map<K, LFUCacheItem<K,V>> keyToCacheItemMap;
+    // The first bucket always holds the items with the lowest frequency present in the cache.
+    private FrequencyBucket<K,V> minFrequencyBucket;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * This constructor uses a default capacity if not specified by the builder
+     */
+    public LFUBucketCache() {
+        this.maximumWeight = 10;
+        this.keyToCacheItemMap = new HashMap<>();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            remove(key);
+            listener.onRejection(key, value);
+            return;
+        }
+        LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
+        if (node != null) {
+            totalWeight += weight - weigher.weigh(key, node.getValue());
+            node.setValue(value);
+            increaseCacheItemFrequency(node);
+            // a heavier value may push the cache over its limit; the updated item itself may be the victim
+            evictUntilFits(0);
+            return;
+        }
+        evictUntilFits(weight);
+        LFUCacheItem<K,V> nodeToAdd = new LFUCacheItem<K,V>(key, value);
+        if (minFrequencyBucket == null || minFrequencyBucket.frequency != 1) {
+            minFrequencyBucket = insertBucketAfter(null, 1);
+        }
+        append(minFrequencyBucket, nodeToAdd);
+        keyToCacheItemMap.put(key, nodeToAdd);
+        totalWeight += weight;
+    }
+
+    @Override
+    public V get(K key) {
+        LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
+        if (node != null) {
+            increaseCacheItemFrequency(node);
+            return node.getValue();
+        }
+        listener.onMiss(key);
+        return null;
+    }
+
+    @Override
+    public void remove(K key) {
+        LFUCacheItem<K,V> node = keyToCacheItemMap.remove(key);
+        if (node != null) {
+            unlink(node);
+            totalWeight -= weigher.weigh(key, node.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        keyToCacheItemMap.clear();
+        minFrequencyBucket = null;
+        totalWeight = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return keyToCacheItemMap.size();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return keyToCacheItemMap.containsKey(key);
+    }
+
+    public void setCapacity(int capacity) {
+        this.maximumWeight = capacity;
+        this.weigher = Weigher.singleton();
+    }
+
+    /**
+     * Bounds the cache by the total weight of its items instead of their number.
+     *
+     * @param maximumWeight The maximum total weight of the items the cache can hold.
+     * @param weigher       Computes the weight of each item.
+     */
+    public void setMaximumWeight(long maximumWeight, Weigher<K,V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return The total weight of the cached items; equal to getSize() unless a weigher was given.
+     */
+    public long getWeightedSize() {
+        return totalWeight;
+    }
+
+    /**
+     * @return The name of the CacheServer holding this cache, or null if it is not part of a cluster.
+     */
+    public String getServerName() {
+        return serverName;
+    }
+
+    public void setServerName(String serverName) {
+        this.serverName = serverName;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Evicts the oldest items of the lowest frequency until the given additional weight fits into the maximum weight.
+     */
+    private void evictUntilFits(int additionalWeight) {
+        while (minFrequencyBucket != null && totalWeight + additionalWeight > maximumWeight) {
+            LFUCacheItem<K,V> nodeWithMinFrequency = minFrequencyBucket.head;
+            unlink(nodeWithMinFrequency);
+            keyToCacheItemMap.remove(nodeWithMinFrequency.getKey());
+            totalWeight -= weigher.weigh(nodeWithMinFrequency.getKey(), nodeWithMinFrequency.getValue());
+            listener.onEviction(nodeWithMinFrequency.getKey(), nodeWithMinFrequency.getValue());
+        }
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        return weight;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the entries; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(keyToCacheItemMap.values(), LFUCacheItem::getKey);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(keyToCacheItemMap.values(), item -> Map.entry(item.getKey(), item.getValue()));
+    }
+
+    /**
+     * Moves the item to the bucket of the next frequency, creating that bucket only if it does not exist yet.
+     * When the item is alone in its bucket and the next frequency is free, the bucket is simply renumbered.
+     */
+    private void increaseCacheItemFrequency(LFUCacheItem<K,V> node) {
+        FrequencyBucket<K,V> currentBucket = node.bucket;
+        int nextFrequency = currentBucket.frequency + 1;
+        FrequencyBucket<K,V> nextBucket = currentBucket.next;
+        if (nextBucket == null || nextBucket.frequency != nextFrequency) {
+            if (currentBucket.head == node && currentBucket.tail == node) {
+                currentBucket.frequency = nextFrequency;
+                node.setFrequency(nextFrequency);
+                return;
+            }
+            nextBucket = insertBucketAfter(currentBucket, nextFrequency);
+        }
+        unlink(node);
+        append(nextBucket, node);
+        node.setFrequency(nextFrequency);
+    }
+
+    private FrequencyBucket<K,V> insertBucketAfter(FrequencyBucket<K,V> previous, int frequency) {
+        FrequencyBucket<K,V> bucket = new FrequencyBucket<>(frequency);
+        bucket.prev = previous;
+        bucket.next = previous == null ? minFrequencyBucket : previous.next;
+        if (bucket.next != null) {
+            bucket.next.prev = bucket;
+        }
+        if (previous != null) {
+            previous.next = bucket;
+        }
+        return bucket;
+    }
+
+    private void append(FrequencyBucket<K,V> bucket, LFUCacheItem<K,V> node) {
+        node.bucket = bucket;
+        node.prev = bucket.tail;
+        node.next = null;
+        if (bucket.tail != null) {
+            bucket.tail.next = node;
+        } else {
+            bucket.head = node;
+        }
+        bucket.tail = node;
+    }
+
+    /**
+     * Detaches the item from its bucket and drops the bucket from the chain once it becomes empty.
+     */
+    private void unlink(LFUCacheItem<K,V> node) {
+        FrequencyBucket<K,V> bucket = node.bucket;
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            bucket.head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            bucket.tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.bucket = null;
+
+        if (bucket.head == null) {
+            if (bucket.prev != null) {
+                bucket.prev.next = bucket.next;
+            } else {
+                minFrequencyBucket = bucket.next;
+            }
+            if (bucket.next != null) {
+                bucket.next.prev = bucket.prev;
+            }
+        }
+    }
+
+    /**
+     * List of items sharing the same access frequency, ordered from the oldest to the newest arrival.
+     */
+    static final class FrequencyBucket<K,V> {
+        private int frequency;
+        private LFUCacheItem<K,V> head;
+        private LFUCacheItem<K,V> tail;
+        private FrequencyBucket<K,V> prev;
+        private FrequencyBucket<K,V> next;
+
+        private FrequencyBucket(int frequency) {
+            this.frequency = frequency;
+        }
+    }
+}
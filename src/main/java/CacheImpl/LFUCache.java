@@ -1,76 +1,147 @@
 package CacheImpl;
 
 import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Weigher;
 
-import java.text.MessageFormat;
+import java.io.IOException;
 import java.util.*;
 
 /**
  * Implementation of a Least Frequently Used (LFU) cache.
  * This cache evicts the least frequently accessed elements when it reaches its capacity.
+ * The capacity is either a number of items or, with a Weigher, a maximum total weight.
+ * Items are kept in a binary min-heap ordered by frequency. Each item knows its position in the heap,
+ * so a hit, update or removal restores the order in O(log n) without searching the heap.
  */
 public class LFUCache<K,V> implements ICache<K,V> {
-    private int capacity;
+    private long maximumWeight;
+    private Weigher<K,V> weigher = Weigher.singleton();
+    private long totalWeight;
     private String serverName;
     private final Map<K, LFUCacheItem<K,V>> keyToCacheItemMap;
-    private final PriorityQueue<LFUCacheItem<K,V>> keyFrequenciesMinHeap;
+    private LFUCacheItem<K,V>[] keyFrequenciesMinHeap;
+    private int heapSize;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
 
     /**
      * This constructor uses a default capacity if not specified by the builder
      */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public LFUCache() {
-        this.capacity = 10;
+        this.maximumWeight = 10;
         this.keyToCacheItemMap = new HashMap<>();
-        this.keyFrequenciesMinHeap = new PriorityQueue<>(Comparator.comparingInt(value -> value.getFrequency()));
+        this.keyFrequenciesMinHeap = new LFUCacheItem[16];
     }
 
     @Override
     public void put(K key, V value) {
-        if (containsKey(key)) {
-            LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
-            LFUCacheItem<K,V> clonedNode = node.clone();
-            clonedNode.setValue(value);
-            keyToCacheItemMap.put(key, clonedNode);
-            increaseCacheItemFrequency(node, clonedNode);
+        int weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            remove(key);
+            listener.onRejection(key, value);
             return;
         }
-        while (getSize() >= capacity) {
-            LFUCacheItem<K,V> nodeWithMinFrequency = keyFrequenciesMinHeap.poll();
-            keyToCacheItemMap.remove(nodeWithMinFrequency.getKey());
+        LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
+        if (node != null) {
+            totalWeight += weight - weigher.weigh(key, node.getValue());
+            node.setValue(value);
+            increaseCacheItemFrequency(node);
+            // a heavier value may push the cache over its limit; the updated item itself may be the victim
+            evictUntilFits(0);
+            return;
         }
+        evictUntilFits(weight);
         LFUCacheItem<K,V> nodeToAdd = new LFUCacheItem<K,V>(key, value);
         keyToCacheItemMap.put(key, nodeToAdd);
-        keyFrequenciesMinHeap.add(nodeToAdd);
+        heapAdd(nodeToAdd);
+        totalWeight += weight;
     }
 
     @Override
     public V get(K key) {
-        if (containsKey(key)) {
-            LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
-            LFUCacheItem<K,V> clonedNode = node.clone();
-            keyToCacheItemMap.put(key, clonedNode);
-            increaseCacheItemFrequency(node, clonedNode);
-            return clonedNode.getValue();
+        LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
+        if (node != null) {
+            increaseCacheItemFrequency(node);
+            return node.getValue();
         }
-        System.out.println(MessageFormat.format("ERROR: Key {0} is not in cache.", key));
+        listener.onMiss(key);
         return null;
     }
 
+    /**
+     * Looks up all keys first and then restores the heap order once for the whole batch: by re-heapifying
+     * when the batch touches a large part of the heap, otherwise by sifting each hit item.
+     */
     @Override
-    public void remove(K key) {
-        if (containsKey(key)) {
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        Map<K,V> values = new LinkedHashMap<>();
+        List<LFUCacheItem<K,V>> hitNodes = new ArrayList<>();
+        for (K key : keys) {
+            LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
+            if (node != null) {
+                hitNodes.add(node);
+                values.put(key, node.getValue());
+            } else {
+                listener.onMiss(key);
+            }
+        }
+        increaseCacheItemFrequencies(hitNodes);
+        return values;
+    }
+
+    /**
+     * Applies all updates with one heap reordering, then inserts the new entries, evicting as needed.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        List<LFUCacheItem<K,V>> updatedNodes = new ArrayList<>();
+        Map<K,V> newEntries = new LinkedHashMap<>();
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            int weight = weigh(key, value);
+            if (weight > maximumWeight) {
+                remove(key);
+                listener.onRejection(key, value);
+                continue;
+            }
             LFUCacheItem<K,V> node = keyToCacheItemMap.get(key);
-            keyToCacheItemMap.remove(key);
-            keyFrequenciesMinHeap.remove(node);
-        } else {
-            System.out.println(MessageFormat.format("ERROR: Key {0} is not in the cache.", key));
+            if (node != null) {
+                totalWeight += weight - weigher.weigh(key, node.getValue());
+                node.setValue(value);
+                updatedNodes.add(node);
+            } else {
+                newEntries.put(key, value);
+            }
+        }
+        increaseCacheItemFrequencies(updatedNodes);
+        evictUntilFits(0);
+        for (Map.Entry<K,V> entry : newEntries.entrySet()) {
+            int weight = weigher.weigh(entry.getKey(), entry.getValue());
+            evictUntilFits(weight);
+            LFUCacheItem<K,V> nodeToAdd = new LFUCacheItem<K,V>(entry.getKey(), entry.getValue());
+            keyToCacheItemMap.put(entry.getKey(), nodeToAdd);
+            heapAdd(nodeToAdd);
+            totalWeight += weight;
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        LFUCacheItem<K,V> node = keyToCacheItemMap.remove(key);
+        if (node != null) {
+            heapRemove(node);
+            totalWeight -= weigher.weigh(key, node.getValue());
         }
     }
 
     @Override
     public void clear() {
         keyToCacheItemMap.clear();
-        keyFrequenciesMinHeap.clear();
+        Arrays.fill(keyFrequenciesMinHeap, 0, heapSize, null);
+        heapSize = 0;
+        totalWeight = 0;
     }
 
     @Override
@@ -84,21 +155,202 @@ public class LFUCache<K,V> implements ICache<K,V> {
     }
 
     public void setCapacity(int capacity) {
-        this.capacity = capacity;
+        this.maximumWeight = capacity;
+        this.weigher = Weigher.singleton();
+    }
+
+    /**
+     * Bounds the cache by the total weight of its items instead of their number.
+     *
+     * @param maximumWeight The maximum total weight of the items the cache can hold.
+     * @param weigher       Computes the weight of each item.
+     */
+    public void setMaximumWeight(long maximumWeight, Weigher<K,V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return The total weight of the cached items; equal to getSize() unless a weigher was given.
+     */
+    public long getWeightedSize() {
+        return totalWeight;
+    }
+
+    /**
+     * @return The name of the CacheServer holding this cache, or null if it is not part of a cluster.
+     */
+    public String getServerName() {
+        return serverName;
     }
 
     public void setServerName(String serverName) {
         this.serverName = serverName;
     }
 
-    private void increaseCacheItemFrequency(LFUCacheItem<K,V> nodeToDelete, LFUCacheItem<K,V> nodeToAdd) {
-        keyFrequenciesMinHeap.remove(nodeToDelete);
-        nodeToAdd.setFrequency(nodeToAdd.getFrequency() + 1);
-        keyFrequenciesMinHeap.add(nodeToAdd);
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The hooks CacheSnapshot uses to visit the items in heap order, which starts with the least
+     * frequently used one, and to restore them with their saved frequencies. Restoring them in that order
+     * rebuilds the same heap, so ties between equal frequencies are broken as before.
+     */
+    Snapshotable<K,V> snapshotable() {
+        return new Snapshotable<>() {
+            @Override
+            public void forEachInEvictionOrder(EntryVisitor<K,V> visitor) throws IOException {
+                for (int i = 0; i < heapSize; i++) {
+                    LFUCacheItem<K,V> node = keyFrequenciesMinHeap[i];
+                    visitor.visit(node.getKey(), node.getValue(), node.getFrequency());
+                }
+            }
+
+            @Override
+            public void restore(K key, V value, int frequency) {
+                restoreWithFrequency(key, value, frequency);
+            }
+        };
+    }
+
+    /**
+     * Stores the entry with the saved frequency instead of starting it at 1.
+     */
+    private void restoreWithFrequency(K key, V value, int frequency) {
+        remove(key);
+        int weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            listener.onRejection(key, value);
+            return;
+        }
+        evictUntilFits(weight);
+        LFUCacheItem<K,V> nodeToAdd = new LFUCacheItem<K,V>(key, value);
+        nodeToAdd.setFrequency(Math.max(frequency, 1));
+        keyToCacheItemMap.put(key, nodeToAdd);
+        heapAdd(nodeToAdd);
+        totalWeight += weight;
+    }
+
+    private void increaseCacheItemFrequency(LFUCacheItem<K,V> node) {
+        node.setFrequency(node.getFrequency() + 1);
+        // a higher frequency can only move the item further away from the root
+        siftDown(node.heapIndex, node);
+    }
+
+    /**
+     * Counts one hit per listed item. A batch that touches more than a small fraction of the heap is cheaper
+     * to re-heapify in one linear pass than to sift item by item.
+     */
+    private void increaseCacheItemFrequencies(List<LFUCacheItem<K,V>> nodes) {
+        if (heapSize == 0 || nodes.size() <= heapSize / (32 - Integer.numberOfLeadingZeros(heapSize))) {
+            for (LFUCacheItem<K,V> node : nodes) {
+                increaseCacheItemFrequency(node);
+            }
+            return;
+        }
+        for (LFUCacheItem<K,V> node : nodes) {
+            node.setFrequency(node.getFrequency() + 1);
+        }
+        for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, keyFrequenciesMinHeap[i]);
+        }
+    }
+
+    /**
+     * Evicts the least frequently used items until the given additional weight fits into the maximum weight.
+     */
+    private void evictUntilFits(int additionalWeight) {
+        while (heapSize > 0 && totalWeight + additionalWeight > maximumWeight) {
+            LFUCacheItem<K,V> nodeWithMinFrequency = keyFrequenciesMinHeap[0];
+            heapRemove(nodeWithMinFrequency);
+            keyToCacheItemMap.remove(nodeWithMinFrequency.getKey());
+            totalWeight -= weigher.weigh(nodeWithMinFrequency.getKey(), nodeWithMinFrequency.getValue());
+            listener.onEviction(nodeWithMinFrequency.getKey(), nodeWithMinFrequency.getValue());
+        }
+    }
+
+    private void heapAdd(LFUCacheItem<K,V> node) {
+        if (heapSize == keyFrequenciesMinHeap.length) {
+            keyFrequenciesMinHeap = Arrays.copyOf(keyFrequenciesMinHeap, heapSize * 2);
+        }
+        siftUp(heapSize++, node);
+    }
+
+    private void heapRemove(LFUCacheItem<K,V> node) {
+        int index = node.heapIndex;
+        LFUCacheItem<K,V> last = keyFrequenciesMinHeap[--heapSize];
+        keyFrequenciesMinHeap[heapSize] = null;
+        node.heapIndex = -1;
+        if (last != node) {
+            siftDown(index, last);
+            if (last.heapIndex == index) {
+                siftUp(index, last);
+            }
+        }
+    }
+
+    private void siftUp(int index, LFUCacheItem<K,V> node) {
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            LFUCacheItem<K,V> parent = keyFrequenciesMinHeap[parentIndex];
+            if (node.getFrequency() >= parent.getFrequency()) {
+                break;
+            }
+            place(index, parent);
+            index = parentIndex;
+        }
+        place(index, node);
+    }
+
+    private void siftDown(int index, LFUCacheItem<K,V> node) {
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            LFUCacheItem<K,V> child = keyFrequenciesMinHeap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < heapSize && keyFrequenciesMinHeap[rightIndex].getFrequency() < child.getFrequency()) {
+                childIndex = rightIndex;
+                child = keyFrequenciesMinHeap[rightIndex];
+            }
+            if (node.getFrequency() <= child.getFrequency()) {
+                break;
+            }
+            place(index, child);
+            index = childIndex;
+        }
+        place(index, node);
+    }
+
+    private void place(int index, LFUCacheItem<K,V> node) {
+        keyFrequenciesMinHeap[index] = node;
+        node.heapIndex = index;
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        return weight;
     }
+
     @Override
     public Iterator<K> iterator() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'iterator'");
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the entries; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(keyToCacheItemMap.values(), LFUCacheItem::getKey);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(keyToCacheItemMap.values(), item -> Map.entry(item.getKey(), item.getValue()));
     }
 }
@@ -1,25 +1,45 @@
 package CacheImpl;
 
+import Interfaces.Weigher;
+
 /**
  * Builder class for constructing LFUCache objects with customizable properties.
  */
 public class LFUCacheBuilder<K,V> {
-    private LFUCache<K,V> lfuCache;
+    private int capacity = 10;
+    private long maximumWeight;
+    private Weigher<K,V> weigher;
+    private String serverName;
 
     /**
      * Constructs a new LFUCacheBuilder.
      */
     public LFUCacheBuilder() {
-        lfuCache = new LFUCache<K,V>();
     }
 
     public LFUCacheBuilder<K,V> setCapacity(int capacity) {
-        lfuCache.setCapacity(capacity);
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Bounds the cache by the total weight of its items instead of their number; requires a weigher.
+     */
+    public LFUCacheBuilder<K,V> setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
         return this;
     }
 
+    public LFUCacheBuilder<K,V> setWeigher(Weigher<K,V> weigher) {
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * Sets the name of the CacheServer the cache belongs to; CacheServer sets it to its host and port.
+     */
     public LFUCacheBuilder<K,V> setServerName(String serverName) {
-        lfuCache.setServerName(serverName);
+        this.serverName = serverName;
         return this;
     }
 
@@ -29,6 +49,29 @@ public class LFUCacheBuilder<K,V> {
      * @return Configured LFUCache object.
      */
     public LFUCache<K,V> build() {
+        LFUCache<K,V> lfuCache = new LFUCache<K,V>();
+        if (weigher != null) {
+            lfuCache.setMaximumWeight(maximumWeight, weigher);
+        } else {
+            lfuCache.setCapacity(capacity);
+        }
+        lfuCache.setServerName(serverName);
+        return lfuCache;
+    }
+
+    /**
+     * Builds the constant-time engine instead of the heap-based LFUCache, with the same configuration.
+     *
+     * @return Configured LFUBucketCache object, with O(1) get, put and eviction.
+     */
+    public LFUBucketCache<K,V> buildConstantTime() {
+        LFUBucketCache<K,V> lfuCache = new LFUBucketCache<K,V>();
+        if (weigher != null) {
+            lfuCache.setMaximumWeight(maximumWeight, weigher);
+        } else {
+            lfuCache.setCapacity(capacity);
+        }
+        lfuCache.setServerName(serverName);
         return lfuCache;
     }
 }
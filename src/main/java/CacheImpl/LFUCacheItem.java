@@ -8,6 +8,13 @@ public class LFUCacheItem<K,V> {
     private V value;
     private int frequency;
 
+    // Intrusive links used by LFUBucketCache, so an item can move between frequency buckets without being cloned.
+    LFUCacheItem<K,V> prev;
+    LFUCacheItem<K,V> next;
+    LFUBucketCache.FrequencyBucket<K,V> bucket;
+    // Position in the heap of LFUCache, so a hit can restore the heap order without searching for the item.
+    int heapIndex = -1;
+
     /**
      * Default constructor.
      */
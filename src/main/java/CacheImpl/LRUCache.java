@@ -1,20 +1,28 @@
 package CacheImpl;
 
 import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Weigher;
 
-import java.text.MessageFormat;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * Implementation of an LRU (Least Recently Used) cache.
  * This cache uses a LinkedHashMap to maintain access order.
+ * It is bounded either by the number of items or, with a Weigher, by their total weight.
  */
 
 public class LRUCache<K,V> implements ICache<K,V> {
-    private final int capacity;
-    private final Map<K, V> cache;
+    private final long maximumWeight;
+    private final Weigher<K,V> weigher;
+    private final LinkedHashMap<K, V> cache;
+    private long totalWeight;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
 
     /**
      * Constructs an LRUCache with a specified capacity.
@@ -25,41 +33,101 @@ public class LRUCache<K,V> implements ICache<K,V> {
      * @param capacity The maximum number of items the cache can hold.
      */
     public LRUCache(int capacity) {
-        this.capacity = capacity;
-        this.cache = new LinkedHashMap<K, V>(capacity, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-                return size() > capacity;
-            }
-        };
+        this(capacity, Weigher.singleton(), capacity);
+    }
+
+    /**
+     * Constructs an LRUCache bounded by the total weight of its entries instead of their number.
+     * Least recently used items are evicted until the new item fits.
+     *
+     * @param maximumWeight The maximum total weight of the items the cache can hold.
+     * @param weigher       Computes the weight of each item.
+     */
+    public LRUCache(long maximumWeight, Weigher<K,V> weigher) {
+        this(maximumWeight, weigher, 16);
+    }
+
+    private LRUCache(long maximumWeight, Weigher<K,V> weigher, int initialCapacity) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.cache = new LinkedHashMap<K, V>(initialCapacity, 0.75f, true);
     }
 
     @Override
     public void put(K key, V value) {
-        cache.put(key, value);
+        int weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            remove(key);
+            listener.onRejection(key, value);
+            return;
+        }
+        V oldValue = cache.put(key, value);
+        if (oldValue != null) {
+            totalWeight -= weigher.weigh(key, oldValue);
+        }
+        totalWeight += weight;
+        // the new item is the most recently used one, so it is never the eldest while others remain
+        evictEldest();
+    }
+
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        Map<K,V> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = cache.get(key);
+            if (value != null) {
+                values.put(key, value);
+            } else {
+                listener.onMiss(key);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Stores all entries first and evicts once, so the eldest entries are dropped in a single pass.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            int weight = weigh(key, value);
+            if (weight > maximumWeight) {
+                remove(key);
+                listener.onRejection(key, value);
+                continue;
+            }
+            V oldValue = cache.put(key, value);
+            if (oldValue != null) {
+                totalWeight -= weigher.weigh(key, oldValue);
+            }
+            totalWeight += weight;
+        }
+        evictEldest();
     }
 
     @Override
     public V get(K key) {
-        if (!containsKey(key)) {
-            System.out.println(MessageFormat.format("ERROR: Key {0} is not in cache.", key));
-            return null;
+        V value = cache.get(key);
+        if (value == null) {
+            listener.onMiss(key);
         }
-        return cache.get(key);
+        return value;
     }
 
     @Override
     public void remove(K key) {
-        if (!containsKey(key)) {
-            System.out.println(MessageFormat.format("ERROR: Key {0} is not in cache.", key));
-        } else {
-            cache.remove(key);
+        V value = cache.remove(key);
+        if (value != null) {
+            totalWeight -= weigher.weigh(key, value);
         }
     }
 
     @Override
     public void clear() {
         cache.clear();
+        totalWeight = 0;
     }
 
     @Override
@@ -71,9 +139,75 @@ public class LRUCache<K,V> implements ICache<K,V> {
     public boolean containsKey(K key) {
         return cache.containsKey(key);
     }
+
+    /**
+     * @return The total weight of the cached items; equal to getSize() unless a weigher was given.
+     */
+    public long getWeightedSize() {
+        return totalWeight;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The hooks CacheSnapshot uses to visit the entries from the least to the most recently used one and
+     * to restore each as the most recently used one.
+     */
+    Snapshotable<K,V> snapshotable() {
+        return new Snapshotable<>() {
+            @Override
+            public void forEachInEvictionOrder(EntryVisitor<K,V> visitor) throws IOException {
+                for (Map.Entry<K, V> entry : cache.entrySet()) {
+                    visitor.visit(entry.getKey(), entry.getValue(), 0);
+                }
+            }
+
+            @Override
+            public void restore(K key, V value, int frequency) {
+                put(key, value);
+            }
+        };
+    }
+
+    /**
+     * Evicts the least recently used items until the total weight fits into the maximum weight.
+     */
+    private void evictEldest() {
+        Iterator<Map.Entry<K, V>> eldest = cache.entrySet().iterator();
+        while (totalWeight > maximumWeight) {
+            Map.Entry<K, V> entry = eldest.next();
+            eldest.remove();
+            totalWeight -= weigher.weigh(entry.getKey(), entry.getValue());
+            listener.onEviction(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        return weight;
+    }
+
     @Override
     public Iterator<K> iterator() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'iterator'");
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the entries from the least to the most recently used one; iterating is no access.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(cache.entrySet(), Map.Entry::getKey);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(cache.entrySet(), entry -> Map.entry(entry.getKey(), entry.getValue()));
     }
 }
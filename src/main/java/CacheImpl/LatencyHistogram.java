@@ -0,0 +1,67 @@
+package CacheImpl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets.
+ * Values below 32 ns get a bucket each; above that every power of two is split into 32 linear sub-buckets,
+ * which bounds the relative error of a reported value to about 3% while covering the whole long range with
+ * a fixed array of 1888 counters. Recording a value is one atomic increment and never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Records one observation.
+     *
+     * @param value The observed latency in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(Math.max(0, value)));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Copies the current counters. Concurrent recordings may or may not be included.
+     *
+     * @return An immutable view of the distribution recorded so far.
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LatencySnapshot(copy);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Returns the largest value that falls into the bucket with the given index.
+     */
+    static long highestValueAt(int index) {
+        int bucket = index >>> SUB_BUCKET_BITS;
+        if (bucket == 0) {
+            return index;
+        }
+        long lowest = (long) (SUB_BUCKET_COUNT + (index & SUB_BUCKET_MASK)) << (bucket - 1);
+        return lowest + (1L << (bucket - 1)) - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package CacheImpl;
+
+/**
+ * Point-in-time copy of a LatencyHistogram. All values are in nanoseconds.
+ */
+public class LatencySnapshot {
+    private final long[] counts;
+    private final long totalCount;
+
+    LatencySnapshot(long[] counts) {
+        this.counts = counts;
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        this.totalCount = total;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the value below which the given share of observations fall.
+     *
+     * @param percentile The percentile in the range [0, 100], e.g. 99.9.
+     * @return The upper bound of the bucket holding that percentile, or 0 when nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return LatencyHistogram.highestValueAt(i);
+            }
+        }
+        return getMax();
+    }
+
+    public long getMax() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return LatencyHistogram.highestValueAt(i);
+            }
+        }
+        return 0;
+    }
+
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += (double) counts[i] * LatencyHistogram.highestValueAt(i);
+        }
+        return sum / totalCount;
+    }
+}
@@ -1,7 +1,9 @@
 package CacheImpl;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Legacy cache implementation that does not enforce capacity constraints.
@@ -33,4 +35,8 @@ public class LegacyCache<K,V> {
     public boolean containsKey(K key) {
         return cache.containsKey(key);
     }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(cache).entrySet();
+    }
 }
@@ -1,44 +1,79 @@
 package CacheImpl;
 
 import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Weigher;
 
-import java.text.MessageFormat;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * Adapter class to adapt LegacyCache to the ICache interface, enforcing capacity limits.
+ * The capacity is either a number of items or, with a Weigher, a maximum total weight.
  */
 public class LegacyCacheAdapter<K,V> implements ICache<K,V> {
     private LegacyCache<K,V> legacyCache;
-    private int capacity;
+    private long maximumWeight;
+    private Weigher<K,V> weigher;
+    private long totalWeight;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
     public LegacyCacheAdapter(int capacity) {
+        this(capacity, Weigher.singleton());
+    }
+
+    /**
+     * Constructs an adapter bounded by the total weight of its items instead of their number.
+     *
+     * @param maximumWeight The maximum total weight of the items the cache can hold.
+     * @param weigher       Computes the weight of each item.
+     */
+    public LegacyCacheAdapter(long maximumWeight, Weigher<K,V> weigher) {
         legacyCache = new LegacyCache<K,V>();
-        this.capacity = capacity;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
     }
     @Override
     public void put(K key, V value) {
-        if (legacyCache.getSize() >= capacity && !legacyCache.containsKey(key)) {
-            System.out.println(MessageFormat.format("It is not possible to add new item {0} to the cache. The size of cache reached the capacity: {1}. Please remove items from cache.", key, capacity));
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        V oldValue = legacyCache.get(key);
+        long newTotalWeight = totalWeight + weight - (oldValue != null ? weigher.weigh(key, oldValue) : 0);
+        // the legacy cache cannot evict, so a write is refused once it would exceed the capacity
+        if (newTotalWeight > maximumWeight) {
+            listener.onRejection(key, value);
             return;
         }
 
         legacyCache.put(key, value);
-        System.out.println(MessageFormat.format("Key: {0} with value: {1} was added/updated to the legacy cache", key, value));
+        totalWeight = newTotalWeight;
     }
 
     @Override
     public V get(K key) {
-        return legacyCache.get(key);
+        V value = legacyCache.get(key);
+        if (value == null) {
+            listener.onMiss(key);
+        }
+        return value;
     }
 
     @Override
     public void remove(K key) {
-        legacyCache.remove(key);
+        V value = legacyCache.get(key);
+        if (value != null) {
+            legacyCache.remove(key);
+            totalWeight -= weigher.weigh(key, value);
+        }
     }
 
     @Override
     public void clear() {
         legacyCache.clear();
+        totalWeight = 0;
     }
 
     @Override
@@ -50,9 +85,34 @@ public class LegacyCacheAdapter<K,V> implements ICache<K,V> {
     public boolean containsKey(K key) {
         return legacyCache.containsKey(key);
     }
+
+    /**
+     * @return The total weight of the cached items; equal to getSize() unless a weigher was given.
+     */
+    public long getWeightedSize() {
+        return totalWeight;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
     @Override
     public Iterator<K> iterator() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'iterator'");
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the entries of the legacy cache; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(legacyCache.entrySet(), Map.Entry::getKey);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(legacyCache.entrySet(), entry -> Map.entry(entry.getKey(), entry.getValue()));
     }
 }
@@ -0,0 +1,363 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementation of a LIRS (Low Inter-reference Recency Set) cache, by Jiang and Zhang.
+ * Items are ranked by the recency of their second-to-last access instead of their last one. About 99% of the
+ * capacity holds LIR items, which were re-referenced within a short distance; the remaining 1% holds resident
+ * HIR items in the FIFO queue Q, and eviction always takes the oldest of them. The recency stack S orders LIR
+ * items, resident HIR items and the keys of recently evicted HIR items by their last access. An HIR item that
+ * is accessed again while it is still in S has a shorter reuse distance than the oldest LIR item, so the two
+ * swap their status. Scans and loops larger than the cache therefore only ever touch the small HIR part.
+ * The keys of evicted items kept in S are limited to the capacity. All operations are amortized O(1).
+ */
+public class LirsCache<K,V> implements ICache<K,V> {
+    private static final int LIR = 0;
+    private static final int HIR_RESIDENT = 1;
+    private static final int HIR_NON_RESIDENT = 2;
+
+    private final int capacity;
+    private final int lirCapacity;
+    private final int nonResidentCapacity;
+    // holds the non-resident HIR keys of the stack as well as the cached items
+    private final Map<K, Node<K,V>> cache;
+    private final NodeQueue<K,V> hirQueue = new NodeQueue<>();
+    // non-resident HIR keys from the oldest to the newest, to limit their number
+    private final NodeQueue<K,V> nonResidents = new NodeQueue<>();
+    private Node<K,V> stackBottom;
+    private Node<K,V> stackTop;
+    private int lirCount;
+    private int residentCount;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs a LirsCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold; keys of evicted items are not counted.
+     */
+    public LirsCache(int capacity) {
+        this.capacity = capacity;
+        int hirCapacity = capacity > 1 ? Math.max(1, capacity / 100) : 0;
+        this.lirCapacity = capacity - hirCapacity;
+        this.nonResidentCapacity = capacity;
+        this.cache = new HashMap<>();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (capacity <= 0) {
+            // nothing fits, so the entry is rejected like an entry heavier than a weighted engine's maximum
+            listener.onRejection(key, value);
+            return;
+        }
+        Node<K,V> node = cache.get(key);
+        if (node != null && node.status != HIR_NON_RESIDENT) {
+            node.value = value;
+            onHit(node);
+            return;
+        }
+        if (residentCount >= capacity) {
+            evict();
+            // evicting may have pruned the non-resident entry of this key from the stack
+            node = cache.get(key);
+        }
+        residentCount++;
+        if (node != null) {
+            // re-referenced while still in the stack: its reuse distance beats the oldest LIR item
+            nonResidents.remove(node);
+            node.value = value;
+            node.status = LIR;
+            lirCount++;
+            moveToTop(node);
+            demoteOldestLir();
+            return;
+        }
+        node = new Node<>(key, value);
+        cache.put(key, node);
+        pushTop(node);
+        if (lirCount < lirCapacity) {
+            node.status = LIR;
+            lirCount++;
+        } else {
+            node.status = HIR_RESIDENT;
+            hirQueue.addLast(node);
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        Node<K,V> node = cache.get(key);
+        if (node == null || node.status == HIR_NON_RESIDENT) {
+            listener.onMiss(key);
+            return null;
+        }
+        onHit(node);
+        return node.value;
+    }
+
+    @Override
+    public void remove(K key) {
+        Node<K,V> node = cache.remove(key);
+        if (node == null) {
+            return;
+        }
+        if (node.inStack) {
+            stackRemove(node);
+        }
+        switch (node.status) {
+            case LIR -> {
+                lirCount--;
+                residentCount--;
+            }
+            case HIR_RESIDENT -> {
+                hirQueue.remove(node);
+                residentCount--;
+            }
+            default -> nonResidents.remove(node);
+        }
+        prune();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        hirQueue.clear();
+        nonResidents.clear();
+        stackBottom = null;
+        stackTop = null;
+        lirCount = 0;
+        residentCount = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return residentCount;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Node<K,V> node = cache.get(key);
+        return node != null && node.status != HIR_NON_RESIDENT;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the resident entries; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(cache.values(), node -> node.status != HIR_NON_RESIDENT ? node.key : null);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(cache.values(), node -> node.status != HIR_NON_RESIDENT ? Map.entry(node.key, node.value) : null);
+    }
+
+    private void onHit(Node<K,V> node) {
+        if (node.status == LIR) {
+            boolean wasBottom = node == stackBottom;
+            moveToTop(node);
+            if (wasBottom) {
+                prune();
+            }
+        } else if (node.inStack || lirCount < lirCapacity) {
+            hirQueue.remove(node);
+            node.status = LIR;
+            lirCount++;
+            moveToTop(node);
+            demoteOldestLir();
+        } else {
+            pushTop(node);
+            hirQueue.moveToLast(node);
+        }
+    }
+
+    /**
+     * Evicts the oldest resident HIR item. Its key stays in the stack as non-resident HIR entry if it is there.
+     */
+    private void evict() {
+        if (hirQueue.size == 0) {
+            // only LIR items are cached, e.g. after removals; make the oldest one evictable
+            Node<K,V> oldest = stackBottom;
+            stackRemove(oldest);
+            oldest.status = HIR_RESIDENT;
+            lirCount--;
+            hirQueue.addLast(oldest);
+            prune();
+        }
+        Node<K,V> victim = hirQueue.removeFirst();
+        residentCount--;
+        V value = victim.value;
+        if (victim.inStack) {
+            victim.status = HIR_NON_RESIDENT;
+            victim.value = null;
+            nonResidents.addLast(victim);
+            if (nonResidents.size > nonResidentCapacity) {
+                Node<K,V> forgotten = nonResidents.removeFirst();
+                stackRemove(forgotten);
+                cache.remove(forgotten.key);
+                prune();
+            }
+        } else {
+            cache.remove(victim.key);
+        }
+        listener.onEviction(victim.key, value);
+    }
+
+    /**
+     * Turns the oldest LIR items into resident HIR items while there are more LIR items than their share.
+     */
+    private void demoteOldestLir() {
+        while (lirCount > lirCapacity) {
+            Node<K,V> oldest = stackBottom;
+            stackRemove(oldest);
+            oldest.status = HIR_RESIDENT;
+            lirCount--;
+            hirQueue.addLast(oldest);
+            prune();
+        }
+    }
+
+    /**
+     * Removes HIR entries from the bottom of the stack, so that the bottom is always the oldest LIR item.
+     */
+    private void prune() {
+        while (stackBottom != null && stackBottom.status != LIR) {
+            Node<K,V> node = stackBottom;
+            stackRemove(node);
+            if (node.status == HIR_NON_RESIDENT) {
+                nonResidents.remove(node);
+                cache.remove(node.key);
+            }
+        }
+    }
+
+    private void moveToTop(Node<K,V> node) {
+        if (node.inStack) {
+            if (node == stackTop) {
+                return;
+            }
+            stackRemove(node);
+        }
+        pushTop(node);
+    }
+
+    private void pushTop(Node<K,V> node) {
+        node.stackPrev = stackTop;
+        node.stackNext = null;
+        if (stackTop != null) {
+            stackTop.stackNext = node;
+        } else {
+            stackBottom = node;
+        }
+        stackTop = node;
+        node.inStack = true;
+    }
+
+    private void stackRemove(Node<K,V> node) {
+        if (node.stackPrev != null) {
+            node.stackPrev.stackNext = node.stackNext;
+        } else {
+            stackBottom = node.stackNext;
+        }
+        if (node.stackNext != null) {
+            node.stackNext.stackPrev = node.stackPrev;
+        } else {
+            stackTop = node.stackPrev;
+        }
+        node.stackPrev = null;
+        node.stackNext = null;
+        node.inStack = false;
+    }
+
+    private static final class Node<K,V> {
+        private final K key;
+        private V value;
+        private int status;
+        private boolean inStack;
+        private Node<K,V> stackPrev;
+        private Node<K,V> stackNext;
+        // links of the HIR queue for resident HIR items, of the non-resident queue otherwise
+        private Node<K,V> queuePrev;
+        private Node<K,V> queueNext;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Intrusive FIFO queue over the queue links of the nodes, from the oldest to the newest node.
+     */
+    private static final class NodeQueue<K,V> {
+        private Node<K,V> head;
+        private Node<K,V> tail;
+        private int size;
+
+        private void addLast(Node<K,V> node) {
+            node.queuePrev = tail;
+            node.queueNext = null;
+            if (tail != null) {
+                tail.queueNext = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void remove(Node<K,V> node) {
+            if (node.queuePrev != null) {
+                node.queuePrev.queueNext = node.queueNext;
+            } else {
+                head = node.queueNext;
+            }
+            if (node.queueNext != null) {
+                node.queueNext.queuePrev = node.queuePrev;
+            } else {
+                tail = node.queuePrev;
+            }
+            node.queuePrev = null;
+            node.queueNext = null;
+            size--;
+        }
+
+        private Node<K,V> removeFirst() {
+            Node<K,V> node = head;
+            remove(node);
+            return node;
+        }
+
+        private void moveToLast(Node<K,V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
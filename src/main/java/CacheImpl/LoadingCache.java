@@ -0,0 +1,393 @@
+package CacheImpl;
+
+import Interfaces.CacheLoader;
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Decorator that loads missing values through a CacheLoader.
+ * Concurrent misses on the same key share one in-flight load: the first caller registers a CompletableFuture
+ * for the key and runs the loader, all later callers wait for that future. Loads run outside of any lock, so
+ * they never block callers of other keys; only the short calls into the wrapped cache are synchronized.
+ * With a refresh interval, a hit on an entry older than the interval still returns the cached value but starts
+ * a reload in the background. Wrapping an ExpiringCache whose time-to-live is longer than the refresh
+ * interval therefore replaces hot entries before they expire.
+ */
+public final class LoadingCache<K,V> extends CacheDecorator<K,V> {
+    private final CacheLoader<K,V> loader;
+    private final long refreshAfterWriteNanos;
+    private final Executor executor;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    // write times are only tracked when refresh-ahead is enabled
+    private final ConcurrentHashMap<K, Long> writeTimes = new ConcurrentHashMap<>();
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs a loading cache without refresh-ahead.
+     *
+     * @param cache  The cache holding the loaded values.
+     * @param loader Loads the values of missing keys.
+     */
+    public LoadingCache(ICache<K,V> cache, CacheLoader<K,V> loader) {
+        this(cache, loader, Duration.ZERO, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a loading cache that reloads entries in the background once they are older than refreshAfterWrite.
+     *
+     * @param cache             The cache holding the loaded values.
+     * @param loader            Loads the values of missing keys.
+     * @param refreshAfterWrite Age after which a hit triggers a reload; zero disables refresh-ahead.
+     * @param executor          Runs the background reloads.
+     */
+    public LoadingCache(ICache<K,V> cache, CacheLoader<K,V> loader, Duration refreshAfterWrite, Executor executor) {
+        super(cache);
+        this.loader = loader;
+        this.refreshAfterWriteNanos = refreshAfterWrite.toNanos();
+        this.executor = executor;
+        super.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onMiss(K key) {
+                listener.onMiss(key);
+            }
+
+            @Override
+            public void onEviction(K key, V value) {
+                writeTimes.remove(key);
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onExpiration(K key, V value) {
+                writeTimes.remove(key);
+                listener.onExpiration(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                listener.onRejection(key, value);
+            }
+        });
+    }
+
+    /**
+     * Returns the cached value or loads it. Callers that miss the same key at the same time share one load.
+     * A RuntimeException thrown by the loader is rethrown as is, checked exceptions are wrapped in a
+     * CompletionException.
+     */
+    @Override
+    public V get(K key) {
+        return getOrLoad(key, loader);
+    }
+
+    /**
+     * Like get, but loads a missing value with the mapping function instead of the cache loader.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return getOrLoad(key, mappingFunction::apply);
+    }
+
+    /**
+     * Returns the values of all keys, loading the missing ones with a single CacheLoader.loadAll call.
+     * Keys that are already being loaded by other callers are not loaded again.
+     *
+     * @return The values by key; keys the loader has no value for are left out.
+     */
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        return join(getAllAsync(keys, Runnable::run));
+    }
+
+    /**
+     * Reloads the entry in the background while the current value keeps being served.
+     *
+     * @return A future completed with the new value, or the load already in flight for the key.
+     */
+    public CompletableFuture<V> refresh(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> prior = inFlight.putIfAbsent(key, future);
+        if (prior != null) {
+            return prior;
+        }
+        V oldValue = peek(key);
+        execute(executor, Map.of(key, future), () -> complete(key, future, () -> oldValue == null ? loader.load(key) : loader.reload(key, oldValue)));
+        return future;
+    }
+
+    /**
+     * Stores the value; a load of the same key that is still in flight will not overwrite it.
+     */
+    @Override
+    public synchronized void put(K key, V value) {
+        inFlight.remove(key);
+        store(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        for (K key : entries.keySet()) {
+            inFlight.remove(key);
+        }
+        super.putAll(entries);
+        if (refreshAfterWriteNanos > 0) {
+            long now = System.nanoTime();
+            for (K key : entries.keySet()) {
+                if (super.containsKey(key)) {
+                    writeTimes.put(key, now);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        List<K> removedKeys = new ArrayList<>();
+        for (K key : keys) {
+            inFlight.remove(key);
+            writeTimes.remove(key);
+            removedKeys.add(key);
+        }
+        super.removeAll(removedKeys);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        inFlight.remove(key);
+        writeTimes.remove(key);
+        super.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        inFlight.clear();
+        writeTimes.clear();
+        super.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return super.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return super.containsKey(key);
+    }
+
+    /**
+     * Creates the spliterator of the wrapped cache under this cache's lock, so the snapshot of an engine is
+     * taken consistently; traversing it does not block writers.
+     */
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        return super.spliterator();
+    }
+
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return super.entrySpliterator();
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    private V getOrLoad(K key, CacheLoader<? super K, ? extends V> loadFunction) {
+        return join(getAsync(key, loadFunction, Runnable::run));
+    }
+
+    /**
+     * Returns a completed future on a hit. On a miss it returns the load already in flight for the key,
+     * or registers a new one and runs it on the executor; a direct executor makes the call synchronous.
+     */
+    CompletableFuture<V> getAsync(K key, CacheLoader<? super K, ? extends V> loadFunction, Executor loadExecutor) {
+        V value = getCached(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> prior = inFlight.putIfAbsent(key, future);
+        if (prior != null) {
+            return prior;
+        }
+        execute(loadExecutor, Map.of(key, future), () -> complete(key, future, () -> {
+            // a load that finished between the miss and the registration has already stored the value
+            V cachedValue = peek(key);
+            return cachedValue != null ? cachedValue : loadFunction.load(key);
+        }));
+        return future;
+    }
+
+    /**
+     * Bulk variant of getAsync: the keys nobody is loading yet are loaded with one loadAll call on the executor.
+     */
+    CompletableFuture<Map<K,V>> getAllAsync(Iterable<? extends K> keys, Executor loadExecutor) {
+        Map<K,V> cached = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (cached.containsKey(key) || pending.containsKey(key)) {
+                continue;
+            }
+            V value = getCached(key);
+            if (value != null) {
+                cached.put(key, value);
+                continue;
+            }
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> prior = inFlight.putIfAbsent(key, future);
+            if (prior == null) {
+                owned.put(key, future);
+                pending.put(key, future);
+            } else {
+                pending.put(key, prior);
+            }
+        }
+        if (!owned.isEmpty()) {
+            execute(loadExecutor, owned, () -> loadAll(owned));
+        }
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<K,V> result = new LinkedHashMap<>(cached);
+            for (Map.Entry<K, CompletableFuture<V>> entry : pending.entrySet()) {
+                V value = entry.getValue().join();
+                if (value != null) {
+                    result.put(entry.getKey(), value);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Hands the load to the executor. If the executor rejects it, e.g. after AsyncCache was closed, the futures
+     * registered for it are failed and unregistered before the rejection is rethrown, so no caller waits forever.
+     */
+    private void execute(Executor loadExecutor, Map<K, CompletableFuture<V>> owned, Runnable load) {
+        try {
+            loadExecutor.execute(load);
+        } catch (RejectedExecutionException e) {
+            for (Map.Entry<K, CompletableFuture<V>> entry : owned.entrySet()) {
+                inFlight.remove(entry.getKey(), entry.getValue());
+                entry.getValue().completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the keys this caller registered futures for, completing every future even if the loader or the
+     * wrapped cache fails. A null result of the loader counts as no values.
+     */
+    private void loadAll(Map<K, CompletableFuture<V>> owned) {
+        try {
+            Map<? extends K, ? extends V> values = loader.loadAll(owned.keySet());
+            if (values == null) {
+                values = Collections.emptyMap();
+            }
+            for (Map.Entry<K, CompletableFuture<V>> entry : owned.entrySet()) {
+                V value = values.get(entry.getKey());
+                storeLoaded(entry.getKey(), entry.getValue(), value);
+                entry.getValue().complete(value);
+            }
+        } catch (Throwable e) {
+            // futures that were completed already keep their value
+            for (Map.Entry<K, CompletableFuture<V>> entry : owned.entrySet()) {
+                inFlight.remove(entry.getKey(), entry.getValue());
+                entry.getValue().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Runs the load and stores its value; if either step fails, the future fails and is unregistered.
+     */
+    private void complete(K key, CompletableFuture<V> future, ValueSupplier<? extends V> valueSupplier) {
+        try {
+            V value = valueSupplier.get();
+            storeLoaded(key, future, value);
+            future.complete(value);
+        } catch (Throwable e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stores a loaded value unless the load was cancelled by a put, remove or clear in the meantime.
+     */
+    private synchronized void storeLoaded(K key, CompletableFuture<V> future, V value) {
+        if (inFlight.remove(key, future) && value != null) {
+            store(key, value);
+        }
+    }
+
+    private synchronized void store(K key, V value) {
+        super.put(key, value);
+        if (refreshAfterWriteNanos > 0 && super.containsKey(key)) {
+            writeTimes.put(key, System.nanoTime());
+        }
+    }
+
+    /**
+     * Reads the wrapped cache and starts a background refresh when the entry is due.
+     */
+    private V getCached(K key) {
+        V value;
+        synchronized (this) {
+            value = super.get(key);
+        }
+        if (value != null && refreshAfterWriteNanos > 0) {
+            Long writeTime = writeTimes.get(key);
+            if (writeTime != null && System.nanoTime() - writeTime >= refreshAfterWriteNanos && !inFlight.containsKey(key)) {
+                refresh(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads the wrapped cache without reporting a miss.
+     */
+    private synchronized V peek(K key) {
+        return super.containsKey(key) ? super.get(key) : null;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueSupplier<V> {
+        V get() throws Exception;
+    }
+}
@@ -0,0 +1,349 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Base class of the caches specialized for primitive long keys.
+ * Entries live in parallel arrays indexed by an entry id and are found through an open-addressing hash table
+ * of entry ids, so a get or put neither boxes the key nor allocates a map or list node. The prev/next arrays
+ * link entries into the eviction order of the subclass. asCache() exposes the same entries through the
+ * boxed ICache interface, e.g. to wrap them in a decorator.
+ */
+public abstract class LongKeyCache<V> implements Iterable<Long> {
+    protected static final int NIL = -1;
+
+    protected final int capacity;
+    protected final long[] keys;
+    protected final int[] prev;
+    protected final int[] next;
+    // ends of the order list used by the FIFO and LRU variants
+    protected int head = NIL;
+    protected int tail = NIL;
+
+    private final Object[] values;
+    private final boolean[] used;
+    private final int[] freeEntries;
+    private int freeEntryCount;
+    private int size;
+
+    // hash index: entry id + 1 per slot, 0 marks an empty slot
+    private final int[] table;
+    private final int tableMask;
+
+    private ICacheListener<Long, V> listener = ICacheListener.noOp();
+    private ICache<Long, V> cacheView;
+
+    /**
+     * Allocates all arrays up front for the given capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    protected LongKeyCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.values = new Object[capacity];
+        this.used = new boolean[capacity];
+        this.freeEntries = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        resetEntries();
+    }
+
+    public void put(long key, V value) {
+        int entry = findEntry(key);
+        if (entry != NIL) {
+            values[entry] = value;
+            onUpdate(entry);
+            return;
+        }
+        if (size >= capacity) {
+            int victim = victim();
+            V evictedValue = valueAt(victim);
+            long evictedKey = keys[victim];
+            removeEntry(victim);
+            if (listener != ICacheListener.<Long, V>noOp()) {
+                listener.onEviction(evictedKey, evictedValue);
+            }
+        }
+        entry = freeEntries[--freeEntryCount];
+        keys[entry] = key;
+        values[entry] = value;
+        used[entry] = true;
+        insertIntoTable(entry);
+        size++;
+        onInsert(entry);
+    }
+
+    public V get(long key) {
+        int entry = findEntry(key);
+        if (entry == NIL) {
+            // the check avoids boxing the key when nobody listens
+            if (listener != ICacheListener.<Long, V>noOp()) {
+                listener.onMiss(key);
+            }
+            return null;
+        }
+        onGet(entry);
+        return valueAt(entry);
+    }
+
+    public void remove(long key) {
+        int entry = findEntry(key);
+        if (entry != NIL) {
+            removeEntry(entry);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return findEntry(key) != NIL;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(values, null);
+        resetEntries();
+        head = NIL;
+        tail = NIL;
+        onClear();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setCacheListener(ICacheListener<Long, V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns a view of this cache with boxed keys. Both share the same entries.
+     *
+     * @return The ICache view; its calls box the key and delegate to the primitive methods.
+     */
+    public ICache<Long, V> asCache() {
+        if (cacheView == null) {
+            cacheView = new ICache<Long, V>() {
+                @Override
+                public void put(Long key, V value) {
+                    LongKeyCache.this.put(key.longValue(), value);
+                }
+
+                @Override
+                public V get(Long key) {
+                    return LongKeyCache.this.get(key.longValue());
+                }
+
+                @Override
+                public void remove(Long key) {
+                    LongKeyCache.this.remove(key.longValue());
+                }
+
+                @Override
+                public void clear() {
+                    LongKeyCache.this.clear();
+                }
+
+                @Override
+                public int getSize() {
+                    return size;
+                }
+
+                @Override
+                public boolean containsKey(Long key) {
+                    return LongKeyCache.this.containsKey(key.longValue());
+                }
+
+                @Override
+                public void setCacheListener(ICacheListener<Long, V> listener) {
+                    LongKeyCache.this.setCacheListener(listener);
+                }
+
+                @Override
+                public Iterator<Long> iterator() {
+                    return LongKeyCache.this.iterator();
+                }
+
+                @Override
+                public Spliterator<Long> spliterator() {
+                    return LongKeyCache.this.spliterator();
+                }
+
+                @Override
+                public Spliterator<Map.Entry<Long, V>> entrySpliterator() {
+                    return LongKeyCache.this.entrySpliterator();
+                }
+            };
+        }
+        return cacheView;
+    }
+
+    /**
+     * Iterates over the keys in entry order. Each key is boxed, so prefer the primitive methods on hot paths.
+     */
+    @Override
+    public Iterator<Long> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Traverses the live entry slots without copying them. Entries never move between slots, so an entry that
+     * stays cached is returned exactly once even if the cache is changed in the meantime.
+     */
+    @Override
+    public Spliterator<Long> spliterator() {
+        return CacheSpliterators.slots(0, capacity, entry -> used[entry] ? keys[entry] : null);
+    }
+
+    /**
+     * Like spliterator, but returns each entry with its value.
+     */
+    @SuppressWarnings("unchecked")
+    public Spliterator<Map.Entry<Long, V>> entrySpliterator() {
+        return CacheSpliterators.slots(0, capacity, entry -> used[entry] ? Map.entry(keys[entry], (V) values[entry]) : null);
+    }
+
+    /**
+     * Adds a new entry to the eviction order.
+     */
+    protected abstract void onInsert(int entry);
+
+    /**
+     * Records a hit on an entry.
+     */
+    protected abstract void onGet(int entry);
+
+    /**
+     * Records a put on an entry that is already cached.
+     */
+    protected abstract void onUpdate(int entry);
+
+    /**
+     * Detaches an entry from the eviction order.
+     */
+    protected abstract void onRemove(int entry);
+
+    /**
+     * Returns the entry to evict next; only called when the cache is full.
+     */
+    protected abstract int victim();
+
+    /**
+     * Resets the eviction order after all entries were dropped.
+     */
+    protected void onClear() {
+    }
+
+    protected void linkLast(int entry) {
+        prev[entry] = tail;
+        next[entry] = NIL;
+        if (tail != NIL) {
+            next[tail] = entry;
+        } else {
+            head = entry;
+        }
+        tail = entry;
+    }
+
+    protected void unlink(int entry) {
+        if (prev[entry] != NIL) {
+            next[prev[entry]] = next[entry];
+        } else {
+            head = next[entry];
+        }
+        if (next[entry] != NIL) {
+            prev[next[entry]] = prev[entry];
+        } else {
+            tail = prev[entry];
+        }
+    }
+
+    protected void moveToLast(int entry) {
+        if (entry != tail) {
+            unlink(entry);
+            linkLast(entry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int entry) {
+        return (V) values[entry];
+    }
+
+    private void resetEntries() {
+        Arrays.fill(used, false);
+        for (int i = 0; i < capacity; i++) {
+            freeEntries[i] = capacity - 1 - i;
+        }
+        freeEntryCount = capacity;
+        size = 0;
+    }
+
+    private void removeEntry(int entry) {
+        onRemove(entry);
+        removeFromTable(entry);
+        values[entry] = null;
+        used[entry] = false;
+        freeEntries[freeEntryCount++] = entry;
+        size--;
+    }
+
+    private int findEntry(long key) {
+        for (int slot = hash(key) & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = table[slot] - 1;
+            if (entry < 0) {
+                return NIL;
+            }
+            if (keys[entry] == key) {
+                return entry;
+            }
+        }
+    }
+
+    private void insertIntoTable(int entry) {
+        int slot = hash(keys[entry]) & tableMask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Deletes the slot of the entry and shifts the following slots of its probe run back,
+     * so lookups never need tombstones.
+     */
+    private void removeFromTable(int entry) {
+        int slot = hash(keys[entry]) & tableMask;
+        while (table[slot] != entry + 1) {
+            slot = (slot + 1) & tableMask;
+        }
+        int nextSlot = (slot + 1) & tableMask;
+        while (table[nextSlot] != 0) {
+            int home = hash(keys[table[nextSlot] - 1]) & tableMask;
+            // move the entry back unless its home slot lies cyclically in (slot, nextSlot]
+            if (((nextSlot - home) & tableMask) >= ((nextSlot - slot) & tableMask)) {
+                table[slot] = table[nextSlot];
+                slot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & tableMask;
+        }
+        table[slot] = 0;
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
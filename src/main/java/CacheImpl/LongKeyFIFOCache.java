@@ -0,0 +1,41 @@
+package CacheImpl;
+
+/**
+ * First-In-First-Out (FIFO) cache for primitive long keys.
+ * Like FIFOCache, an update moves the key to the end of the queue, while a get leaves the order unchanged.
+ */
+public class LongKeyFIFOCache<V> extends LongKeyCache<V> {
+
+    /**
+     * Constructs a new LongKeyFIFOCache with the specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public LongKeyFIFOCache(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void onInsert(int entry) {
+        linkLast(entry);
+    }
+
+    @Override
+    protected void onGet(int entry) {
+    }
+
+    @Override
+    protected void onUpdate(int entry) {
+        moveToLast(entry);
+    }
+
+    @Override
+    protected void onRemove(int entry) {
+        unlink(entry);
+    }
+
+    @Override
+    protected int victim() {
+        return head;
+    }
+}
@@ -0,0 +1,157 @@
+package CacheImpl;
+
+/**
+ * Least Frequently Used (LFU) cache for primitive long keys.
+ * This is the index-based counterpart of LFUBucketCache: entries are linked into one list per frequency
+ * and the frequency buckets form a list of their own, all stored in int arrays, so every operation is O(1)
+ * and nothing is allocated. Among entries with the same frequency the one that reached it first is evicted.
+ */
+public class LongKeyLFUCache<V> extends LongKeyCache<V> {
+    private final int[] entryBucket;
+    private final int[] bucketFrequency;
+    private final int[] bucketHead;
+    private final int[] bucketTail;
+    private final int[] bucketPrev;
+    private final int[] bucketNext;
+    private final int[] freeBuckets;
+    private int freeBucketCount;
+    // The first bucket always holds the entries with the lowest frequency present in the cache.
+    private int minFrequencyBucket = NIL;
+
+    /**
+     * Constructs a new LongKeyLFUCache with the specified capacity.
+     * There are never more non-empty frequency buckets than entries, so capacity buckets are enough.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public LongKeyLFUCache(int capacity) {
+        super(capacity);
+        this.entryBucket = new int[capacity];
+        this.bucketFrequency = new int[capacity];
+        this.bucketHead = new int[capacity];
+        this.bucketTail = new int[capacity];
+        this.bucketPrev = new int[capacity];
+        this.bucketNext = new int[capacity];
+        this.freeBuckets = new int[capacity];
+        resetBuckets();
+    }
+
+    @Override
+    protected void onInsert(int entry) {
+        if (minFrequencyBucket == NIL || bucketFrequency[minFrequencyBucket] != 1) {
+            minFrequencyBucket = insertBucketAfter(NIL, 1);
+        }
+        append(minFrequencyBucket, entry);
+    }
+
+    @Override
+    protected void onGet(int entry) {
+        increaseFrequency(entry);
+    }
+
+    @Override
+    protected void onUpdate(int entry) {
+        increaseFrequency(entry);
+    }
+
+    @Override
+    protected void onRemove(int entry) {
+        detach(entry);
+    }
+
+    @Override
+    protected int victim() {
+        return bucketHead[minFrequencyBucket];
+    }
+
+    @Override
+    protected void onClear() {
+        resetBuckets();
+    }
+
+    private void resetBuckets() {
+        for (int i = 0; i < capacity; i++) {
+            freeBuckets[i] = capacity - 1 - i;
+            entryBucket[i] = NIL;
+        }
+        freeBucketCount = capacity;
+        minFrequencyBucket = NIL;
+    }
+
+    /**
+     * Moves the entry to the bucket of the next frequency. When the entry is alone in its bucket and the
+     * next frequency is free, the bucket is simply renumbered.
+     */
+    private void increaseFrequency(int entry) {
+        int currentBucket = entryBucket[entry];
+        int nextFrequency = bucketFrequency[currentBucket] + 1;
+        int nextBucket = bucketNext[currentBucket];
+        if (nextBucket == NIL || bucketFrequency[nextBucket] != nextFrequency) {
+            if (bucketHead[currentBucket] == entry && bucketTail[currentBucket] == entry) {
+                bucketFrequency[currentBucket] = nextFrequency;
+                return;
+            }
+            nextBucket = insertBucketAfter(currentBucket, nextFrequency);
+        }
+        detach(entry);
+        append(nextBucket, entry);
+    }
+
+    private int insertBucketAfter(int previous, int frequency) {
+        int bucket = freeBuckets[--freeBucketCount];
+        bucketFrequency[bucket] = frequency;
+        bucketHead[bucket] = NIL;
+        bucketTail[bucket] = NIL;
+        bucketPrev[bucket] = previous;
+        bucketNext[bucket] = previous == NIL ? minFrequencyBucket : bucketNext[previous];
+        if (bucketNext[bucket] != NIL) {
+            bucketPrev[bucketNext[bucket]] = bucket;
+        }
+        if (previous != NIL) {
+            bucketNext[previous] = bucket;
+        }
+        return bucket;
+    }
+
+    private void append(int bucket, int entry) {
+        entryBucket[entry] = bucket;
+        prev[entry] = bucketTail[bucket];
+        next[entry] = NIL;
+        if (bucketTail[bucket] != NIL) {
+            next[bucketTail[bucket]] = entry;
+        } else {
+            bucketHead[bucket] = entry;
+        }
+        bucketTail[bucket] = entry;
+    }
+
+    /**
+     * Detaches the entry from its bucket and releases the bucket once it becomes empty.
+     */
+    private void detach(int entry) {
+        int bucket = entryBucket[entry];
+        if (prev[entry] != NIL) {
+            next[prev[entry]] = next[entry];
+        } else {
+            bucketHead[bucket] = next[entry];
+        }
+        if (next[entry] != NIL) {
+            prev[next[entry]] = prev[entry];
+        } else {
+            bucketTail[bucket] = prev[entry];
+        }
+        entryBucket[entry] = NIL;
+
+        if (bucketHead[bucket] == NIL) {
+            if (bucketPrev[bucket] != NIL) {
+                bucketNext[bucketPrev[bucket]] = bucketNext[bucket];
+            } else {
+                minFrequencyBucket = bucketNext[bucket];
+            }
+            if (bucketNext[bucket] != NIL) {
+                bucketPrev[bucketNext[bucket]] = bucketPrev[bucket];
+            }
+            freeBuckets[freeBucketCount++] = bucket;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package CacheImpl;
+
+/**
+ * Least Recently Used (LRU) cache for primitive long keys.
+ * Both get and put move the entry to the end of the order list, and the head is evicted.
+ */
+public class LongKeyLRUCache<V> extends LongKeyCache<V> {
+
+    /**
+     * Constructs a new LongKeyLRUCache with the specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public LongKeyLRUCache(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void onInsert(int entry) {
+        linkLast(entry);
+    }
+
+    @Override
+    protected void onGet(int entry) {
+        moveToLast(entry);
+    }
+
+    @Override
+    protected void onUpdate(int entry) {
+        moveToLast(entry);
+    }
+
+    @Override
+    protected void onRemove(int entry) {
+        unlink(entry);
+    }
+
+    @Override
+    protected int victim() {
+        return head;
+    }
+}
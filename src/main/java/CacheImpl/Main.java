@@ -2,12 +2,23 @@ package CacheImpl;
 
 import CacheImpl.CacheDecorator;
 import CacheImpl.CacheFactory;
-import CacheImpl.CacheTimeMeasureDecorator;
 import CacheImpl.LegacyCacheAdapter;
 import Enums.CacheTypeEnum;
 import Interfaces.ICache;
+import Interfaces.CacheLoader;
+import Interfaces.ICacheListener;
+import Interfaces.Serializer;
+import Interfaces.Weigher;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * CacheImpl.Main class to test the various cache implementations: LFU, LRU, and FIFO.
@@ -25,9 +36,33 @@ public class Main {
         //testLFUCache();
         //testFIFOCache();
         //testLRUCache();
-        //testFIFOMeasureTimeCacheDecorator();
+        //testFIFOMetricsCacheDecorator();
         //testLegacyCacheAdapter();
         //testFIFOCacheIterator();
+        //testLFUConstantTimeCache();
+        //testLFUConstantTimeScaling();
+        //testConcurrentLRUCache();
+        //testCacheListener();
+        //testOffHeapCache();
+        //testLongKeyCacheAllocation();
+        //testConcurrentCacheReadScaling();
+        //testWTinyLFUHitRate();
+        //testExpiringCache();
+        //testWeightedLRUCache();
+        //testLoadingCacheCoalescing();
+        //testAsyncCacheOnVirtualThreads();
+        //testLFUBatchGet();
+        //testShardedCacheThroughput();
+        //testSnapshotRestore();
+        //testWriteBehindCache();
+        //testTieredCache();
+        //testFIFOCacheUpdateStorm();
+        //testParallelEntryScan();
+        //testTagInvalidation();
+        //testTagInvalidationWithExpiration();
+        //testNearCacheInvalidation();
+        //testCompactValueStorage();
+        //testCacheCluster();
         testGenerics();
     }
 
@@ -48,7 +83,7 @@ public class Main {
         System.out.println(cache.get("key3")); // Expected: 3
         System.out.println(cache.get("key4")); // Expected: 10
 
-        // Expect an error message for key2 and return 0 since key2 was evicted.
+        // Expect null since key2 was evicted.
         System.out.println(cache.get("key2"));
     }
 
@@ -74,10 +109,59 @@ public class Main {
         System.out.println(cache.get("key3")); // Expected: 3
         System.out.println(cache.get("key4")); // Expected: 10
 
-        // Expect an error message for key2 and return 0 since key2 was evicted.
+        // Expect null since key2 was evicted.
         System.out.println(cache.get("key2"));
     }
 
+    /**
+     * Tests the constant-time LFU cache built through LFUCacheBuilder.
+     * Runs the same scenario as testLFUCache, so both engines must evict key2.
+     */
+    private static void testLFUConstantTimeCache() {
+        ICache<String, Integer> cache = new LFUCacheBuilder<String, Integer>().setCapacity(3).buildConstantTime();
+
+        cache.put("key1", 1); // key1:1, freq 1
+        cache.put("key1", 6); // key1:6, freq 2
+        cache.put("key2", 2); // key1:6, key2:2
+        cache.put("key3", 3); // cache: key1:6, key2:2, key3:3
+        cache.get("key3"); // get key3
+
+        // Frequencies are [key1: 2, key2: 1, key3: 2], so key2 is evicted.
+        cache.put("key4", 10); // cache: key1:6, key3:3, key4:10
+
+        System.out.println(cache.get("key1")); // Expected: 6
+        System.out.println(cache.get("key3")); // Expected: 3
+        System.out.println(cache.get("key4")); // Expected: 10
+        System.out.println(cache.containsKey("key2")); // Expected: false
+    }
+
+    /**
+     * Measures the average cost of a get/put mix on the constant-time LFU cache for capacities from 1k to 1M.
+     * The nanoseconds per operation should stay roughly flat while the capacity grows by three orders of magnitude.
+     */
+    private static void testLFUConstantTimeScaling() {
+        int operations = 2_000_000;
+        for (int capacity : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            ICache<Integer, Integer> cache = new LFUCacheBuilder<Integer, Integer>().setCapacity(capacity).buildConstantTime();
+            for (int i = 0; i < capacity; i++) {
+                cache.put(i, i);
+            }
+            java.util.Random random = new java.util.Random(42);
+            long startTime = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                // half of the keys miss, so every second operation on average is an eviction
+                int key = random.nextInt(capacity * 2);
+                if (cache.containsKey(key)) {
+                    cache.get(key);
+                } else {
+                    cache.put(key, i);
+                }
+            }
+            long endTime = System.nanoTime();
+            System.out.println(MessageFormat.format("capacity {0}: {1} ns/op", capacity, (endTime - startTime) / (double) operations));
+        }
+    }
+
     /**
      * Tests the FIFO (First In, First Out) cache implementation.
      * Demonstrates cache operations including put, get, and eviction of the earliest added element.
@@ -99,16 +183,665 @@ public class Main {
         System.out.println(cache.get("key2")); // Expected: 5
         System.out.println(cache.get("key4")); // Expected: 10
 
-        // Expect an error message for key3 and return 0 since key3 was evicted.
+        // Expect null since key3 was evicted.
         System.out.println(cache.get("key3"));
     }
 
-    private static void testFIFOMeasureTimeCacheDecorator(){
-        CacheDecorator<String, Integer> decorator = new CacheTimeMeasureDecorator<String, Integer>((new CacheFactory<String,Integer>()).createCacheInstance(CacheTypeEnum.FIFO, 3));
+    /**
+     * Updates and removes every key of a 500k-entry FIFO cache. Each operation unlinks one node, so the storm
+     * takes milliseconds instead of one list walk per key. With keepPositionOnUpdate an updated key keeps its
+     * place in the queue and is still the first one evicted.
+     */
+    private static void testFIFOCacheUpdateStorm() {
+        int entries = 500_000;
+        FIFOCache<Integer, Integer> cache = new FIFOCache<>(entries);
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, -i);
+        }
+        for (int i = 0; i < entries; i += 2) {
+            cache.remove(i);
+        }
+        System.out.println(MessageFormat.format("{0} updates and {1} removes took {2} ms, size {3}",
+                entries, entries / 2, (System.nanoTime() - start) / 1_000_000, cache.getSize())); // Expected size: 250000
+
+        ICache<String, Integer> trueFifo = new FIFOCache<>(2, true);
+        trueFifo.put("key1", 1);
+        trueFifo.put("key2", 2);
+        trueFifo.put("key1", 3); // key1 stays the oldest key
+        trueFifo.put("key3", 4); // evicts key1
+        System.out.println(trueFifo.containsKey("key1")); // Expected: false
+        System.out.println(trueFifo.get("key2")); // Expected: 2
+    }
+
+    /**
+     * Tests the thread-safe LRU cache with a single thread, so the eviction order is deterministic.
+     * Every put drains the recorded reads first, hence key1 is known to be recently used when key4 arrives.
+     */
+    private static void testConcurrentLRUCache() {
+        ICache<String, Integer> cache = (new CacheFactory<String,Integer>()).createCacheInstance(CacheTypeEnum.CONCURRENT_LRU, 3);
+
+        cache.put("key1", 1);
+        cache.put("key2", 2);
+        cache.put("key3", 3);
+        cache.get("key1"); // Access key1, it becomes the most recently used
+        cache.put("key4", 10); // This should evict key2, the least recently used
+
+        System.out.println(cache.get("key1")); // Expected: 1
+        System.out.println(cache.get("key3")); // Expected: 3
+        System.out.println(cache.get("key4")); // Expected: 10
+        System.out.println(cache.containsKey("key2")); // Expected: false
+    }
+
+    /**
+     * Measures read throughput of the concurrent engines with a growing number of threads sharing one cache.
+     * Throughput should grow nearly linearly with the thread count up to the number of cores.
+     */
+    private static void testConcurrentCacheReadScaling() throws InterruptedException {
+        int capacity = 100_000;
+        int readsPerThread = 5_000_000;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (CacheTypeEnum type : new CacheTypeEnum[]{CacheTypeEnum.CONCURRENT_LRU, CacheTypeEnum.CONCURRENT_LFU}) {
+            ICache<Integer, Integer> cache = (new CacheFactory<Integer,Integer>()).createCacheInstance(type, capacity);
+            for (int i = 0; i < capacity; i++) {
+                cache.put(i, i);
+            }
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    int seed = t;
+                    workers[t] = new Thread(() -> {
+                        java.util.Random random = new java.util.Random(seed);
+                        for (int i = 0; i < readsPerThread; i++) {
+                            cache.get(random.nextInt(capacity));
+                        }
+                    });
+                }
+                long startTime = System.nanoTime();
+                for (Thread worker : workers) {
+                    worker.start();
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                long endTime = System.nanoTime();
+                double opsPerSecond = (double) threads * readsPerThread / ((endTime - startTime) / 1_000_000_000.0);
+                System.out.println(MessageFormat.format("{0} with {1} threads: {2} reads/s", type, threads, Math.round(opsPerSecond)));
+            }
+        }
+    }
+
+    /**
+     * Compares the hit rate of W-TinyLFU with LRU and LFU on a workload that mixes a hot set with one-hit-wonder scans.
+     * W-TinyLFU should keep the hot set while the scans flush it out of the LRU cache.
+     */
+    private static void testWTinyLFUHitRate() {
+        int capacity = 1_000;
+        for (CacheTypeEnum type : new CacheTypeEnum[]{CacheTypeEnum.LRU, CacheTypeEnum.LFU, CacheTypeEnum.W_TINY_LFU,
+                CacheTypeEnum.ARC, CacheTypeEnum.TWO_QUEUE, CacheTypeEnum.LIRS, CacheTypeEnum.SIEVE}) {
+            ICache<Integer, Integer> cache = (new CacheFactory<Integer,Integer>()).createCacheInstance(type, capacity);
+            java.util.Random random = new java.util.Random(42);
+            int scanKey = 1_000_000;
+            int hits = 0;
+            int requests = 0;
+            for (int round = 0; round < 200; round++) {
+                // a burst of reads from a hot set of 500 keys followed by a scan over 2000 keys seen once
+                for (int i = 0; i < 2_000; i++, requests++) {
+                    int key = random.nextInt(500);
+                    if (cache.containsKey(key)) {
+                        cache.get(key);
+                        hits++;
+                    } else {
+                        cache.put(key, key);
+                    }
+                }
+                for (int i = 0; i < 2_000; i++, requests++) {
+                    cache.put(scanKey, scanKey);
+                    scanKey++;
+                }
+            }
+            System.out.println(MessageFormat.format("{0}: hit rate {1}", type, (double) hits / requests));
+        }
+    }
+
+    /**
+     * Tests the cache listener and the single-probe lookups.
+     * Misses and evictions are reported to the listener instead of being printed by the cache.
+     */
+    private static void testCacheListener() {
+        ICache<String, Integer> cache = (new CacheFactory<String,Integer>()).createCacheInstance(CacheTypeEnum.LRU, 2);
+        cache.setCacheListener(new ICacheListener<String, Integer>() {
+            @Override
+            public void onMiss(String key) {
+                System.out.println(MessageFormat.format("Miss: {0}", key));
+            }
+
+            @Override
+            public void onEviction(String key, Integer value) {
+                System.out.println(MessageFormat.format("Evicted: {0}={1}", key, value));
+            }
+        });
+
+        cache.put("key1", 1);
+        cache.put("key2", 2);
+        cache.put("key3", 3); // Expected: Evicted: key1=1
+
+        System.out.println(cache.getIfPresent("key1").isPresent()); // Expected: Miss: key1, then false
+        System.out.println(cache.computeIfAbsent("key4", key -> 4)); // Expected: Miss: key4, Evicted: key2=2, then 4
+        System.out.println(cache.computeIfAbsent("key4", key -> 40)); // Expected: 4
+    }
+
+    /**
+     * Tests expire-after-write, expire-after-access and a per-entry time-to-live with a manual clock.
+     */
+    private static void testExpiringCache() {
+        AtomicLong nanos = new AtomicLong();
+        ExpiringCache<String, Integer> cache = new ExpiringCacheBuilder<String, Integer>()
+                .setCacheType(CacheTypeEnum.LRU)
+                .setCapacity(10)
+                .setExpireAfterWrite(Duration.ofMinutes(5))
+                .setExpireAfterAccess(Duration.ofMinutes(1))
+                .setTicker(nanos::get)
+                .build();
+        cache.setCacheListener(new ICacheListener<String, Integer>() {
+            @Override
+            public void onExpiration(String key, Integer value) {
+                System.out.println(MessageFormat.format("Expired: {0}={1}", key, value));
+            }
+        });
+
+        cache.put("key1", 1);
+        cache.put("key2", 2);
+        cache.put("key3", 3, Duration.ofSeconds(10));
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos()); // Expected: Expired: key3=3
+        System.out.println(cache.get("key1")); // Expected: 1, which keeps key1 alive for another minute
+        nanos.addAndGet(Duration.ofSeconds(40).toNanos()); // key2 has been idle for 70 seconds
+        System.out.println(cache.get("key2")); // Expected: Expired: key2=2, then null
+        System.out.println(cache.getSize()); // Expected: 1
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        System.out.println(cache.containsKey("key1")); // Expected: Expired: key1=1, then false
+    }
+
+    /**
+     * Tests an LRU cache bounded by the total size of its values instead of their number.
+     */
+    private static void testWeightedLRUCache() {
+        Weigher<String, byte[]> weigher = (key, value) -> value.length;
+        ICache<String, byte[]> cache = (new CacheFactory<String, byte[]>()).createCacheInstance(CacheTypeEnum.LRU, 1_000_000, weigher);
+        cache.setCacheListener(new ICacheListener<String, byte[]>() {
+            @Override
+            public void onEviction(String key, byte[] value) {
+                System.out.println(MessageFormat.format("Evicted: {0} ({1} bytes)", key, value.length));
+            }
+
+            @Override
+            public void onRejection(String key, byte[] value) {
+                System.out.println(MessageFormat.format("Rejected: {0} ({1} bytes)", key, value.length));
+            }
+        });
+
+        cache.put("small1", new byte[100]);
+        cache.put("medium", new byte[600_000]);
+        cache.put("small2", new byte[100]);
+        cache.get("small1");
+        cache.put("large", new byte[500_000]); // Expected: Evicted: medium (600,000 bytes)
+        cache.put("huge", new byte[5_000_000]); // Expected: Rejected: huge (5,000,000 bytes)
+        System.out.println(cache.getSize()); // Expected: 3
+
+        System.out.println(ObjectSizeEstimator.estimate("key1")); // Expected: 48 on a 64-bit JVM with compressed references
+    }
+
+    /**
+     * Tests that concurrent misses on the same key share a single load.
+     */
+    private static void testLoadingCacheCoalescing() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        CacheLoader<String, Integer> slowLoader = key -> {
+            loads.incrementAndGet();
+            Thread.sleep(100);
+            return key.length();
+        };
+        LoadingCache<String, Integer> cache = new LoadingCache<>((new CacheFactory<String, Integer>()).createCacheInstance(CacheTypeEnum.LRU, 10), slowLoader);
+
+        Thread[] threads = new Thread[100];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> cache.get("hot-key"));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println(MessageFormat.format("Loads for {0} concurrent misses: {1}", threads.length, loads.get())); // Expected: 1
+
+        System.out.println(cache.getAll(List.of("a", "bb", "hot-key"))); // Expected: {hot-key=7, a=1, bb=2}
+        System.out.println(loads.get()); // Expected: 3
+    }
+
+    /**
+     * Starts 20,000 loads of 100 ms each at once. On virtual threads they overlap, so the whole batch
+     * takes about a second instead of being limited by the size of a thread pool.
+     */
+    private static void testAsyncCacheOnVirtualThreads() {
+        CacheLoader<Integer, String> slowLoader = key -> {
+            Thread.sleep(100);
+            return "value" + key;
+        };
+        try (AsyncCache<Integer, String> cache = new AsyncCache<>((new CacheFactory<Integer, String>()).createCacheInstance(CacheTypeEnum.CONCURRENT_LRU, 20_000), slowLoader)) {
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                futures.add(cache.get(i));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            System.out.println(MessageFormat.format("20,000 loads took {0} ms", (System.nanoTime() - start) / 1_000_000)); // Expected: about a second, not the 2,000 seconds of sequential loads
+            System.out.println(cache.get(42).isDone()); // Expected: true, a hit is answered immediately
+        }
+    }
+
+    /**
+     * Compares 200 single gets with one getAll of the same 200 keys on a heap-based LFU cache with 100,000 entries.
+     * Both only sift the hit items in the heap, so a page of lookups costs microseconds instead of the
+     * milliseconds a linear heap scan per hit would take.
+     */
+    private static void testLFUBatchGet() {
+        int capacity = 100_000;
+        ICache<Integer, Integer> cache = new LFUCacheBuilder<Integer, Integer>().setCapacity(capacity).build();
+        for (int i = 0; i < capacity; i++) {
+            cache.put(i, i);
+        }
+        List<Integer> pageKeys = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            pageKeys.add(i * 397 % capacity);
+        }
+        int rounds = 1_000;
+        long singleGets = 0;
+        long batchGets = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (Integer key : pageKeys) {
+                cache.get(key);
+            }
+            singleGets += System.nanoTime() - start;
+            start = System.nanoTime();
+            cache.getAll(pageKeys);
+            batchGets += System.nanoTime() - start;
+        }
+        System.out.println(MessageFormat.format("200 gets: {0} us, getAll: {1} us", singleGets / rounds / 1_000, batchGets / rounds / 1_000));
+    }
+
+    /**
+     * Compares an LRU cache shared behind one lock with a sharded LRU cache of 64 shards, both used by 8 threads.
+     * The difference grows with the number of cores; on a single core both are about equally fast.
+     */
+    private static void testShardedCacheThroughput() throws InterruptedException {
+        int threadCount = 8;
+        int operationsPerThread = 1_000_000;
+        ICache<Integer, Integer> lockedCache = (new CacheFactory<Integer, Integer>()).createCacheInstance(CacheTypeEnum.LRU, 100_000);
+        ICache<Integer, Integer> shardedCache = new ShardedCacheBuilder<Integer, Integer>()
+                .setCacheType(CacheTypeEnum.LRU)
+                .setCapacity(100_000)
+                .setShardCount(64)
+                .build();
+        for (ICache<Integer, Integer> cache : List.of(lockedCache, shardedCache)) {
+            Thread[] threads = new Thread[threadCount];
+            long start = System.nanoTime();
+            for (int t = 0; t < threadCount; t++) {
+                int seed = t;
+                threads[t] = new Thread(() -> {
+                    java.util.Random random = new java.util.Random(seed);
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        Integer key = random.nextInt(200_000);
+                        if (cache == lockedCache) {
+                            synchronized (lockedCache) {
+                                if (cache.get(key) == null) {
+                                    cache.put(key, key);
+                                }
+                            }
+                        } else if (cache.get(key) == null) {
+                            cache.put(key, key);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(MessageFormat.format("{0}: {1} million operations/s", cache.getClass().getSimpleName(),
+                    threadCount * (long) operationsPerThread * 1_000L / elapsed));
+        }
+    }
+
+    /**
+     * Saves an LRU cache to a snapshot and restores it into a new cache, as after a restart.
+     * The restored cache evicts the same entry the saved one would have evicted.
+     */
+    private static void testSnapshotRestore() throws Exception {
+        CacheSnapshot<String, Integer> snapshot = new CacheSnapshot<>(Serializer.string(), Serializer.integer());
+        Path file = Files.createTempFile("cache", ".snapshot");
+        ICache<String, Integer> cache = (new CacheFactory<String, Integer>()).createCacheInstance(CacheTypeEnum.LRU, 3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        System.out.println(MessageFormat.format("Saved {0} entries", snapshot.save(cache, file)));
+
+        RestoringCache<String, Integer> restoredCache = snapshot.restore(
+                (new CacheFactory<String, Integer>()).createCacheInstance(CacheTypeEnum.LRU, 3), file);
+        System.out.println(MessageFormat.format("Restored {0} entries", restoredCache.restored().get()));
+        restoredCache.put("d", 4);
+        System.out.println("b evicted: " + !restoredCache.containsKey("b"));
+        System.out.println("a kept: " + restoredCache.containsKey("a"));
+        Files.delete(file);
+    }
+
+    /**
+     * Writes 10,000 updates of 1,000 keys to a file-backed store, once through and once behind the cache.
+     * Write-behind coalesces the updates per key and writes them in batches, so the store sees far fewer writes.
+     */
+    private static void testWriteBehindCache() throws Exception {
+        Path file = Files.createTempFile("cache", ".log");
+        try (FileCacheStore<Integer, Integer> store = new FileCacheStore<>(file, Serializer.integer(), Serializer.integer())) {
+            ICache<Integer, Integer> writeThroughCache = new WriteThroughCache<>(
+                    (new CacheFactory<Integer, Integer>()).createCacheInstance(CacheTypeEnum.LRU, 1_000), store);
+            long start = System.nanoTime();
+            for (int i = 0; i < 10_000; i++) {
+                writeThroughCache.put(i % 1_000, i);
+            }
+            System.out.println(MessageFormat.format("Write-through: {0} store writes, {1} ms",
+                    store.getWriteCount(), (System.nanoTime() - start) / 1_000_000));
+
+            long writesBefore = store.getWriteCount();
+            start = System.nanoTime();
+            try (WriteBehindCache<Integer, Integer> writeBehindCache = new WriteBehindCacheBuilder<Integer, Integer>()
+                    .setCacheType(CacheTypeEnum.LRU)
+                    .setCapacity(1_000)
+                    .setWriter(store)
+                    .setBatchSize(500)
+                    .setFlushInterval(Duration.ofMillis(100))
+                    .build()) {
+                for (int i = 0; i < 10_000; i++) {
+                    writeBehindCache.put(i % 1_000, i);
+                }
+                System.out.println(MessageFormat.format("Write-behind: puts took {0} ms", (System.nanoTime() - start) / 1_000_000));
+            }
+            System.out.println(MessageFormat.format("Write-behind: {0} store writes, last value of key 999: {1}",
+                    store.getWriteCount() - writesBefore, store.load(999)));
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Scans a 2M-entry concurrent cache with a parallel stream while a writer thread keeps updating it, then
+     * invalidates every key matching a predicate. The scan does not block the writer, and every entry that was
+     * not touched by the writer is seen exactly once.
+     */
+    private static void testParallelEntryScan() throws InterruptedException {
+        int entries = 2_000_000;
+        ICache<Integer, Integer> cache = (new CacheFactory<Integer,Integer>()).createCacheInstance(CacheTypeEnum.CONCURRENT_LRU, entries * 2);
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, i % 100);
+        }
+        AtomicInteger writes = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                int key = entries + writes.getAndIncrement() % entries;
+                cache.put(key, 0);
+            }
+        });
+        writer.start();
+        long start = System.nanoTime();
+        long sum = cache.entryStream(true).filter(entry -> entry.getKey() < entries).mapToLong(entry -> entry.getValue()).sum();
+        System.out.println(MessageFormat.format("sum {0} in {1} ms while {2} writes happened",
+                sum, (System.nanoTime() - start) / 1_000_000, writes.get())); // Expected sum: 99000000
+        writer.interrupt();
+        writer.join();
+
+        List<Integer> stale = cache.keyStream(true).filter(key -> key < entries && key % 10 == 0).toList();
+        cache.removeAll(stale);
+        System.out.println(cache.containsKey(10)); // Expected: false
+        System.out.println(cache.containsKey(11)); // Expected: true
+    }
+
+    /**
+     * Tags entries by tenant and invalidates one tenant with a single call. Evicted entries leave the tag index
+     * on their own, and removeIf drops entries by key prefix with one pass over the cache.
+     */
+    private static void testTagInvalidation() {
+        TaggedCache<String, Integer> cache = new TaggedCache<>((new CacheFactory<String,Integer>()).createCacheInstance(CacheTypeEnum.LRU, 100_000));
+        for (int i = 0; i < 90_000; i++) {
+            String tenant = "tenant" + (i % 3);
+            cache.put(tenant + ":item" + i, i, tenant, "product" + (i % 10));
+        }
+        long start = System.nanoTime();
+        int removed = cache.invalidateTag("tenant1");
+        System.out.println(MessageFormat.format("invalidated {0} entries in {1} ms", removed, (System.nanoTime() - start) / 1_000_000)); // Expected: 30,000 entries
+        System.out.println(cache.containsKey("tenant1:item1")); // Expected: false
+        System.out.println(cache.getTags("tenant0:item0")); // Expected: [tenant0, product0]
+
+        System.out.println(cache.removeIf((key, value) -> key.startsWith("tenant2:"))); // Expected: 30000
+        System.out.println(cache.getSize()); // Expected: 30000
+    }
+
+    /**
+     * Tags entries of an expiring cache whose cleanup thread drops them in the background while tags are put and
+     * invalidated. The index is updated from the caller's thread, so once every entry has expired no tag is left.
+     */
+    private static void testTagInvalidationWithExpiration() throws InterruptedException {
+        TaggedCache<Integer, Integer> cache = new TaggedCache<>(new ExpiringCacheBuilder<Integer, Integer>()
+                .setCacheType(CacheTypeEnum.LRU)
+                .setCapacity(1_000)
+                .setExpireAfterWrite(Duration.ofMillis(1))
+                .setCleanupInterval(Duration.ofMillis(1))
+                .build());
+        int removed = 0;
+        for (int i = 0; i < 200_000; i++) {
+            cache.put(i % 5_000, i, "tenant" + (i % 7), "product" + (i % 11));
+            if (i % 100 == 0) {
+                removed += cache.invalidateTag("tenant" + (i % 7));
+            }
+        }
+        System.out.println(MessageFormat.format("invalidated {0} entries while expiring", removed));
+        Thread.sleep(100);
+        System.out.println(cache.getSize()); // Expected: 0
+        System.out.println(cache.getTagCount()); // Expected: 0
+    }
+
+    /**
+     * Connects three near caches through a socket hub on the loopback interface. An invalidation on one node
+     * reaches the others within the flush interval, and versions keep a late load from storing an old value.
+     */
+    private static void testNearCacheInvalidation() throws Exception {
+        try (SocketInvalidationHub hub = new SocketInvalidationHub(0)) {
+            List<NearCache<String, String>> nodes = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                nodes.add(new NearCacheBuilder<String, String>()
+                        .setCapacity(1_000)
+                        .setTransport(new SocketInvalidationTransport<>(hub.getAddress(), Serializer.string()))
+                        .setFlushInterval(Duration.ofMillis(5))
+                        .build());
+            }
+            for (NearCache<String, String> node : nodes) {
+                node.put("price:42", "9.99", 1);
+            }
+            // node 0 writes version 2 to the source of truth and invalidates the other copies
+            nodes.get(0).invalidate("price:42", 2);
+            Thread.sleep(100);
+            System.out.println(nodes.get(1).get("price:42")); // Expected: null
+            System.out.println(nodes.get(2).put("price:42", "9.99", 1)); // Expected: false, a late load of version 1
+            System.out.println(nodes.get(2).put("price:42", "8.49", 2)); // Expected: true
+            for (NearCache<String, String> node : nodes) {
+                node.close();
+            }
+        }
+    }
+
+    /**
+     * Stores JSON documents as deflated UTF-8 bytes with a small front buffer for the hot documents, and compares
+     * the retained heap with a cache holding the strings themselves.
+     */
+    private static void testCompactValueStorage() {
+        ICache<String, String> plainCache = (new CacheFactory<String,String>()).createCacheInstance(CacheTypeEnum.LRU, 10_000);
+        SerializingCache<String, String> compactCache = new SerializingCacheBuilder<String, String>()
+                .setCapacity(10_000)
+                .setSerializer(Serializer.string())
+                .setCompressionThreshold(256)
+                .setFrontBufferCapacity(100)
+                .build();
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder json = new StringBuilder("{\"id\":" + i + ",\"items\":[");
+            for (int j = 0; j < 20; j++) {
+                json.append(j == 0 ? "" : ",").append("{\"sku\":\"SKU-").append(i % 97 + j)
+                        .append("\",\"quantity\":").append(j % 5 + 1).append(",\"status\":\"SHIPPED\"}");
+            }
+            String document = json.append("]}").toString();
+            plainCache.put("order" + i, document);
+            compactCache.put("order" + i, document);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            compactCache.get("order" + (i % 50));
+        }
+        System.out.println(MessageFormat.format("plain: {0} bytes, compact: {1} bytes",
+                ObjectSizeEstimator.estimate(plainCache), ObjectSizeEstimator.estimate(compactCache))); // Expected: several times smaller
+        System.out.println(compactCache.stats()); // Expected: 99,950 front hits and 50 decodes
+    }
+
+    /**
+     * Starts four cache servers on the loopback interface, spreads 100,000 entries over three of them and lets
+     * the fourth join and another leave; each change only moves the entries whose owner changed.
+     */
+    private static void testCacheCluster() throws Exception {
+        List<CacheServer> servers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            servers.add(new CacheServer(CacheTypeEnum.LRU, 100_000, 0));
+        }
+        try (CacheCluster<Integer, String> cluster = new CacheClusterBuilder<Integer, String>()
+                .setKeySerializer(Serializer.integer())
+                .setValueSerializer(Serializer.string())
+                .addNode(servers.get(0).getAddress())
+                .addNode(servers.get(1).getAddress())
+                .addNode(servers.get(2).getAddress())
+                .build()) {
+            java.util.Map<Integer, String> entries = new java.util.HashMap<>();
+            for (int i = 0; i < 100_000; i++) {
+                entries.put(i, "value-" + i);
+            }
+            cluster.putAll(entries);
+            System.out.println(cluster.getNodeNames() + " hold " + cluster.getSize() + " entries"); // Expected: 100000 entries
+            System.out.println(cluster.addNode(servers.get(3).getAddress())); // Expected: about 25,000 moved
+            System.out.println(cluster.removeNode(servers.get(0).getAddress())); // Expected: about 25,000 moved
+            System.out.println(cluster.get(42)); // Expected: value-42
+            System.out.println(cluster.getAll(List.of(1, 2, 3)).size()); // Expected: 3
+        } finally {
+            for (CacheServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * Runs a skewed workload whose working set is ten times the on-heap L1 against a tiered cache with an
+     * off-heap L2, and prints the hit rate and hit time of each tier.
+     */
+    private static void testTieredCache() throws Exception {
+        try (TieredCache<Integer, String> cache = new TieredCacheBuilder<Integer, String>()
+                .setL1CacheType(CacheTypeEnum.LRU)
+                .setL1Capacity(1_000)
+                .setOffHeapL2(10_000, 16L << 20, Serializer.string())
+                .build()) {
+            java.util.Random random = new java.util.Random(42);
+            for (int i = 0; i < 1_000_000; i++) {
+                // squaring a uniform number favours small keys
+                double uniform = random.nextDouble();
+                int key = (int) (uniform * uniform * 10_000);
+                if (cache.get(key) == null) {
+                    cache.put(key, "value-" + key + "-" + "x".repeat(key % 200));
+                }
+            }
+            System.out.println(cache.stats());
+        }
+    }
+
+    /**
+     * Tests the off-heap cache with 16 KB values. The payload lives in MemorySegment slabs, so the heap usage
+     * printed at the end stays small while hundreds of megabytes are cached.
+     */
+    private static void testOffHeapCache() {
+        try (OffHeapCache<Integer> cache = new OffHeapCache<>(20_000, 256L << 20)) {
+            byte[] payload = new byte[16 * 1024];
+            for (int i = 0; i < 50_000; i++) {
+                payload[0] = (byte) i;
+                cache.put(i, payload);
+            }
+            System.out.println(cache.getSize()); // Expected: about 15,000, limited by the 256 MB budget
+            System.out.println(cache.get(49_999)[0] == (byte) 49_999); // Expected: true
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            System.out.println(MessageFormat.format("Heap used: {0} MB, off-heap: {1} MB",
+                    (runtime.totalMemory() - runtime.freeMemory()) >> 20, cache.getOffHeapBytes() >> 20));
+        }
+    }
+
+    /**
+     * Measures the bytes allocated per operation by the long-key caches in steady state, next to the boxed LRUCache.
+     * Every long-key variant should report 0 bytes per operation.
+     */
+    private static void testLongKeyCacheAllocation() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        int capacity = 10_000;
+        int operations = 1_000_000;
+        String[] values = new String[capacity * 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "value" + i;
+        }
+        for (CacheTypeEnum type : new CacheTypeEnum[]{CacheTypeEnum.FIFO, CacheTypeEnum.LRU, CacheTypeEnum.LFU}) {
+            LongKeyCache<String> cache = (new CacheFactory<Long,String>()).createLongKeyCacheInstance(type, capacity);
+            // the first round warms the cache up and lets the JIT compile the hot paths
+            for (int round = 0; round < 2; round++) {
+                long seed = 42;
+                long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < operations; i++) {
+                    seed = seed * 6364136223846793005L + 1442695040888963407L;
+                    int index = (int) ((seed >>> 33) % values.length);
+                    if (cache.get(index) == null) {
+                        cache.put(index, values[index]);
+                    }
+                }
+                long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                if (round == 1) {
+                    System.out.println(MessageFormat.format("LongKey {0}: {1} bytes/op", type, (double) allocated / operations));
+                }
+            }
+        }
+        ICache<Long, String> boxedCache = (new CacheFactory<Long,String>()).createCacheInstance(CacheTypeEnum.LRU, capacity);
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (long i = 0; i < operations; i++) {
+            long key = i % values.length;
+            if (boxedCache.get(key) == null) {
+                boxedCache.put(key, values[(int) key]);
+            }
+        }
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.println(MessageFormat.format("Boxed LRU: {0} bytes/op", (double) allocated / operations));
+    }
+
+    private static void testFIFOMetricsCacheDecorator(){
+        CacheMetricsDecorator<String, Integer> decorator = new CacheMetricsDecorator<String, Integer>((new CacheFactory<String,Integer>()).createCacheInstance(CacheTypeEnum.FIFO, 3));
         decorator.put("key1", 1); // [key1:1, ]
         decorator.put("key2", 2); // [key1:1, key2:2, ]
+        decorator.put("key3", 3); // [key1:1, key2:2, key3:3, ]
+        decorator.put("key4", 4); // evicts key1
+
+        System.out.println(MessageFormat.format("Key: {0}", decorator.get("key2")));
+        decorator.get("key1"); // miss
 
-        System.out.println(MessageFormat.format("Key: {0}", decorator.get("key1")));
+        // Expected: hits=1, misses=1, puts=4, evictions=1 and the latency percentiles of get and put
+        System.out.println(decorator.snapshot());
     }
 
     private static void testLegacyCacheAdapter(){
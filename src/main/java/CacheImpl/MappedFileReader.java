@@ -0,0 +1,75 @@
+package CacheImpl;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file sequentially through a window of memory mapped from it, the counterpart of MappedFileWriter.
+ * Only the window is mapped, and its pages are read from disk when they are first touched.
+ */
+final class MappedFileReader implements Closeable {
+    private static final int WINDOW_SIZE = 8 << 20;
+
+    private final FileChannel channel;
+    private final long length;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedFileReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.length = channel.size();
+        this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW_SIZE, length));
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    int readInt() throws IOException {
+        ensureRemaining(Integer.BYTES);
+        return window.getInt();
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            ensureRemaining(1);
+            byte b = window.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length int.");
+    }
+
+    byte[] readBytes() throws IOException {
+        int size = readVarInt();
+        ensureRemaining(size);
+        byte[] bytes = new byte[size];
+        window.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureRemaining(int size) throws IOException {
+        if (window.remaining() < size) {
+            long position = position();
+            if (size < 0 || position + size > length) {
+                throw new EOFException("Unexpected end of file at " + position + ".");
+            }
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, size), length - position));
+        }
+    }
+}
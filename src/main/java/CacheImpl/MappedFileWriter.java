@@ -0,0 +1,87 @@
+package CacheImpl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file sequentially through a window of memory mapped from it. When a write does not fit into the
+ * window, the next window is mapped from the current position, so the file can grow beyond 2 GB.
+ * Closing the writer cuts the file to the written length.
+ */
+final class MappedFileWriter implements Closeable {
+    private static final int WINDOW_SIZE = 8 << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedFileWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, WINDOW_SIZE);
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        window.putInt(value);
+    }
+
+    /**
+     * Writes a non-negative int in 1 to 5 bytes, 7 bits per byte.
+     */
+    void writeVarInt(int value) throws IOException {
+        ensureRemaining(5);
+        while ((value & ~0x7F) != 0) {
+            window.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        window.put((byte) value);
+    }
+
+    /**
+     * Writes the length of the array followed by its content.
+     */
+    void writeBytes(byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        ensureRemaining(bytes.length);
+        window.put(bytes);
+    }
+
+    /**
+     * Overwrites an int written earlier, e.g. a count that was not known when the header was written.
+     */
+    void writeIntAt(long position, int value) throws IOException {
+        if (position >= windowStart && position + Integer.BYTES <= windowStart + window.position()) {
+            window.putInt((int) (position - windowStart), value);
+        } else {
+            channel.map(FileChannel.MapMode.READ_WRITE, position, Integer.BYTES).putInt(0, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long length = position();
+            window.force();
+            channel.truncate(length);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+        if (window.remaining() < length) {
+            window.force();
+            windowStart = position();
+            window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_SIZE, length));
+        }
+    }
+}
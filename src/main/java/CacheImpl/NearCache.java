@@ -0,0 +1,297 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.InvalidationTransport;
+import Interfaces.InvalidationTransport.Invalidation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Decorator that keeps a process-local copy of shared data consistent with other processes through an
+ * InvalidationTransport. Reads and writes stay local; after changing the source of truth, call invalidate, which
+ * drops the local entry at once and publishes the invalidation to the NearCaches of the other processes.
+ * Outgoing invalidations are coalesced per key, keeping the highest version, and published in batches by a
+ * daemon thread as soon as batchSize keys are pending or the oldest one has waited for the flush interval, so
+ * other processes serve a stale entry for at most the flush interval plus the transport delay.
+ * Entries can carry a version, e.g. the row version of the source. An invalidation only drops entries older
+ * than its version, so a late invalidation cannot remove a newer value, and the versions of recent
+ * invalidations are kept as tombstones, so a load that started before an invalidation cannot store its older
+ * value afterwards. Entries put without a version are dropped by every invalidation.
+ * Use NearCacheBuilder to create instances, and close the cache to publish the remaining invalidations.
+ */
+public class NearCache<K,V> extends CacheDecorator<K,V> implements AutoCloseable {
+    // version of an invalidation that drops the entry whatever its version
+    private static final long ANY_VERSION = Long.MAX_VALUE;
+
+    private final InvalidationTransport<K> transport;
+    // versions of the cached entries that were put with one; guarded by this
+    private final Map<K, Long> versions = new HashMap<>();
+    // highest version of the recent invalidations per key, oldest first; guarded by this
+    private final LinkedHashMap<K, Long> tombstones;
+    // highest version of the pending invalidations per key
+    private final BatchingFlusher<K, Long, IOException> publisher;
+    private long receivedCount;
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    NearCache(ICache<K,V> cache, InvalidationTransport<K> transport, int batchSize, long flushIntervalNanos, int maxTombstones) {
+        super(cache);
+        if (batchSize <= 0 || maxTombstones < 0 || flushIntervalNanos < 0) {
+            throw new IllegalArgumentException("Batch size must be positive, the flush interval and tombstone count must not be negative.");
+        }
+        this.transport = transport;
+        this.tombstones = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                return size() > maxTombstones;
+            }
+        };
+        super.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onMiss(K key) {
+                listener.onMiss(key);
+            }
+
+            @Override
+            public void onEviction(K key, V value) {
+                versions.remove(key);
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onExpiration(K key, V value) {
+                versions.remove(key);
+                listener.onExpiration(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                versions.remove(key);
+                listener.onRejection(key, value);
+            }
+        });
+        transport.subscribe(this::applyRemote);
+        this.publisher = new BatchingFlusher<>(new ReentrantLock(), "cache-invalidation-publisher", batchSize,
+                flushIntervalNanos, Integer.MAX_VALUE, Math::max, batch -> publishBatch(transport, batch));
+    }
+
+    /**
+     * Stores the value with the version it has in the source of truth. The put is ignored when the cached entry
+     * or a recent invalidation of the key has a newer version.
+     *
+     * @return Whether the value was stored.
+     */
+    public synchronized boolean put(K key, V value, long version) {
+        Long invalidatedVersion = tombstones.get(key);
+        if (invalidatedVersion != null && version < invalidatedVersion) {
+            return false;
+        }
+        Long cachedVersion = versions.get(key);
+        if (cachedVersion != null && version < cachedVersion && super.containsKey(key)) {
+            return false;
+        }
+        versions.put(key, version);
+        super.put(key, value);
+        return true;
+    }
+
+    /**
+     * Stores the value without a version; every invalidation of the key drops it.
+     */
+    @Override
+    public synchronized void put(K key, V value) {
+        versions.remove(key);
+        super.put(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        for (K key : entries.keySet()) {
+            versions.remove(key);
+        }
+        super.putAll(entries);
+    }
+
+    /**
+     * Drops the entry whatever its version, here and in the other processes.
+     */
+    public void invalidate(K key) {
+        invalidate(key, ANY_VERSION);
+    }
+
+    /**
+     * Drops the entry if it is older than the version, here and in the other processes, e.g. after the source
+     * of truth was changed to that version. The local entry is dropped before the method returns, the other
+     * processes drop theirs once the invalidation is published.
+     */
+    public void invalidate(K key, long version) {
+        synchronized (this) {
+            applyInvalidation(key, version);
+        }
+        publisher.enqueue(key, version);
+    }
+
+    /**
+     * Publishes all pending invalidations on the caller's thread.
+     *
+     * @throws IOException the failure of the transport; the failed batch stays pending.
+     */
+    public void flush() throws IOException {
+        publisher.flush();
+    }
+
+    /**
+     * @return The number of keys whose invalidation has not been published yet.
+     */
+    public int getPendingInvalidationCount() {
+        return publisher.getPendingCount();
+    }
+
+    /**
+     * @return The number of invalidations published to other processes.
+     */
+    public long getPublishedCount() {
+        return publisher.getFlushedCount();
+    }
+
+    /**
+     * @return The number of invalidations received from other processes.
+     */
+    public synchronized long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * @return The last exception thrown by the transport, or null if publishing never failed.
+     */
+    public Exception getLastPublishFailure() {
+        return publisher.getLastFailure();
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = super.get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized Map<K,V> getAll(Iterable<? extends K> keys) {
+        return super.getAll(keys);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        versions.remove(key);
+        super.remove(key);
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        List<K> removedKeys = new ArrayList<>();
+        for (K key : keys) {
+            versions.remove(key);
+            removedKeys.add(key);
+        }
+        super.removeAll(removedKeys);
+    }
+
+    @Override
+    public synchronized void clear() {
+        versions.clear();
+        super.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return super.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return super.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        return super.spliterator();
+    }
+
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return super.entrySpliterator();
+    }
+
+    /**
+     * Publishes the pending invalidations and closes the transport.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!publisher.stop()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            transport.close();
+        }
+    }
+
+    /**
+     * Applies a batch received from another process under a single lock.
+     */
+    private synchronized void applyRemote(List<Invalidation<K>> invalidations) {
+        for (Invalidation<K> invalidation : invalidations) {
+            applyInvalidation(invalidation.getKey(), invalidation.getVersion());
+        }
+        receivedCount += invalidations.size();
+    }
+
+    /**
+     * Records the tombstone and drops the entry unless it is at least as new as the invalidation.
+     */
+    private void applyInvalidation(K key, long version) {
+        if (version != ANY_VERSION) {
+            tombstones.merge(key, version, Math::max);
+        }
+        Long cachedVersion = versions.get(key);
+        if (cachedVersion == null || cachedVersion < version) {
+            versions.remove(key);
+            super.remove(key);
+        }
+    }
+
+    /**
+     * Publishes one batch of coalesced invalidations.
+     */
+    private static <K> void publishBatch(InvalidationTransport<K> transport, Map<K, Long> batch) throws IOException {
+        List<Invalidation<K>> invalidations = new ArrayList<>(batch.size());
+        for (Map.Entry<K, Long> pending : batch.entrySet()) {
+            invalidations.add(new Invalidation<>(pending.getKey(), pending.getValue()));
+        }
+        transport.publish(invalidations);
+    }
+}
@@ -0,0 +1,82 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+import Interfaces.InvalidationTransport;
+
+import java.time.Duration;
+
+/**
+ * Builder class for constructing NearCache objects on top of any cache engine.
+ */
+public class NearCacheBuilder<K,V> {
+    private CacheTypeEnum cacheType = CacheTypeEnum.LRU;
+    private int capacity = 10;
+    private InvalidationTransport<K> transport;
+    private int batchSize = 256;
+    private Duration flushInterval = Duration.ofMillis(10);
+    private int maxTombstones = 10_000;
+
+    /**
+     * Constructs a new NearCacheBuilder.
+     */
+    public NearCacheBuilder() {
+    }
+
+    public NearCacheBuilder<K,V> setCacheType(CacheTypeEnum cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    public NearCacheBuilder<K,V> setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Sets the transport connecting this cache to the other processes; required. It is closed with the cache.
+     */
+    public NearCacheBuilder<K,V> setTransport(InvalidationTransport<K> transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of invalidations published at once. Defaults to 256.
+     */
+    public NearCacheBuilder<K,V> setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets how long an invalidation may wait for its batch to fill up, which bounds how long other processes
+     * serve the stale entry, and how long a failed batch waits before it is retried. Defaults to 10 ms.
+     */
+    public NearCacheBuilder<K,V> setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+        return this;
+    }
+
+    /**
+     * Sets how many invalidated versions are remembered to reject late puts of older versions. Defaults to 10,000.
+     */
+    public NearCacheBuilder<K,V> setMaxTombstones(int maxTombstones) {
+        this.maxTombstones = maxTombstones;
+        return this;
+    }
+
+    /**
+     * Builds and returns the configured near cache instance and starts its publisher thread.
+     *
+     * @return NearCache wrapping an engine created by CacheFactory.
+     * @throws IllegalStateException if no transport was set.
+     */
+    public NearCache<K,V> build() {
+        if (transport == null) {
+            throw new IllegalStateException("An InvalidationTransport is required.");
+        }
+        CacheFactory<K,V> cacheFactory = new CacheFactory<>();
+        return new NearCache<>(cacheFactory.createCacheInstance(cacheType, capacity),
+                transport, batchSize, flushInterval.toNanos(), maxTombstones);
+    }
+}
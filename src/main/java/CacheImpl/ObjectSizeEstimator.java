@@ -0,0 +1,182 @@
+package CacheImpl;
+
+import Interfaces.Weigher;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approximates the memory retained by an object graph, for use as a Weigher of weighted caches.
+ * The estimate assumes a 64-bit JVM with compressed references: 12-byte object headers, 16-byte array headers,
+ * 4-byte references and 8-byte alignment. Fields are followed by reflection where the module system allows it;
+ * collections, maps and strings of the JDK are measured through their public API instead. Enums and classes are
+ * shared and therefore count as zero. The walk visits the whole graph, so prefer a dedicated weigher when the
+ * size of the values is known, e.g. the length of a byte array.
+ */
+public final class ObjectSizeEstimator {
+    private static final int OBJECT_HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int ALIGNMENT = 8;
+    // approximate size of a HashMap node or LinkedList node holding one element
+    private static final int COLLECTION_NODE_SIZE = 32;
+
+    private static final ClassValue<ClassLayout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return ClassLayout.of(type);
+        }
+    };
+
+    private ObjectSizeEstimator() {
+    }
+
+    /**
+     * @return A weigher returning the estimated size of key and value in bytes, capped at Integer.MAX_VALUE.
+     */
+    public static <K,V> Weigher<K,V> weigher() {
+        return (key, value) -> (int) Math.min(Integer.MAX_VALUE, estimate(key) + estimate(value));
+    }
+
+    /**
+     * Estimates the number of bytes retained by the object and everything reachable from it.
+     * Objects reachable through several paths are counted once.
+     *
+     * @param object The root of the graph; null counts as zero.
+     * @return The estimated size in bytes.
+     */
+    public static long estimate(Object object) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        long size = 0;
+        push(object, visited, pending);
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            Class<?> type = current.getClass();
+            if (type.isArray()) {
+                size += arraySize(current, visited, pending);
+            } else if (current instanceof String string) {
+                size += LAYOUTS.get(String.class).shallowSize + align(ARRAY_HEADER_SIZE + stringBytes(string));
+            } else if (current instanceof Collection<?> collection && isJdkClass(type)) {
+                size += LAYOUTS.get(type).shallowSize + align(ARRAY_HEADER_SIZE + (long) collection.size() * REFERENCE_SIZE)
+                        + (long) collection.size() * COLLECTION_NODE_SIZE;
+                for (Object element : collection) {
+                    push(element, visited, pending);
+                }
+            } else if (current instanceof Map<?,?> map && isJdkClass(type)) {
+                size += LAYOUTS.get(type).shallowSize + align(ARRAY_HEADER_SIZE + (long) map.size() * 2 * REFERENCE_SIZE)
+                        + (long) map.size() * COLLECTION_NODE_SIZE;
+                for (Map.Entry<?,?> entry : map.entrySet()) {
+                    push(entry.getKey(), visited, pending);
+                    push(entry.getValue(), visited, pending);
+                }
+            } else {
+                ClassLayout layout = LAYOUTS.get(type);
+                size += layout.shallowSize;
+                for (Field field : layout.referenceFields) {
+                    try {
+                        push(field.get(current), visited, pending);
+                    } catch (IllegalAccessException e) {
+                        // cannot happen, the layout only keeps fields that were made accessible
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private static void push(Object object, Set<Object> visited, ArrayDeque<Object> pending) {
+        if (object != null && !(object instanceof Enum<?>) && !(object instanceof Class<?>) && visited.add(object)) {
+            pending.push(object);
+        }
+    }
+
+    private static long arraySize(Object array, Set<Object> visited, ArrayDeque<Object> pending) {
+        Class<?> componentType = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER_SIZE + (long) length * primitiveSize(componentType));
+        }
+        Object[] elements = (Object[]) array;
+        for (Object element : elements) {
+            push(element, visited, pending);
+        }
+        return align(ARRAY_HEADER_SIZE + (long) length * REFERENCE_SIZE);
+    }
+
+    /**
+     * Strings are stored with one byte per character when all characters are Latin-1, otherwise with two.
+     */
+    private static long stringBytes(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return 2L * string.length();
+            }
+        }
+        return string.length();
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        return type.getModule().isNamed() && type.getModule().getName().startsWith("java.");
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Shallow size of a class and the reference fields the estimator can follow.
+     */
+    private static final class ClassLayout {
+        private final long shallowSize;
+        private final List<Field> referenceFields;
+
+        private ClassLayout(long shallowSize, List<Field> referenceFields) {
+            this.shallowSize = shallowSize;
+            this.referenceFields = referenceFields;
+        }
+
+        private static ClassLayout of(Class<?> type) {
+            long fieldsSize = 0;
+            List<Field> referenceFields = new ArrayList<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        fieldsSize += primitiveSize(field.getType());
+                    } else {
+                        fieldsSize += REFERENCE_SIZE;
+                        if (field.trySetAccessible()) {
+                            referenceFields.add(field);
+                        }
+                    }
+                }
+            }
+            return new ClassLayout(align(OBJECT_HEADER_SIZE + fieldsSize), referenceFields);
+        }
+    }
+}
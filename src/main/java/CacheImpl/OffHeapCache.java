@@ -0,0 +1,396 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Cache for byte-array values that keeps the payload outside of the Java heap.
+ * Values are stored as chains of fixed-size blocks carved from MemorySegment slabs of a shared Arena; the
+ * first 4 bytes of every block link to the next block of the chain, and free blocks are chained the same
+ * way, so no heap object is spent per block. The heap only holds the keys and a few primitive arrays sized
+ * by the entry capacity: an open-addressing hash index and the per-entry metadata. Eviction uses the CLOCK
+ * algorithm and runs when either the entry capacity or the memory budget is exhausted.
+ * The cache is not thread-safe; close() releases the off-heap memory.
+ */
+public class OffHeapCache<K> implements ICache<K, byte[]>, AutoCloseable {
+    private static final int DEFAULT_BLOCK_SIZE = 256;
+    private static final long MAX_SLAB_SIZE = 16L << 20;
+    private static final int BLOCK_HEADER_SIZE = Integer.BYTES;
+    private static final int NO_BLOCK = -1;
+
+    private final int capacity;
+    private final int blockSize;
+    private final int blockPayloadSize;
+    private final int blocksPerSlab;
+    private final long totalBlocks;
+    private final Arena arena;
+    private final MemorySegment[] slabs;
+    private int carvedBlocks;
+    private int freeBlockHead = NO_BLOCK;
+    private long freeBlockCount;
+
+    // hash index: entry id + 1 per slot, 0 marks an empty slot
+    private final int[] table;
+    private final int tableMask;
+
+    // per-entry metadata, indexed by entry id
+    private final K[] keys;
+    private final int[] hashes;
+    private final int[] firstBlocks;
+    private final int[] valueLengths;
+    private final boolean[] referenced;
+    private final int[] freeEntries;
+    private int freeEntryCount;
+    private int size;
+    private int clockHand;
+
+    private ICacheListener<K, byte[]> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs an OffHeapCache with 256-byte blocks.
+     *
+     * @param capacity       The maximum number of items the cache can hold.
+     * @param maxMemoryBytes The maximum number of off-heap bytes used for values, including block headers.
+     */
+    public OffHeapCache(int capacity, long maxMemoryBytes) {
+        this(capacity, maxMemoryBytes, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs an OffHeapCache. Slabs are allocated lazily, so memory is only reserved when it is used.
+     *
+     * @param capacity       The maximum number of items the cache can hold.
+     * @param maxMemoryBytes The maximum number of off-heap bytes used for values, including block headers.
+     * @param blockSize      The allocation unit in bytes, a multiple of 8; each value wastes less than one block.
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapCache(int capacity, long maxMemoryBytes, int blockSize) {
+        if (capacity <= 0 || blockSize <= BLOCK_HEADER_SIZE || blockSize % Long.BYTES != 0 || maxMemoryBytes < blockSize) {
+            throw new IllegalArgumentException("Capacity and memory must be positive and the block size a multiple of 8 bytes.");
+        }
+        this.capacity = capacity;
+        this.blockSize = blockSize;
+        this.blockPayloadSize = blockSize - BLOCK_HEADER_SIZE;
+        this.totalBlocks = Math.min(Integer.MAX_VALUE, maxMemoryBytes / blockSize);
+        this.blocksPerSlab = (int) Math.min(totalBlocks, MAX_SLAB_SIZE / blockSize);
+        this.slabs = new MemorySegment[(int) ((totalBlocks + blocksPerSlab - 1) / blocksPerSlab)];
+        this.arena = Arena.ofShared();
+
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        this.keys = (K[]) new Object[capacity];
+        this.hashes = new int[capacity];
+        this.firstBlocks = new int[capacity];
+        this.valueLengths = new int[capacity];
+        this.referenced = new boolean[capacity];
+        this.freeEntries = new int[capacity];
+        resetEntries();
+    }
+
+    @Override
+    public void put(K key, byte[] value) {
+        int blocksNeeded = blocksFor(value.length);
+        if (blocksNeeded > totalBlocks) {
+            listener.onRejection(key, value);
+            return;
+        }
+        int hash = spread(key.hashCode());
+        int entry = findEntry(key, hash);
+        if (entry >= 0) {
+            freeChain(firstBlocks[entry]);
+            firstBlocks[entry] = NO_BLOCK;
+            valueLengths[entry] = 0;
+            referenced[entry] = true;
+            // keep the entry out of the clock while its old blocks are reused for the new value
+            ensureFreeBlocks(blocksNeeded, entry);
+        } else {
+            if (size == capacity) {
+                evictOne(-1);
+            }
+            ensureFreeBlocks(blocksNeeded, -1);
+            entry = freeEntries[--freeEntryCount];
+            keys[entry] = key;
+            hashes[entry] = hash;
+            referenced[entry] = false;
+            insertIntoTable(entry, hash);
+            size++;
+        }
+        firstBlocks[entry] = writeChain(value, blocksNeeded);
+        valueLengths[entry] = value.length;
+    }
+
+    @Override
+    public byte[] get(K key) {
+        int entry = findEntry(key, spread(key.hashCode()));
+        if (entry < 0) {
+            listener.onMiss(key);
+            return null;
+        }
+        referenced[entry] = true;
+        return readChain(firstBlocks[entry], valueLengths[entry]);
+    }
+
+    @Override
+    public void remove(K key) {
+        int entry = findEntry(key, spread(key.hashCode()));
+        if (entry >= 0) {
+            removeEntry(entry);
+        }
+    }
+
+    @Override
+    public void clear() {
+        resetEntries();
+        Arrays.fill(table, 0);
+        carvedBlocks = 0;
+        freeBlockHead = NO_BLOCK;
+        freeBlockCount = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findEntry(key, spread(key.hashCode())) >= 0;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K, byte[]> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The number of off-heap bytes currently reserved by slabs.
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (MemorySegment slab : slabs) {
+            if (slab != null) {
+                bytes += slab.byteSize();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Releases all off-heap memory. The cache must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Traverses the live entry slots without copying them. Entries never move between slots, so an entry that
+     * stays cached is returned exactly once even if the cache is changed in the meantime.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.slots(0, capacity, entry -> keys[entry]);
+    }
+
+    /**
+     * Like spliterator, but copies each value to the heap when its entry is reached.
+     */
+    @Override
+    public Spliterator<Map.Entry<K, byte[]>> entrySpliterator() {
+        return CacheSpliterators.slots(0, capacity, entry -> {
+            K key = keys[entry];
+            return key == null ? null : Map.entry(key, readChain(firstBlocks[entry], valueLengths[entry]));
+        });
+    }
+
+    private void resetEntries() {
+        Arrays.fill(keys, null);
+        for (int i = 0; i < capacity; i++) {
+            freeEntries[i] = capacity - 1 - i;
+        }
+        freeEntryCount = capacity;
+        size = 0;
+        clockHand = 0;
+    }
+
+    private int findEntry(K key, int hash) {
+        for (int slot = hash & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = table[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (hashes[entry] == hash && keys[entry].equals(key)) {
+                return entry;
+            }
+        }
+    }
+
+    private void insertIntoTable(int entry, int hash) {
+        int slot = hash & tableMask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Deletes the slot of the entry and shifts the following slots of its probe run back,
+     * so lookups never need tombstones.
+     */
+    private void removeFromTable(int entry) {
+        int slot = hashes[entry] & tableMask;
+        while (table[slot] != entry + 1) {
+            slot = (slot + 1) & tableMask;
+        }
+        int next = (slot + 1) & tableMask;
+        while (table[next] != 0) {
+            int home = hashes[table[next] - 1] & tableMask;
+            // move the entry back unless its home slot lies cyclically in (slot, next]
+            if (((next - home) & tableMask) >= ((next - slot) & tableMask)) {
+                table[slot] = table[next];
+                slot = next;
+            }
+            next = (next + 1) & tableMask;
+        }
+        table[slot] = 0;
+    }
+
+    private void removeEntry(int entry) {
+        removeFromTable(entry);
+        freeChain(firstBlocks[entry]);
+        keys[entry] = null;
+        firstBlocks[entry] = NO_BLOCK;
+        freeEntries[freeEntryCount++] = entry;
+        size--;
+    }
+
+    /**
+     * Evicts the first entry the clock hand finds without its referenced bit, clearing the bits it passes.
+     *
+     * @param protectedEntry An entry that must not be chosen, or -1.
+     * @return false when there was nothing left to evict.
+     */
+    private boolean evictOne(int protectedEntry) {
+        if (size == 0 || (size == 1 && protectedEntry >= 0)) {
+            return false;
+        }
+        while (true) {
+            int entry = clockHand;
+            clockHand = clockHand + 1 == capacity ? 0 : clockHand + 1;
+            if (keys[entry] == null || entry == protectedEntry) {
+                continue;
+            }
+            if (referenced[entry]) {
+                referenced[entry] = false;
+                continue;
+            }
+            K key = keys[entry];
+            byte[] value = listener == ICacheListener.<K, byte[]>noOp() ? null : readChain(firstBlocks[entry], valueLengths[entry]);
+            removeEntry(entry);
+            listener.onEviction(key, value);
+            return true;
+        }
+    }
+
+    private void ensureFreeBlocks(int blocksNeeded, int protectedEntry) {
+        while (freeBlockCount + (totalBlocks - carvedBlocks) < blocksNeeded && evictOne(protectedEntry)) {
+            // evict until the value fits into the memory budget
+        }
+    }
+
+    private int blocksFor(int length) {
+        return (length + blockPayloadSize - 1) / blockPayloadSize;
+    }
+
+    private int allocateBlock() {
+        if (freeBlockHead != NO_BLOCK) {
+            int block = freeBlockHead;
+            freeBlockHead = slabOf(block).get(ValueLayout.JAVA_INT, offsetOf(block));
+            freeBlockCount--;
+            return block;
+        }
+        int block = carvedBlocks++;
+        int slabIndex = block / blocksPerSlab;
+        if (slabs[slabIndex] == null) {
+            // the last slab only gets the blocks left in the memory budget
+            long slabBlocks = Math.min(blocksPerSlab, totalBlocks - (long) slabIndex * blocksPerSlab);
+            slabs[slabIndex] = arena.allocate(slabBlocks * blockSize, Long.BYTES);
+        }
+        return block;
+    }
+
+    private void freeChain(int block) {
+        while (block != NO_BLOCK) {
+            MemorySegment slab = slabOf(block);
+            long offset = offsetOf(block);
+            int next = slab.get(ValueLayout.JAVA_INT, offset);
+            slab.set(ValueLayout.JAVA_INT, offset, freeBlockHead);
+            freeBlockHead = block;
+            freeBlockCount++;
+            block = next;
+        }
+    }
+
+    private int writeChain(byte[] value, int blockCount) {
+        int first = NO_BLOCK;
+        int previous = NO_BLOCK;
+        int position = 0;
+        for (int i = 0; i < blockCount; i++) {
+            int block = allocateBlock();
+            MemorySegment slab = slabOf(block);
+            long offset = offsetOf(block);
+            int length = Math.min(blockPayloadSize, value.length - position);
+            MemorySegment.copy(value, position, slab, ValueLayout.JAVA_BYTE, offset + BLOCK_HEADER_SIZE, length);
+            slab.set(ValueLayout.JAVA_INT, offset, NO_BLOCK);
+            if (previous == NO_BLOCK) {
+                first = block;
+            } else {
+                slabOf(previous).set(ValueLayout.JAVA_INT, offsetOf(previous), block);
+            }
+            previous = block;
+            position += length;
+        }
+        return first;
+    }
+
+    private byte[] readChain(int block, int valueLength) {
+        byte[] value = new byte[valueLength];
+        int position = 0;
+        while (block != NO_BLOCK) {
+            MemorySegment slab = slabOf(block);
+            long offset = offsetOf(block);
+            int length = Math.min(blockPayloadSize, valueLength - position);
+            MemorySegment.copy(slab, ValueLayout.JAVA_BYTE, offset + BLOCK_HEADER_SIZE, value, position, length);
+            position += length;
+            block = slab.get(ValueLayout.JAVA_INT, offset);
+        }
+        return value;
+    }
+
+    private MemorySegment slabOf(int block) {
+        return slabs[block / blocksPerSlab];
+    }
+
+    private long offsetOf(int block) {
+        return (long) (block % blocksPerSlab) * blockSize;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,22 @@
+package CacheImpl;
+
+/**
+ * Entry of the list-based eviction policies (FIFO, SIEVE, 2Q, ARC), linked into exactly one PolicyNodeList.
+ * Ghost entries of 2Q and ARC keep only the key; their value is null.
+ */
+final class PolicyNode<K,V> {
+    final K key;
+    V value;
+    // the list the node is in, as defined by the owning cache
+    int queue;
+    // set on a hit, cleared by the SIEVE hand
+    boolean visited;
+    PolicyNode<K,V> prev;
+    PolicyNode<K,V> next;
+
+    PolicyNode(K key, V value, int queue) {
+        this.key = key;
+        this.value = value;
+        this.queue = queue;
+    }
+}
@@ -0,0 +1,81 @@
+package CacheImpl;
+
+/**
+ * Intrusive doubly linked list of PolicyNodes, from the oldest or least recently used node at the head to the
+ * newest or most recently used one at the tail. All operations are O(1).
+ */
+final class PolicyNodeList<K,V> {
+    PolicyNode<K,V> head;
+    PolicyNode<K,V> tail;
+    int size;
+
+    void addLast(PolicyNode<K,V> node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail != null) {
+            tail.next = node;
+        } else {
+            head = node;
+        }
+        tail = node;
+        size++;
+    }
+
+    void remove(PolicyNode<K,V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        size--;
+    }
+
+    PolicyNode<K,V> removeFirst() {
+        PolicyNode<K,V> node = head;
+        remove(node);
+        return node;
+    }
+
+    void moveToLast(PolicyNode<K,V> node) {
+        if (node != tail) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    /**
+     * @return The nodes of the list, oldest first.
+     */
+    static <K,V> PolicyNode<K,V>[] toArray(PolicyNodeList<K,V> list) {
+        return toArray(list, new PolicyNodeList<>());
+    }
+
+    /**
+     * @return The nodes of the first list followed by those of the second list, oldest first.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <K,V> PolicyNode<K,V>[] toArray(PolicyNodeList<K,V> first, PolicyNodeList<K,V> second) {
+        PolicyNode<K,V>[] nodes = new PolicyNode[first.size + second.size];
+        int index = 0;
+        for (PolicyNode<K,V> node = first.head; node != null; node = node.next) {
+            nodes[index++] = node;
+        }
+        for (PolicyNode<K,V> node = second.head; node != null; node = node.next) {
+            nodes[index++] = node;
+        }
+        return nodes;
+    }
+}
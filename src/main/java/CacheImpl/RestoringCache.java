@@ -0,0 +1,187 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Thread-safe view of a cache that CacheSnapshot is restoring in the background.
+ * The cache can be used at once: entries that are already restored are hits, all others are misses as in a cold
+ * cache. A key written or removed by a caller during the restore keeps the caller's state, its entry in the
+ * snapshot is skipped. Clearing the cache stops the restore. All methods synchronize on the view, which also
+ * makes the wrapped engine safe to share between threads after the restore has finished.
+ */
+public class RestoringCache<K,V> extends CacheDecorator<K,V> {
+    private final Snapshotable<K,V> target;
+    private final CompletableFuture<Integer> restored = new CompletableFuture<>();
+    // keys changed by callers while the restore is running; null once it has ended
+    private Set<K> writtenKeys = new HashSet<>();
+    private int restoredCount;
+
+    RestoringCache(ICache<K,V> cache, Snapshotable<K,V> target) {
+        super(cache);
+        this.target = target;
+    }
+
+    /**
+     * @return A future completed with the number of restored entries when the restore has ended, or completed
+     * exceptionally when the snapshot cannot be read.
+     */
+    public CompletableFuture<Integer> restored() {
+        return restored;
+    }
+
+    public synchronized boolean isRestoring() {
+        return writtenKeys != null;
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        recordWrite(key);
+        super.put(key, value);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        recordWrite(key);
+        super.remove(key);
+    }
+
+    /**
+     * Removes all entries and stops a running restore.
+     */
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        completeRestore(null);
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return super.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return super.containsKey(key);
+    }
+
+    /**
+     * Creates the spliterator of the wrapped cache under this cache's lock, so the snapshot of an engine is
+     * taken consistently; traversing it does not block writers.
+     */
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        return super.spliterator();
+    }
+
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return super.entrySpliterator();
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = super.get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized Map<K,V> getAll(Iterable<? extends K> keys) {
+        return super.getAll(keys);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        for (K key : entries.keySet()) {
+            recordWrite(key);
+        }
+        super.putAll(entries);
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        List<K> removedKeys = new ArrayList<>();
+        for (K key : keys) {
+            recordWrite(key);
+            removedKeys.add(key);
+        }
+        super.removeAll(removedKeys);
+    }
+
+    /**
+     * @return The snapshot hooks of the wrapped engine, synchronized on the view.
+     */
+    Snapshotable<K,V> snapshotable() {
+        return new Snapshotable<>() {
+            @Override
+            public void forEachInEvictionOrder(EntryVisitor<K,V> visitor) throws IOException {
+                synchronized (RestoringCache.this) {
+                    target.forEachInEvictionOrder(visitor);
+                }
+            }
+
+            @Override
+            public void restore(K key, V value, int frequency) {
+                synchronized (RestoringCache.this) {
+                    target.restore(key, value, frequency);
+                }
+            }
+        };
+    }
+
+    /**
+     * Restores a batch of entries read from the snapshot, skipping keys that callers have written meanwhile.
+     *
+     * @return false when the restore has been stopped and no further batches are wanted.
+     */
+    synchronized boolean restoreBatch(K[] keys, V[] values, int[] frequencies, int size) {
+        if (writtenKeys == null) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!writtenKeys.contains(keys[i])) {
+                target.restore(keys[i], values[i], frequencies[i]);
+                restoredCount++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ends the restore after the last batch, or after reading the snapshot failed.
+     */
+    synchronized void completeRestore(Throwable failure) {
+        writtenKeys = null;
+        if (failure != null) {
+            restored.completeExceptionally(failure);
+        } else {
+            restored.complete(restoredCount);
+        }
+    }
+
+    private void recordWrite(K key) {
+        if (writtenKeys != null) {
+            writtenKeys.add(key);
+        }
+    }
+}
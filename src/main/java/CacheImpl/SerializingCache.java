@@ -0,0 +1,402 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+import Interfaces.Serializer;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Adapter that stores the values of an ICache<K,V> as byte arrays in a cache of serialized values, e.g. an
+ * OffHeapCache or a heap engine created by CacheFactory. A byte array retains far less heap than the object
+ * graph it was serialized from and is a single object for the garbage collector to trace.
+ * Values are serialized on every write and deserialized on every read; a serializer failing with an IOException
+ * is reported as UncheckedIOException. With a compression threshold, serialized values of at least that many
+ * bytes are deflated when that makes them smaller. With a front buffer, the most recently read values are also
+ * kept deserialized in a small LRU map, so hot entries are decoded once; reads served by it still look the entry
+ * up in the wrapped cache, which keeps its eviction policy and expiration informed, and the returned instance is
+ * shared between callers, so it must not be modified. Encoding and decoding are counted and timed, see stats().
+ * Use SerializingCacheBuilder to configure compression and the front buffer.
+ */
+public class SerializingCache<K,V> implements ICache<K,V>, AutoCloseable {
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte DEFLATED = 1;
+    // marker byte, then the length of the inflated value
+    private static final int DEFLATED_HEADER_LENGTH = 1 + Integer.BYTES;
+    // longest value that is deflated, as for the frames of the cluster protocol; longer ones are stored plain
+    private static final int MAX_INFLATED_LENGTH = 64 << 20;
+    // deflate shrinks data by at most this factor, so a longer announced length is corrupt
+    private static final int MAX_DEFLATE_RATIO = 1032;
+    // zlib state is expensive to create and holds native memory until it is ended, so a few instances are
+    // shared by all threads; one per thread would pile up with virtual threads
+    private static final int CODEC_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final ArrayBlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(CODEC_POOL_SIZE);
+    private static final ArrayBlockingQueue<Inflater> INFLATERS = new ArrayBlockingQueue<>(CODEC_POOL_SIZE);
+
+    private final ICache<K, byte[]> cache;
+    private final Serializer<V> serializer;
+    private final int compressionThreshold;
+    // guarded by itself; null without a front buffer
+    private final LinkedHashMap<K, FrontEntry<V>> frontBuffer;
+    private final LongAdder frontHitCount = new LongAdder();
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder encodeTime = new LongAdder();
+    private final LongAdder decodeCount = new LongAdder();
+    private final LongAdder decodeTime = new LongAdder();
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private volatile ICacheListener<K,V> listener;
+
+    /**
+     * Constructs a serializing cache without compression and front buffer.
+     *
+     * @param cache      The cache holding the serialized values.
+     * @param serializer Converts the values to bytes and back.
+     */
+    public SerializingCache(ICache<K, byte[]> cache, Serializer<V> serializer) {
+        this(cache, serializer, 0, 0);
+    }
+
+    /**
+     * @param compressionThreshold The minimum serialized length to compress; zero disables compression.
+     * @param frontBufferCapacity  The number of deserialized values kept for hot entries; zero disables the buffer.
+     */
+    SerializingCache(ICache<K, byte[]> cache, Serializer<V> serializer, int compressionThreshold, int frontBufferCapacity) {
+        if (compressionThreshold < 0 || frontBufferCapacity < 0) {
+            throw new IllegalArgumentException("Compression threshold and front buffer capacity must not be negative.");
+        }
+        this.cache = cache;
+        this.serializer = serializer;
+        this.compressionThreshold = compressionThreshold;
+        this.frontBuffer = frontBufferCapacity == 0 ? null : new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, FrontEntry<V>> eldest) {
+                return size() > frontBufferCapacity;
+            }
+        };
+        cache.setCacheListener(new ICacheListener<K, byte[]>() {
+            @Override
+            public void onMiss(K key) {
+                ICacheListener<K,V> listener = SerializingCache.this.listener;
+                if (listener != null) {
+                    listener.onMiss(key);
+                }
+            }
+
+            @Override
+            public void onEviction(K key, byte[] value) {
+                removeFromFrontBuffer(key);
+                ICacheListener<K,V> listener = SerializingCache.this.listener;
+                if (listener != null) {
+                    listener.onEviction(key, deserialize(value));
+                }
+            }
+
+            @Override
+            public void onExpiration(K key, byte[] value) {
+                removeFromFrontBuffer(key);
+                ICacheListener<K,V> listener = SerializingCache.this.listener;
+                if (listener != null) {
+                    listener.onExpiration(key, deserialize(value));
+                }
+            }
+
+            @Override
+            public void onRejection(K key, byte[] value) {
+                removeFromFrontBuffer(key);
+                ICacheListener<K,V> listener = SerializingCache.this.listener;
+                if (listener != null) {
+                    listener.onRejection(key, deserialize(value));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void put(K key, V value) {
+        byte[] bytes = serialize(value);
+        removeFromFrontBuffer(key);
+        cache.put(key, bytes);
+    }
+
+    @Override
+    public V get(K key) {
+        byte[] bytes = cache.get(key);
+        return bytes == null ? null : decode(key, bytes);
+    }
+
+    @Override
+    public void remove(K key) {
+        removeFromFrontBuffer(key);
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (frontBuffer != null) {
+            synchronized (frontBuffer) {
+                frontBuffer.clear();
+            }
+        }
+        cache.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * Registers the listener; the values of evicted, expired and rejected entries are deserialized for it.
+     */
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        Map<K,V> values = new LinkedHashMap<>();
+        for (Map.Entry<K, byte[]> entry : cache.getAll(keys).entrySet()) {
+            values.put(entry.getKey(), decode(entry.getKey(), entry.getValue()));
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        Map<K, byte[]> serializedEntries = new LinkedHashMap<>();
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            serializedEntries.put(entry.getKey(), serialize(entry.getValue()));
+        }
+        for (K key : serializedEntries.keySet()) {
+            removeFromFrontBuffer(key);
+        }
+        cache.putAll(serializedEntries);
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        if (frontBuffer == null) {
+            cache.removeAll(keys);
+            return;
+        }
+        List<K> removedKeys = new ArrayList<>();
+        for (K key : keys) {
+            removedKeys.add(key);
+            removeFromFrontBuffer(key);
+        }
+        cache.removeAll(removedKeys);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return cache.iterator();
+    }
+
+    @Override
+    public Spliterator<K> spliterator() {
+        return cache.spliterator();
+    }
+
+    /**
+     * Deserializes each value when its entry is reached; the front buffer is neither read nor filled.
+     */
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.map(cache.entrySpliterator(), entry -> Map.entry(entry.getKey(), deserialize(entry.getValue())));
+    }
+
+    /**
+     * @return A point-in-time view of the encoding, decoding and compression statistics.
+     */
+    public SerializingCacheStats stats() {
+        return new SerializingCacheStats(frontHitCount.sum(), decodeCount.sum(), decodeTime.sum(), encodeCount.sum(),
+                encodeTime.sum(), compressedCount.sum(), serializedBytes.sum(), storedBytes.sum());
+    }
+
+    /**
+     * Closes the wrapped cache if it holds resources, e.g. the memory of an OffHeapCache.
+     */
+    @Override
+    public void close() throws IOException {
+        Closeables.closeIfCloseable(cache);
+    }
+
+    /**
+     * Returns the value of the front buffer if it was decoded from the same bytes, or deserializes the bytes and
+     * keeps the value in the front buffer. Comparing the bytes keeps a read that raced with a put from leaving
+     * the old value behind; a heap engine returns the stored array itself, so the comparison is usually by identity.
+     */
+    private V decode(K key, byte[] bytes) {
+        if (frontBuffer == null) {
+            return deserialize(bytes);
+        }
+        synchronized (frontBuffer) {
+            FrontEntry<V> entry = frontBuffer.get(key);
+            if (entry != null && (entry.bytes == bytes || Arrays.equals(entry.bytes, bytes))) {
+                frontHitCount.increment();
+                return entry.value;
+            }
+        }
+        V value = deserialize(bytes);
+        synchronized (frontBuffer) {
+            frontBuffer.put(key, new FrontEntry<>(bytes, value));
+        }
+        return value;
+    }
+
+    private void removeFromFrontBuffer(K key) {
+        if (frontBuffer != null) {
+            synchronized (frontBuffer) {
+                frontBuffer.remove(key);
+            }
+        }
+    }
+
+    private byte[] serialize(V value) {
+        long startTime = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = serializer.serialize(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        serializedBytes.add(bytes.length);
+        if (compressionThreshold > 0) {
+            bytes = compress(bytes);
+        }
+        storedBytes.add(bytes.length);
+        encodeTime.add(System.nanoTime() - startTime);
+        encodeCount.increment();
+        return bytes;
+    }
+
+    private V deserialize(byte[] bytes) {
+        long startTime = System.nanoTime();
+        try {
+            V value = serializer.deserialize(compressionThreshold > 0 ? decompress(bytes) : bytes);
+            decodeTime.add(System.nanoTime() - startTime);
+            decodeCount.increment();
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prefixes the value with a marker byte, and deflates it if it is long enough and deflating saves space.
+     */
+    private byte[] compress(byte[] bytes) {
+        if (bytes.length >= compressionThreshold && bytes.length <= MAX_INFLATED_LENGTH) {
+            Deflater deflater = DEFLATERS.poll();
+            if (deflater == null) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+            }
+            // give up as soon as the deflated value would not be shorter than the plain one
+            byte[] deflated = new byte[bytes.length];
+            int length = DEFLATED_HEADER_LENGTH;
+            boolean finished;
+            try {
+                deflater.setInput(bytes);
+                deflater.finish();
+                while (!deflater.finished() && length < deflated.length) {
+                    length += deflater.deflate(deflated, length, deflated.length - length);
+                }
+                finished = deflater.finished();
+            } finally {
+                deflater.reset();
+                if (!DEFLATERS.offer(deflater)) {
+                    deflater.end();
+                }
+            }
+            if (finished) {
+                deflated[0] = DEFLATED;
+                deflated[1] = (byte) (bytes.length >>> 24);
+                deflated[2] = (byte) (bytes.length >>> 16);
+                deflated[3] = (byte) (bytes.length >>> 8);
+                deflated[4] = (byte) bytes.length;
+                compressedCount.increment();
+                return Arrays.copyOf(deflated, length);
+            }
+        }
+        byte[] plain = new byte[bytes.length + 1];
+        plain[0] = UNCOMPRESSED;
+        System.arraycopy(bytes, 0, plain, 1, bytes.length);
+        return plain;
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            throw new StreamCorruptedException("Missing compression marker.");
+        }
+        if (bytes[0] == UNCOMPRESSED) {
+            return Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes[0] != DEFLATED || bytes.length < DEFLATED_HEADER_LENGTH) {
+            throw new StreamCorruptedException("Unknown compression marker " + bytes[0] + ".");
+        }
+        int length = (bytes[1] & 0xFF) << 24 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 8 | bytes[4] & 0xFF;
+        long maxLength = Math.min(MAX_INFLATED_LENGTH, (long) (bytes.length - DEFLATED_HEADER_LENGTH) * MAX_DEFLATE_RATIO);
+        if (length <= 0 || length > maxLength) {
+            throw new StreamCorruptedException("Invalid inflated length " + length + ".");
+        }
+        Inflater inflater = INFLATERS.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        inflater.setInput(bytes, DEFLATED_HEADER_LENGTH, bytes.length - DEFLATED_HEADER_LENGTH);
+        byte[] inflated = new byte[length];
+        try {
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int count = inflater.inflate(inflated, offset, length - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != length) {
+                throw new StreamCorruptedException("Deflated value is truncated.");
+            }
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException(e.getMessage());
+        } finally {
+            inflater.reset();
+            if (!INFLATERS.offer(inflater)) {
+                inflater.end();
+            }
+        }
+        return inflated;
+    }
+
+    private static final class FrontEntry<V> {
+        private final byte[] bytes;
+        private final V value;
+
+        private FrontEntry(byte[] bytes, V value) {
+            this.bytes = bytes;
+            this.value = value;
+        }
+    }
+}
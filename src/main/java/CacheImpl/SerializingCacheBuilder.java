@@ -0,0 +1,96 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+import Interfaces.ICache;
+import Interfaces.Serializer;
+
+/**
+ * Builder class for constructing SerializingCache objects that store their values as byte arrays in an engine
+ * created by CacheFactory or in a given cache, optionally compressed and with a front buffer of decoded values.
+ */
+public class SerializingCacheBuilder<K,V> {
+    private CacheTypeEnum cacheType = CacheTypeEnum.LRU;
+    private int capacity = 10;
+    private long maximumBytes;
+    private ICache<K, byte[]> cache;
+    private Serializer<V> serializer;
+    private int compressionThreshold;
+    private int frontBufferCapacity;
+
+    /**
+     * Constructs a new SerializingCacheBuilder.
+     */
+    public SerializingCacheBuilder() {
+    }
+
+    public SerializingCacheBuilder<K,V> setCacheType(CacheTypeEnum cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    public SerializingCacheBuilder<K,V> setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Bounds the engine by the total length of the stored byte arrays instead of the number of entries.
+     * Supported by the types that CacheFactory can create weighted.
+     */
+    public SerializingCacheBuilder<K,V> setMaximumBytes(long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+        return this;
+    }
+
+    /**
+     * Stores the serialized values in the given cache, e.g. an OffHeapCache, instead of a new engine.
+     */
+    public SerializingCacheBuilder<K,V> setCache(ICache<K, byte[]> cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the codec converting the values to bytes and back; required.
+     */
+    public SerializingCacheBuilder<K,V> setSerializer(Serializer<V> serializer) {
+        this.serializer = serializer;
+        return this;
+    }
+
+    /**
+     * Deflates serialized values of at least this many bytes; zero, the default, disables compression.
+     */
+    public SerializingCacheBuilder<K,V> setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
+    /**
+     * Keeps the most recently read values of this many entries deserialized; zero, the default, disables it.
+     */
+    public SerializingCacheBuilder<K,V> setFrontBufferCapacity(int frontBufferCapacity) {
+        this.frontBufferCapacity = frontBufferCapacity;
+        return this;
+    }
+
+    /**
+     * Builds and returns the configured serializing cache instance.
+     *
+     * @return SerializingCache on top of the given cache or of an engine created by CacheFactory.
+     * @throws IllegalStateException if no serializer was set.
+     */
+    public SerializingCache<K,V> build() {
+        if (serializer == null) {
+            throw new IllegalStateException("A Serializer is required.");
+        }
+        ICache<K, byte[]> byteCache = cache;
+        if (byteCache == null) {
+            CacheFactory<K, byte[]> cacheFactory = new CacheFactory<>();
+            byteCache = maximumBytes > 0
+                    ? cacheFactory.createCacheInstance(cacheType, maximumBytes, (key, value) -> value.length)
+                    : cacheFactory.createCacheInstance(cacheType, capacity);
+        }
+        return new SerializingCache<>(byteCache, serializer, compressionThreshold, frontBufferCapacity);
+    }
+}
@@ -0,0 +1,105 @@
+package CacheImpl;
+
+/**
+ * Immutable point-in-time view of the encoding, decoding and compression statistics of a SerializingCache.
+ */
+public class SerializingCacheStats {
+    private final long frontHitCount;
+    private final long decodeCount;
+    private final long decodeTimeNanos;
+    private final long encodeCount;
+    private final long encodeTimeNanos;
+    private final long compressedCount;
+    private final long serializedBytes;
+    private final long storedBytes;
+
+    SerializingCacheStats(long frontHitCount, long decodeCount, long decodeTimeNanos, long encodeCount,
+                          long encodeTimeNanos, long compressedCount, long serializedBytes, long storedBytes) {
+        this.frontHitCount = frontHitCount;
+        this.decodeCount = decodeCount;
+        this.decodeTimeNanos = decodeTimeNanos;
+        this.encodeCount = encodeCount;
+        this.encodeTimeNanos = encodeTimeNanos;
+        this.compressedCount = compressedCount;
+        this.serializedBytes = serializedBytes;
+        this.storedBytes = storedBytes;
+    }
+
+    /**
+     * @return The number of reads answered by the front buffer without decoding.
+     */
+    public long getFrontHitCount() {
+        return frontHitCount;
+    }
+
+    /**
+     * @return The number of values decompressed and deserialized, including those passed to the listener.
+     */
+    public long getDecodeCount() {
+        return decodeCount;
+    }
+
+    public long getDecodeTimeNanos() {
+        return decodeTimeNanos;
+    }
+
+    public double getAverageDecodeTimeNanos() {
+        return decodeCount == 0 ? 0 : (double) decodeTimeNanos / decodeCount;
+    }
+
+    /**
+     * @return The number of values serialized and, if enabled, compressed.
+     */
+    public long getEncodeCount() {
+        return encodeCount;
+    }
+
+    public long getEncodeTimeNanos() {
+        return encodeTimeNanos;
+    }
+
+    public double getAverageEncodeTimeNanos() {
+        return encodeCount == 0 ? 0 : (double) encodeTimeNanos / encodeCount;
+    }
+
+    /**
+     * @return The number of encoded values that were stored deflated.
+     */
+    public long getCompressedCount() {
+        return compressedCount;
+    }
+
+    /**
+     * @return The total length of all encoded values as returned by the serializer.
+     */
+    public long getSerializedBytes() {
+        return serializedBytes;
+    }
+
+    /**
+     * @return The total length of all encoded values as stored, after compression.
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * @return The stored length relative to the serialized length, or 1.0 when nothing was encoded yet.
+     */
+    public double getCompressionRatio() {
+        return serializedBytes == 0 ? 1.0 : (double) storedBytes / serializedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+                .append("frontHits=").append(frontHitCount)
+                .append(", decodes=").append(decodeCount)
+                .append(", avgDecodeNanos=").append(getAverageDecodeTimeNanos())
+                .append(", encodes=").append(encodeCount)
+                .append(", avgEncodeNanos=").append(getAverageEncodeTimeNanos())
+                .append(", compressed=").append(compressedCount)
+                .append(", compressionRatio=").append(getCompressionRatio())
+                .toString();
+    }
+}
@@ -0,0 +1,365 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe cache that spreads keys over independent shards, each an engine of the same CacheTypeEnum type
+ * with its own lock and an equal share of the capacity. Threads working on different shards never contend,
+ * so throughput grows with the shard count instead of being limited by one global lock.
+ * Eviction is per shard: each shard evicts by its own policy once its share of the capacity is full.
+ * A skewed workload can still concentrate on the shard of a few hot keys. With a hot key capacity, keys
+ * whose estimated frequency saturates a per-shard FrequencySketch are also kept in a small concurrent map that
+ * is read without taking the shard lock; such hits only update the shard's policy if its lock is free.
+ * Use ShardedCacheBuilder to create instances.
+ */
+public class ShardedCache<K,V> implements ICache<K,V> {
+    // a key is hot once its 4-bit sketch counter is saturated
+    private static final int HOT_KEY_FREQUENCY = 15;
+    // hot keys of a shard are re-checked after this many hits on the shard
+    private static final int HOT_KEY_REVIEW_INTERVAL = 1024;
+
+    private final ICache<K,V>[] shards;
+    private final ReentrantLock[] locks;
+    private final FrequencySketch<K>[] sketches;
+    private final int[] hitsSinceReview;
+    private final int shardMask;
+    private final int hotKeyCapacity;
+    private final ConcurrentHashMap<K,V> hotKeys = new ConcurrentHashMap<>();
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ShardedCache(CacheTypeEnum type, int capacity, int shardCount, int hotKeyCapacity) {
+        if (capacity <= 0 || shardCount <= 0) {
+            throw new IllegalArgumentException("Capacity and shard count must be positive.");
+        }
+        // round up to a power of two, but do not create shards without capacity
+        int shards = 1;
+        while (shards < shardCount && shards < Integer.highestOneBit(capacity)) {
+            shards <<= 1;
+        }
+        // the first capacity % shards shards get one extra slot, so the shards add up to the capacity exactly
+        int baseShardCapacity = capacity / shards;
+        int largerShardCount = capacity % shards;
+        this.shards = new ICache[shards];
+        this.locks = new ReentrantLock[shards];
+        this.sketches = hotKeyCapacity > 0 ? new FrequencySketch[shards] : null;
+        this.hitsSinceReview = new int[shards];
+        this.shardMask = shards - 1;
+        this.hotKeyCapacity = hotKeyCapacity;
+        CacheFactory<K,V> cacheFactory = new CacheFactory<>();
+        ICacheListener<K,V> shardListener = new ICacheListener<K,V>() {
+            @Override
+            public void onMiss(K key) {
+                listener.onMiss(key);
+            }
+
+            @Override
+            public void onEviction(K key, V value) {
+                // called under the lock of the evicting shard
+                hotKeys.remove(key);
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                listener.onRejection(key, value);
+            }
+        };
+        for (int i = 0; i < shards; i++) {
+            int shardCapacity = i < largerShardCount ? baseShardCapacity + 1 : baseShardCapacity;
+            this.shards[i] = cacheFactory.createCacheInstance(type, shardCapacity);
+            this.shards[i].setCacheListener(shardListener);
+            this.locks[i] = new ReentrantLock();
+            if (sketches != null) {
+                sketches[i] = new FrequencySketch<>(shardCapacity);
+            }
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int index = shardIndex(key);
+        locks[index].lock();
+        try {
+            hotKeys.remove(key);
+            shards[index].put(key, value);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        int index = shardIndex(key);
+        if (hotKeyCapacity > 0) {
+            V value = hotKeys.get(key);
+            if (value != null) {
+                // keep the shard's policy informed, but never wait for a contended shard
+                if (locks[index].tryLock()) {
+                    try {
+                        shards[index].get(key);
+                    } finally {
+                        locks[index].unlock();
+                    }
+                }
+                return value;
+            }
+        }
+        locks[index].lock();
+        try {
+            V value = shards[index].get(key);
+            if (value != null && sketches != null) {
+                recordHit(index, key, value);
+            }
+            return value;
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        int index = shardIndex(key);
+        locks[index].lock();
+        try {
+            hotKeys.remove(key);
+            shards[index].remove(key);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].lock();
+            try {
+                shards[i].clear();
+                removeHotKeys(i);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].lock();
+            try {
+                size += shards[i].getSize();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        int index = shardIndex(key);
+        locks[index].lock();
+        try {
+            return shards[index].containsKey(key);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    /**
+     * Registers the listener of all shards. It is called under the lock of one shard, possibly from several
+     * threads at once, so it has to be thread-safe.
+     */
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Groups the keys by shard and looks each group up with a single getAll under the shard's lock.
+     */
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        // the keys are read once, so a single-use Iterable works too
+        List<K> keyList = new ArrayList<>();
+        for (K key : keys) {
+            keyList.add(key);
+        }
+        List<K>[] keysByShard = groupByShard(keyList);
+        Map<K,V> found = new HashMap<>();
+        for (int i = 0; i < keysByShard.length; i++) {
+            if (keysByShard[i] == null) {
+                continue;
+            }
+            locks[i].lock();
+            try {
+                Map<K,V> values = shards[i].getAll(keysByShard[i]);
+                if (sketches != null) {
+                    for (Map.Entry<K,V> entry : values.entrySet()) {
+                        recordHit(i, entry.getKey(), entry.getValue());
+                    }
+                }
+                found.putAll(values);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        Map<K,V> values = new LinkedHashMap<>();
+        for (K key : keyList) {
+            V value = found.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        Map<K,V>[] entriesByShard = new Map[shards.length];
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            int index = shardIndex(entry.getKey());
+            if (entriesByShard[index] == null) {
+                entriesByShard[index] = new LinkedHashMap<>();
+            }
+            entriesByShard[index].put(entry.getKey(), entry.getValue());
+        }
+        for (int i = 0; i < entriesByShard.length; i++) {
+            if (entriesByShard[i] == null) {
+                continue;
+            }
+            locks[i].lock();
+            try {
+                for (K key : entriesByShard[i].keySet()) {
+                    hotKeys.remove(key);
+                }
+                shards[i].putAll(entriesByShard[i]);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        List<K>[] keysByShard = groupByShard(keys);
+        for (int i = 0; i < keysByShard.length; i++) {
+            if (keysByShard[i] == null) {
+                continue;
+            }
+            locks[i].lock();
+            try {
+                for (K key : keysByShard[i]) {
+                    hotKeys.remove(key);
+                }
+                shards[i].removeAll(keysByShard[i]);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Traverses the shards one after another. The keys of a shard are copied under its lock when the traversal
+     * reaches it, so writers only wait for the copy of one shard at a time; parallel streams split by shard.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return byShard(ICache::spliterator);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return byShard(ICache::entrySpliterator);
+    }
+
+    /**
+     * @return The number of shards, a power of two.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Counts a hit in the shard's sketch and promotes the key once it is hot. Called under the shard's lock.
+     */
+    private void recordHit(int index, K key, V value) {
+        FrequencySketch<K> sketch = sketches[index];
+        sketch.increment(key);
+        if (hotKeys.size() < hotKeyCapacity && sketch.frequency(key) >= HOT_KEY_FREQUENCY) {
+            hotKeys.put(key, value);
+        }
+        if (++hitsSinceReview[index] == HOT_KEY_REVIEW_INTERVAL) {
+            hitsSinceReview[index] = 0;
+            // hot keys are not counted while they are served from the hot map, so the aging of the sketch
+            // lets a key that stopped being popular drop out after a while
+            for (K hotKey : hotKeys.keySet()) {
+                if (shardIndex(hotKey) == index && sketch.frequency(hotKey) < HOT_KEY_FREQUENCY / 2) {
+                    hotKeys.remove(hotKey);
+                }
+            }
+        }
+    }
+
+    private <T> Spliterator<T> byShard(Function<ICache<K,V>, Spliterator<T>> shardSpliterator) {
+        List<Supplier<Spliterator<T>>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            int index = i;
+            parts.add(() -> {
+                List<T> elements = new ArrayList<>();
+                locks[index].lock();
+                try {
+                    shardSpliterator.apply(shards[index]).forEachRemaining(elements::add);
+                } finally {
+                    locks[index].unlock();
+                }
+                return CacheSpliterators.snapshot(elements, element -> element);
+            });
+        }
+        return CacheSpliterators.concat(parts, getSize() / shards.length + 1);
+    }
+
+    private void removeHotKeys(int index) {
+        hotKeys.keySet().removeIf(key -> shardIndex(key) == index);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<K>[] groupByShard(Iterable<? extends K> keys) {
+        List<K>[] keysByShard = new List[shards.length];
+        for (K key : keys) {
+            int index = shardIndex(key);
+            if (keysByShard[index] == null) {
+                keysByShard[index] = new ArrayList<>();
+            }
+            keysByShard[index].add(key);
+        }
+        return keysByShard;
+    }
+
+    private int shardIndex(K key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & shardMask;
+    }
+}
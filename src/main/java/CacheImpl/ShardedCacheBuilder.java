@@ -0,0 +1,60 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+
+/**
+ * Builder class for constructing ShardedCache objects.
+ */
+public class ShardedCacheBuilder<K,V> {
+    private CacheTypeEnum cacheType = CacheTypeEnum.LRU;
+    private int capacity = 10;
+    private int shardCount = Runtime.getRuntime().availableProcessors() * 4;
+    private int hotKeyCapacity;
+
+    /**
+     * Constructs a new ShardedCacheBuilder.
+     */
+    public ShardedCacheBuilder() {
+    }
+
+    /**
+     * Selects the engine of every shard.
+     */
+    public ShardedCacheBuilder<K,V> setCacheType(CacheTypeEnum cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    /**
+     * Sets the total capacity, which is divided evenly between the shards.
+     */
+    public ShardedCacheBuilder<K,V> setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Sets the number of shards, rounded up to a power of two. Defaults to four per available processor.
+     */
+    public ShardedCacheBuilder<K,V> setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+        return this;
+    }
+
+    /**
+     * Sets how many hot keys may be served without taking a shard lock; 0 (the default) disables hot key tracking.
+     */
+    public ShardedCacheBuilder<K,V> setHotKeyCapacity(int hotKeyCapacity) {
+        this.hotKeyCapacity = hotKeyCapacity;
+        return this;
+    }
+
+    /**
+     * Builds and returns the configured sharded cache instance.
+     *
+     * @return ShardedCache whose shards are created by CacheFactory.
+     */
+    public ShardedCache<K,V> build() {
+        return new ShardedCache<>(cacheType, capacity, shardCount, hotKeyCapacity);
+    }
+}
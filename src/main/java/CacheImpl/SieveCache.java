@@ -0,0 +1,135 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementation of a SIEVE cache.
+ * Items are kept in insertion order and a hit only sets the visited bit of the item, so reads never reorder
+ * the list. To evict, a hand walks from the oldest towards the newest item, clearing visited bits, and evicts
+ * the first item that was not visited since the hand last passed it. Survivors keep their position, so newly
+ * inserted one-hit items are evicted quickly while popular items stay. Eviction is amortized O(1).
+ */
+public class SieveCache<K,V> implements ICache<K,V> {
+    private final int capacity;
+    private final Map<K, PolicyNode<K,V>> cache;
+    private final PolicyNodeList<K,V> queue = new PolicyNodeList<>();
+    // next item the hand looks at; null means it starts over at the oldest item
+    private PolicyNode<K,V> hand;
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs a SieveCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public SieveCache(int capacity) {
+        this.capacity = capacity;
+        this.cache = new HashMap<>();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (capacity <= 0) {
+            // nothing fits, so the entry is rejected like an entry heavier than a weighted engine's maximum
+            listener.onRejection(key, value);
+            return;
+        }
+        PolicyNode<K,V> node = cache.get(key);
+        if (node != null) {
+            node.value = value;
+            node.visited = true;
+            return;
+        }
+        if (cache.size() >= capacity) {
+            evict();
+        }
+        node = new PolicyNode<>(key, value, 0);
+        cache.put(key, node);
+        queue.addLast(node);
+    }
+
+    @Override
+    public V get(K key) {
+        PolicyNode<K,V> node = cache.get(key);
+        if (node == null) {
+            listener.onMiss(key);
+            return null;
+        }
+        node.visited = true;
+        return node.value;
+    }
+
+    @Override
+    public void remove(K key) {
+        PolicyNode<K,V> node = cache.remove(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        queue.clear();
+        hand = null;
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the entries in insertion order; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(queue), node -> node.key);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(queue), node -> Map.entry(node.key, node.value));
+    }
+
+    private void evict() {
+        PolicyNode<K,V> node = hand != null ? hand : queue.head;
+        while (node.visited) {
+            node.visited = false;
+            node = node.next != null ? node.next : queue.head;
+        }
+        hand = node.next;
+        cache.remove(node.key);
+        unlink(node);
+        listener.onEviction(node.key, node.value);
+    }
+
+    private void unlink(PolicyNode<K,V> node) {
+        if (hand == node) {
+            hand = node.next;
+        }
+        queue.remove(node);
+    }
+}
@@ -0,0 +1,25 @@
+package CacheImpl;
+
+import java.io.IOException;
+
+/**
+ * Returned by the engines whose entries CacheSnapshot can save and restore together with their eviction order.
+ */
+interface Snapshotable<K,V> {
+    /**
+     * Passes every entry to the visitor, starting with the one that would be evicted first.
+     * The frequency is the access count of LFU engines and 0 for the others.
+     */
+    void forEachInEvictionOrder(EntryVisitor<K,V> visitor) throws IOException;
+
+    /**
+     * Adds an entry read from a snapshot. Restoring the entries in the order they were visited rebuilds the
+     * eviction order of the saved cache.
+     */
+    void restore(K key, V value, int frequency);
+
+    @FunctionalInterface
+    interface EntryVisitor<K,V> {
+        void visit(K key, V value, int frequency) throws IOException;
+    }
+}
@@ -0,0 +1,122 @@
+package CacheImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Relay for SocketInvalidationTransports: every frame received from one connection is forwarded unchanged to all
+ * other connections. It listens on the loopback interface and is meant as a reference for local tests; a real
+ * deployment would use its message broker instead.
+ */
+public class SocketInvalidationHub implements AutoCloseable {
+    static final int MAX_FRAME_LENGTH = 64 << 20;
+
+    private final ServerSocket serverSocket;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts the hub.
+     *
+     * @param port The loopback port to listen on; 0 picks a free one, see getAddress.
+     */
+    public SocketInvalidationHub(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "cache-invalidation-hub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+                Thread reader = new Thread(() -> relay(connection), "cache-invalidation-hub-reader");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                // the server socket was closed
+            }
+        }
+    }
+
+    private void relay(Connection source) {
+        try {
+            while (true) {
+                int length = source.in.readInt();
+                if (length < 0 || length > MAX_FRAME_LENGTH) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                byte[] frame = new byte[length];
+                source.in.readFully(frame);
+                for (Connection connection : connections) {
+                    if (connection != source) {
+                        connection.send(frame);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the connection was closed by either side
+        } finally {
+            connections.remove(source);
+            source.close();
+        }
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void send(byte[] frame) {
+            try {
+                out.writeInt(frame.length);
+                out.write(frame);
+                out.flush();
+            } catch (IOException e) {
+                // a broken connection is dropped by its reader
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package CacheImpl;
+
+import Interfaces.InvalidationTransport;
+import Interfaces.InvalidationTransport.Invalidation;
+import Interfaces.Serializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * InvalidationTransport over a TCP connection to a SocketInvalidationHub. A batch is sent as one length-prefixed
+ * frame holding the count and, per invalidation, the serialized key and its version. A daemon thread reads the
+ * frames relayed by the hub and passes them to the subscribers. A frame that cannot be decoded and a subscriber
+ * that throws are skipped, so one bad batch does not stop the following ones; the failure is kept for
+ * getLastReceiveFailure. When the connection breaks, publish fails and no more batches are received; the transport
+ * does not reconnect.
+ */
+public class SocketInvalidationTransport<K> implements InvalidationTransport<K> {
+    private final Serializer<K> keySerializer;
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final List<Consumer<List<Invalidation<K>>>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile Exception lastReceiveFailure;
+
+    /**
+     * Connects to the hub and starts receiving.
+     *
+     * @param hub           The address of the hub, see SocketInvalidationHub.getAddress.
+     * @param keySerializer Converts the keys to bytes and back; all transports on the hub must use the same one.
+     */
+    public SocketInvalidationTransport(InetSocketAddress hub, Serializer<K> keySerializer) throws IOException {
+        this.keySerializer = keySerializer;
+        this.socket = new Socket(hub.getAddress(), hub.getPort());
+        socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Thread reader = new Thread(() -> receive(in), "cache-invalidation-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public void publish(List<Invalidation<K>> invalidations) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream frame = new DataOutputStream(bytes);
+        frame.writeInt(invalidations.size());
+        for (Invalidation<K> invalidation : invalidations) {
+            byte[] key = keySerializer.serialize(invalidation.getKey());
+            frame.writeInt(key.length);
+            frame.write(key);
+            frame.writeLong(invalidation.getVersion());
+        }
+        synchronized (out) {
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            out.flush();
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<Invalidation<K>>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * @return The last failure to decode a received frame or of a subscriber, the broken connection included,
+     * or null.
+     */
+    public Exception getLastReceiveFailure() {
+        return lastReceiveFailure;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void receive(DataInputStream in) {
+        try {
+            while (true) {
+                int length = in.readInt();
+                if (length < 0 || length > SocketInvalidationHub.MAX_FRAME_LENGTH) {
+                    // the frame boundaries are lost, so the connection cannot be read any further
+                    throw new StreamCorruptedException("Invalid frame length " + length);
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                List<Invalidation<K>> invalidations;
+                try {
+                    invalidations = decode(bytes);
+                } catch (IOException | RuntimeException e) {
+                    lastReceiveFailure = e;
+                    continue;
+                }
+                for (Consumer<List<Invalidation<K>>> subscriber : subscribers) {
+                    try {
+                        subscriber.accept(invalidations);
+                    } catch (RuntimeException e) {
+                        lastReceiveFailure = e;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                lastReceiveFailure = e;
+            }
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing more to receive either way
+            }
+        }
+    }
+
+    private List<Invalidation<K>> decode(byte[] bytes) throws IOException {
+        DataInputStream frame = new DataInputStream(new ByteArrayInputStream(bytes));
+        int count = frame.readInt();
+        // every invalidation takes at least its key length and version
+        if (count < 0 || count > bytes.length / (Integer.BYTES + Long.BYTES)) {
+            throw new StreamCorruptedException("Invalid invalidation count " + count);
+        }
+        List<Invalidation<K>> invalidations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int keyLength = frame.readInt();
+            if (keyLength < 0 || keyLength > frame.available()) {
+                throw new StreamCorruptedException("Invalid key length " + keyLength);
+            }
+            byte[] key = new byte[keyLength];
+            frame.readFully(key);
+            invalidations.add(new Invalidation<>(keySerializer.deserialize(key), frame.readLong()));
+        }
+        return invalidations;
+    }
+}
@@ -0,0 +1,261 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Thread-safe decorator that attaches tags, e.g. a tenant or product id, to entries so all entries of a tag can
+ * be invalidated at once. An inverted index maps each tag to its keys. Evictions, expirations and rejections
+ * reported by the wrapped cache drop the key from the index, so it only ever holds cached keys. Callbacks
+ * from another thread, e.g. the cleanup thread of an ExpiringCache, only queue the key, since taking this
+ * cache's lock there could deadlock with a caller waiting for the wrapped cache; every method drops the queued
+ * keys that are no longer cached before it runs.
+ * invalidateTag removes all keys of a tag with a single removeAll call on the wrapped cache.
+ */
+public final class TaggedCache<K,V> extends CacheDecorator<K,V> {
+    private static final String[] NO_TAGS = new String[0];
+
+    private final Map<String, Set<K>> keysByTag = new HashMap<>();
+    private final Map<K, String[]> tagsByKey = new HashMap<>();
+    // keys dropped by the wrapped cache on a thread that did not hold this cache's lock
+    private final Queue<K> droppedKeys = new ConcurrentLinkedQueue<>();
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * @param cache The cache holding the entries; it must not be changed except through this cache.
+     */
+    public TaggedCache(ICache<K,V> cache) {
+        super(cache);
+        super.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onMiss(K key) {
+                listener.onMiss(key);
+            }
+
+            @Override
+            public void onEviction(K key, V value) {
+                keyDropped(key);
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onExpiration(K key, V value) {
+                keyDropped(key);
+                listener.onExpiration(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                keyDropped(key);
+                listener.onRejection(key, value);
+            }
+        });
+    }
+
+    /**
+     * Stores the entry with the given tags, replacing the tags it had before.
+     */
+    public synchronized void put(K key, V value, String... tags) {
+        put(key, value, Arrays.asList(tags));
+    }
+
+    /**
+     * Stores the entry with the given tags, replacing the tags it had before.
+     */
+    public synchronized void put(K key, V value, Collection<String> tags) {
+        untagDroppedKeys();
+        untag(key);
+        // tag first, so an eviction or rejection of the key during the put untags it again
+        Set<String> distinctTags = new LinkedHashSet<>(tags);
+        if (!distinctTags.isEmpty()) {
+            tagsByKey.put(key, distinctTags.toArray(NO_TAGS));
+            for (String tag : distinctTags) {
+                keysByTag.computeIfAbsent(tag, ignored -> new HashSet<>()).add(key);
+            }
+        }
+        super.put(key, value);
+    }
+
+    /**
+     * Stores the entry and keeps the tags of the entry it replaces.
+     */
+    @Override
+    public synchronized void put(K key, V value) {
+        untagDroppedKeys();
+        super.put(key, value);
+    }
+
+    /**
+     * Removes every entry with the tag in one batch.
+     *
+     * @return The number of entries removed.
+     */
+    public synchronized int invalidateTag(String tag) {
+        untagDroppedKeys();
+        Set<K> keys = keysByTag.get(tag);
+        if (keys == null) {
+            return 0;
+        }
+        List<K> removedKeys = new ArrayList<>(keys);
+        removeAll(removedKeys);
+        return removedKeys.size();
+    }
+
+    /**
+     * @return The tags of the entry, or an empty set when it has none or is not cached.
+     */
+    public synchronized Set<String> getTags(K key) {
+        untagDroppedKeys();
+        String[] tags = tagsByKey.get(key);
+        return tags == null ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(tags));
+    }
+
+    /**
+     * @return A copy of the keys with the tag.
+     */
+    public synchronized Set<K> getKeys(String tag) {
+        untagDroppedKeys();
+        Set<K> keys = keysByTag.get(tag);
+        return keys == null ? Collections.emptySet() : new HashSet<>(keys);
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        untagDroppedKeys();
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        untagDroppedKeys();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized Map<K,V> getAll(Iterable<? extends K> keys) {
+        untagDroppedKeys();
+        return super.getAll(keys);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        untagDroppedKeys();
+        super.putAll(entries);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        untagDroppedKeys();
+        untag(key);
+        super.remove(key);
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        untagDroppedKeys();
+        List<K> removedKeys = new ArrayList<>();
+        for (K key : keys) {
+            untag(key);
+            removedKeys.add(key);
+        }
+        super.removeAll(removedKeys);
+    }
+
+    @Override
+    public synchronized void clear() {
+        droppedKeys.clear();
+        keysByTag.clear();
+        tagsByKey.clear();
+        super.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        untagDroppedKeys();
+        return super.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        untagDroppedKeys();
+        return super.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        untagDroppedKeys();
+        return super.spliterator();
+    }
+
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        untagDroppedKeys();
+        return super.entrySpliterator();
+    }
+
+    /**
+     * @return The number of distinct tags in the index.
+     */
+    public synchronized int getTagCount() {
+        untagDroppedKeys();
+        return keysByTag.size();
+    }
+
+    /**
+     * Untags the key right away when the wrapped cache dropped it during a call of this cache, and queues it
+     * otherwise.
+     */
+    private void keyDropped(K key) {
+        if (Thread.holdsLock(this)) {
+            untag(key);
+        } else {
+            droppedKeys.add(key);
+        }
+    }
+
+    /**
+     * Untags the queued keys, unless a caller has stored the key again since it was dropped.
+     */
+    private void untagDroppedKeys() {
+        K key;
+        while ((key = droppedKeys.poll()) != null) {
+            if (!super.containsKey(key)) {
+                untag(key);
+            }
+        }
+    }
+
+    private void untag(K key) {
+        String[] tags = tagsByKey.remove(key);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            Set<K> keys = keysByTag.get(tag);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Cache made of two tiers: a small, fast L1 engine, e.g. an on-heap LRUCache, in front of a larger and cheaper
+ * L2, e.g. an OffHeapCache behind a SerializingCache. The tiers are exclusive. New entries go to L1; an entry
+ * evicted from L1 is demoted to L2, and an L2 hit promotes the entry back to L1. Entries L1 rejects as too
+ * heavy are stored in L2 directly. An entry evicted from L2 leaves the cache and is reported as eviction.
+ * Hits are counted and timed per tier, so L1 can be sized for latency and L2 for hit rate; see stats().
+ * All methods synchronize on the cache. Use TieredCacheBuilder or the constructor to create instances.
+ */
+public class TieredCache<K,V> implements ICache<K,V>, AutoCloseable {
+    private final ICache<K,V> l1;
+    private final ICache<K,V> l2;
+    private long l1HitCount;
+    private long l2HitCount;
+    private long missCount;
+    private long l1HitTimeNanos;
+    private long l2HitTimeNanos;
+    private long demotionCount;
+    private long evictionCount;
+    private volatile ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Combines two engines into one cache. Both are taken over: their listeners are replaced and they must not
+     * be used directly anymore.
+     *
+     * @param l1 The small, fast tier.
+     * @param l2 The large tier holding the entries demoted from L1.
+     */
+    public TieredCache(ICache<K,V> l1, ICache<K,V> l2) {
+        this.l1 = l1;
+        this.l2 = l2;
+        l1.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onEviction(K key, V value) {
+                demotionCount++;
+                l2.put(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                l2.put(key, value);
+            }
+        });
+        l2.setCacheListener(new ICacheListener<K,V>() {
+            @Override
+            public void onEviction(K key, V value) {
+                evictionCount++;
+                listener.onEviction(key, value);
+            }
+
+            @Override
+            public void onExpiration(K key, V value) {
+                listener.onExpiration(key, value);
+            }
+
+            @Override
+            public void onRejection(K key, V value) {
+                listener.onRejection(key, value);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        l2.remove(key);
+        l1.put(key, value);
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        long startTime = System.nanoTime();
+        V value = l1.get(key);
+        if (value != null) {
+            l1HitCount++;
+            l1HitTimeNanos += System.nanoTime() - startTime;
+            return value;
+        }
+        value = l2.get(key);
+        if (value != null) {
+            l2.remove(key);
+            l1.put(key, value);
+            l2HitCount++;
+            l2HitTimeNanos += System.nanoTime() - startTime;
+            return value;
+        }
+        missCount++;
+        listener.onMiss(key);
+        return null;
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        l1.remove(key);
+        l2.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        l1.clear();
+        l2.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return l1.getSize() + l2.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return l1.containsKey(key) || l2.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Looks all keys up in L1 with one batch, the remaining ones in L2 with a second batch, and promotes the
+     * L2 hits with one putAll. Within the batch, the promoted entries therefore count as used after the L1 hits.
+     */
+    @Override
+    public synchronized Map<K,V> getAll(Iterable<? extends K> keys) {
+        // the keys are read once, so a single-use Iterable works too
+        List<K> keyList = new ArrayList<>();
+        for (K key : keys) {
+            keyList.add(key);
+        }
+        Map<K,V> l1Values = l1.getAll(keyList);
+        l1HitCount += l1Values.size();
+        Set<K> l1MissingKeys = new LinkedHashSet<>();
+        for (K key : keyList) {
+            if (!l1Values.containsKey(key)) {
+                l1MissingKeys.add(key);
+            }
+        }
+        Map<K,V> l2Values = l1MissingKeys.isEmpty() ? Collections.emptyMap() : l2.getAll(l1MissingKeys);
+        if (!l2Values.isEmpty()) {
+            l2HitCount += l2Values.size();
+            l2.removeAll(l2Values.keySet());
+            l1.putAll(l2Values);
+        }
+        Map<K,V> values = new LinkedHashMap<>();
+        for (K key : keyList) {
+            V value = l1Values.get(key);
+            if (value == null) {
+                value = l2Values.get(key);
+            }
+            if (value != null) {
+                values.put(key, value);
+            } else if (l1MissingKeys.remove(key)) {
+                missCount++;
+                listener.onMiss(key);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        l2.removeAll(entries.keySet());
+        l1.putAll(entries);
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        List<K> keyList = new ArrayList<>();
+        for (K key : keys) {
+            keyList.add(key);
+        }
+        l1.removeAll(keyList);
+        l2.removeAll(keyList);
+    }
+
+    /**
+     * @return The per-tier hit counts and times, demotions, evictions and the size of each tier.
+     */
+    public synchronized TieredCacheStats stats() {
+        return new TieredCacheStats(l1HitCount, l2HitCount, missCount, l1HitTimeNanos, l2HitTimeNanos,
+                demotionCount, evictionCount, l1.getSize(), l2.getSize());
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Copies the keys of L1 and then those of L2 under the lock, so an entry moving between the tiers is
+     * returned exactly once; traversing the copy does not block the cache.
+     */
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        List<K> keys = new ArrayList<>(l1.getSize() + l2.getSize());
+        l1.spliterator().forEachRemaining(keys::add);
+        l2.spliterator().forEachRemaining(keys::add);
+        return CacheSpliterators.snapshot(keys, key -> key);
+    }
+
+    /**
+     * Copies the entries of both tiers under the lock, like spliterator.
+     */
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        List<Map.Entry<K,V>> entries = new ArrayList<>(l1.getSize() + l2.getSize());
+        l1.entrySpliterator().forEachRemaining(entries::add);
+        l2.entrySpliterator().forEachRemaining(entries::add);
+        return CacheSpliterators.snapshot(entries, entry -> entry);
+    }
+
+    /**
+     * Closes the tiers that hold resources, e.g. the memory of an off-heap L2.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            Closeables.closeIfCloseable(l1);
+        } finally {
+            Closeables.closeIfCloseable(l2);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+import Interfaces.ICache;
+import Interfaces.Serializer;
+
+/**
+ * Builder class for constructing TieredCache objects with an L1 engine created by CacheFactory.
+ */
+public class TieredCacheBuilder<K,V> {
+    private CacheTypeEnum l1CacheType = CacheTypeEnum.LRU;
+    private int l1Capacity = 10;
+    private ICache<K,V> l2Cache;
+
+    /**
+     * Constructs a new TieredCacheBuilder.
+     */
+    public TieredCacheBuilder() {
+    }
+
+    public TieredCacheBuilder<K,V> setL1CacheType(CacheTypeEnum l1CacheType) {
+        this.l1CacheType = l1CacheType;
+        return this;
+    }
+
+    public TieredCacheBuilder<K,V> setL1Capacity(int l1Capacity) {
+        this.l1Capacity = l1Capacity;
+        return this;
+    }
+
+    /**
+     * Uses the given cache as L2.
+     */
+    public TieredCacheBuilder<K,V> setL2Cache(ICache<K,V> l2Cache) {
+        this.l2Cache = l2Cache;
+        return this;
+    }
+
+    /**
+     * Uses an OffHeapCache as L2, storing the values serialized outside of the Java heap.
+     *
+     * @param capacity       The maximum number of entries in L2.
+     * @param maxMemoryBytes The maximum number of off-heap bytes used for the serialized values.
+     * @param serializer     Converts the values to bytes and back.
+     */
+    public TieredCacheBuilder<K,V> setOffHeapL2(int capacity, long maxMemoryBytes, Serializer<V> serializer) {
+        this.l2Cache = new SerializingCache<>(new OffHeapCache<K>(capacity, maxMemoryBytes), serializer);
+        return this;
+    }
+
+    /**
+     * Builds and returns the configured tiered cache instance.
+     *
+     * @return TieredCache with an L1 engine created by CacheFactory in front of the configured L2.
+     * @throws IllegalStateException if no L2 was set.
+     */
+    public TieredCache<K,V> build() {
+        if (l2Cache == null) {
+            throw new IllegalStateException("An L2 cache is required.");
+        }
+        CacheFactory<K,V> cacheFactory = new CacheFactory<>();
+        return new TieredCache<>(cacheFactory.createCacheInstance(l1CacheType, l1Capacity), l2Cache);
+    }
+}
@@ -0,0 +1,123 @@
+package CacheImpl;
+
+/**
+ * Immutable point-in-time view of the per-tier statistics of a TieredCache.
+ */
+public class TieredCacheStats {
+    private final long l1HitCount;
+    private final long l2HitCount;
+    private final long missCount;
+    private final long l1HitTimeNanos;
+    private final long l2HitTimeNanos;
+    private final long demotionCount;
+    private final long evictionCount;
+    private final int l1Size;
+    private final int l2Size;
+
+    TieredCacheStats(long l1HitCount, long l2HitCount, long missCount, long l1HitTimeNanos, long l2HitTimeNanos,
+                     long demotionCount, long evictionCount, int l1Size, int l2Size) {
+        this.l1HitCount = l1HitCount;
+        this.l2HitCount = l2HitCount;
+        this.missCount = missCount;
+        this.l1HitTimeNanos = l1HitTimeNanos;
+        this.l2HitTimeNanos = l2HitTimeNanos;
+        this.demotionCount = demotionCount;
+        this.evictionCount = evictionCount;
+        this.l1Size = l1Size;
+        this.l2Size = l2Size;
+    }
+
+    public long getL1HitCount() {
+        return l1HitCount;
+    }
+
+    /**
+     * @return The number of L2 hits, which is also the number of entries promoted to L1.
+     */
+    public long getL2HitCount() {
+        return l2HitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return l1HitCount + l2HitCount + missCount;
+    }
+
+    /**
+     * @return The share of all requests answered by L1, or 1.0 when there was no request yet.
+     */
+    public double getL1HitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) l1HitCount / requestCount;
+    }
+
+    /**
+     * @return The share of the requests missing L1 that L2 answered, or 1.0 when no request reached L2.
+     */
+    public double getL2HitRate() {
+        long l2RequestCount = l2HitCount + missCount;
+        return l2RequestCount == 0 ? 1.0 : (double) l2HitCount / l2RequestCount;
+    }
+
+    /**
+     * @return The share of all requests answered by either tier, or 1.0 when there was no request yet.
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) (l1HitCount + l2HitCount) / requestCount;
+    }
+
+    public double getAverageL1HitTimeNanos() {
+        return l1HitCount == 0 ? 0 : (double) l1HitTimeNanos / l1HitCount;
+    }
+
+    /**
+     * @return The average time of an L2 hit, including the promotion to L1.
+     */
+    public double getAverageL2HitTimeNanos() {
+        return l2HitCount == 0 ? 0 : (double) l2HitTimeNanos / l2HitCount;
+    }
+
+    /**
+     * @return The number of entries moved from L1 to L2 to make room in L1.
+     */
+    public long getDemotionCount() {
+        return demotionCount;
+    }
+
+    /**
+     * @return The number of entries evicted from L2, i.e. from the cache.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public int getL1Size() {
+        return l1Size;
+    }
+
+    public int getL2Size() {
+        return l2Size;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+                .append("l1Hits=").append(l1HitCount)
+                .append(", l2Hits=").append(l2HitCount)
+                .append(", misses=").append(missCount)
+                .append(", l1HitRate=").append(getL1HitRate())
+                .append(", l2HitRate=").append(getL2HitRate())
+                .append(", hitRate=").append(getHitRate())
+                .append(", avgL1HitNanos=").append(getAverageL1HitTimeNanos())
+                .append(", avgL2HitNanos=").append(getAverageL2HitTimeNanos())
+                .append(", demotions=").append(demotionCount)
+                .append(", evictions=").append(evictionCount)
+                .append(", l1Size=").append(l1Size)
+                .append(", l2Size=").append(l2Size)
+                .toString();
+    }
+}
@@ -0,0 +1,147 @@
+package CacheImpl;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel that schedules expiration deadlines in amortized O(1).
+ * Each of the 5 levels has 64 buckets; a bucket of level 0 spans about 1 ms and every further level is
+ * 64 times coarser (67 ms, 4.3 s, 4.6 min, 4.9 h). A deadline goes into the finest level that covers its
+ * remaining delay. Advancing the wheel visits only the buckets whose time has passed: due nodes are handed
+ * to the expiration callback and the others cascade into a finer level. Deadlines beyond the last level
+ * wrap around and are simply rescheduled when their bucket comes up.
+ * The wheel is not thread-safe.
+ */
+final class TimerWheel<K,V> {
+    private static final int[] SHIFTS = {20, 26, 32, 38, 44};
+    private static final int BUCKETS_PER_LEVEL = 64;
+    private static final int BUCKET_MASK = BUCKETS_PER_LEVEL - 1;
+
+    private final Node<K,V>[][] wheel;
+    private long nanos;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long currentTimeNanos) {
+        this.nanos = currentTimeNanos;
+        this.wheel = new Node[SHIFTS.length][BUCKETS_PER_LEVEL];
+        for (Node<K,V>[] level : wheel) {
+            for (int i = 0; i < BUCKETS_PER_LEVEL; i++) {
+                level[i] = Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Adds the node to the bucket matching its deadline, moving it if it was already scheduled.
+     */
+    void schedule(Node<K,V> node) {
+        unschedule(node);
+        if (node.deadline == Long.MAX_VALUE) {
+            return;
+        }
+        long delay = Math.max(0, node.deadline - nanos);
+        int level = 0;
+        while (level < SHIFTS.length - 1 && delay >= 1L << SHIFTS[level + 1]) {
+            level++;
+        }
+        Node<K,V> sentinel = wheel[level][(int) (node.deadline >>> SHIFTS[level]) & BUCKET_MASK];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    void unschedule(Node<K,V> node) {
+        if (node.next != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    /**
+     * Moves the wheel to the current time, passing every node whose deadline has been reached to the callback.
+     */
+    void advance(long currentTimeNanos, Consumer<Node<K,V>> expired) {
+        long previous = nanos;
+        if (currentTimeNanos - previous <= 0) {
+            return;
+        }
+        nanos = currentTimeNanos;
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long currentTicks = currentTimeNanos >>> SHIFTS[level];
+            if (currentTicks - previousTicks <= 0) {
+                break;
+            }
+            int steps = (int) Math.min(currentTicks - previousTicks + 1, BUCKETS_PER_LEVEL);
+            for (int step = 0; step < steps; step++) {
+                expireBucket(wheel[level][(int) (previousTicks + step) & BUCKET_MASK], currentTimeNanos, expired);
+            }
+        }
+    }
+
+    void clear() {
+        for (Node<K,V>[] level : wheel) {
+            for (Node<K,V> sentinel : level) {
+                while (sentinel.next != sentinel) {
+                    unschedule(sentinel.next);
+                }
+            }
+        }
+    }
+
+    private void expireBucket(Node<K,V> sentinel, long currentTimeNanos, Consumer<Node<K,V>> expired) {
+        if (sentinel.next == sentinel) {
+            return;
+        }
+        // detach the whole bucket first, so nodes rescheduled into it are not visited twice
+        Node<K,V> node = sentinel.next;
+        sentinel.prev.next = null;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        while (node != null) {
+            Node<K,V> next = node.next;
+            node.prev = null;
+            node.next = null;
+            if (node.deadline - currentTimeNanos <= 0) {
+                expired.accept(node);
+            } else {
+                schedule(node);
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Expiration metadata of one cache entry.
+     */
+    static final class Node<K,V> {
+        final K key;
+        V value;
+        long writeDeadline = Long.MAX_VALUE;
+        long accessDeadline = Long.MAX_VALUE;
+        long deadline = Long.MAX_VALUE;
+        private Node<K,V> prev;
+        private Node<K,V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+
+        void updateDeadline() {
+            deadline = Math.min(writeDeadline, accessDeadline);
+        }
+
+        boolean isExpired(long currentTimeNanos) {
+            return deadline != Long.MAX_VALUE && deadline - currentTimeNanos <= 0;
+        }
+
+        private static <K,V> Node<K,V> sentinel() {
+            Node<K,V> sentinel = new Node<>(null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+    }
+}
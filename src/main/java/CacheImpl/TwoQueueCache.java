@@ -0,0 +1,172 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementation of a 2Q cache (full version by Johnson and Shasha).
+ * New items enter the FIFO queue A1in (25% of the capacity). Items leaving A1in are evicted, but their keys are
+ * remembered in the ghost queue A1out (up to 50% of the capacity). Only an item that is inserted again while
+ * its key is in A1out is considered hot and goes to the LRU queue Am. A scan therefore only churns A1in and
+ * A1out and never pushes hot items out of Am. All operations are O(1).
+ */
+public class TwoQueueCache<K,V> implements ICache<K,V> {
+    private static final int IN = 0;
+    private static final int OUT = 1;
+    private static final int MAIN = 2;
+
+    private final int capacity;
+    private final int inCapacity;
+    private final int outCapacity;
+    // holds the ghost entries of A1out as well as the cached items
+    private final Map<K, PolicyNode<K,V>> cache;
+    private final PolicyNodeList<K,V> in = new PolicyNodeList<>();
+    private final PolicyNodeList<K,V> out = new PolicyNodeList<>();
+    private final PolicyNodeList<K,V> main = new PolicyNodeList<>();
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs a TwoQueueCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold; ghost keys are not counted.
+     */
+    public TwoQueueCache(int capacity) {
+        this.capacity = capacity;
+        this.inCapacity = Math.max(1, capacity / 4);
+        this.outCapacity = Math.max(1, capacity / 2);
+        this.cache = new HashMap<>();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (capacity <= 0) {
+            // nothing fits, so the entry is rejected like an entry heavier than a weighted engine's maximum
+            listener.onRejection(key, value);
+            return;
+        }
+        PolicyNode<K,V> node = cache.get(key);
+        if (node != null && node.queue != OUT) {
+            node.value = value;
+            if (node.queue == MAIN) {
+                main.moveToLast(node);
+            }
+            return;
+        }
+        if (node != null) {
+            // the key was evicted from A1in recently, so it is hot
+            out.remove(node);
+            makeRoom();
+            node.value = value;
+            node.queue = MAIN;
+            main.addLast(node);
+            return;
+        }
+        makeRoom();
+        node = new PolicyNode<>(key, value, IN);
+        cache.put(key, node);
+        in.addLast(node);
+    }
+
+    @Override
+    public V get(K key) {
+        PolicyNode<K,V> node = cache.get(key);
+        if (node == null || node.queue == OUT) {
+            listener.onMiss(key);
+            return null;
+        }
+        if (node.queue == MAIN) {
+            main.moveToLast(node);
+        }
+        return node.value;
+    }
+
+    @Override
+    public void remove(K key) {
+        PolicyNode<K,V> node = cache.remove(key);
+        if (node != null) {
+            listOf(node).remove(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        in.clear();
+        out.clear();
+        main.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return in.size + main.size;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        PolicyNode<K,V> node = cache.get(key);
+        return node != null && node.queue != OUT;
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the cached entries of A1in and then Am; ghost entries are left out.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(in, main), node -> node.key);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(PolicyNodeList.toArray(in, main), node -> Map.entry(node.key, node.value));
+    }
+
+    /**
+     * Evicts one item if the cache is full: the oldest item of A1in while A1in exceeds its share, whose key then
+     * moves to A1out, and otherwise the least recently used item of Am.
+     */
+    private void makeRoom() {
+        if (in.size + main.size < capacity) {
+            return;
+        }
+        PolicyNode<K,V> victim;
+        if (in.size > inCapacity || main.size == 0) {
+            victim = in.removeFirst();
+            V value = victim.value;
+            victim.value = null;
+            victim.queue = OUT;
+            out.addLast(victim);
+            if (out.size > outCapacity) {
+                cache.remove(out.removeFirst().key);
+            }
+            listener.onEviction(victim.key, value);
+        } else {
+            victim = main.removeFirst();
+            cache.remove(victim.key);
+            listener.onEviction(victim.key, victim.value);
+        }
+    }
+
+    private PolicyNodeList<K,V> listOf(PolicyNode<K,V> node) {
+        return switch (node.queue) {
+            case IN -> in;
+            case OUT -> out;
+            default -> main;
+        };
+    }
+}
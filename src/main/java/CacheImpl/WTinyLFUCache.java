@@ -0,0 +1,246 @@
+package CacheImpl;
+
+import Interfaces.ICache;
+import Interfaces.ICacheListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementation of a W-TinyLFU cache.
+ * New items enter a small LRU admission window (1% of the capacity). Items leaving the window compete with
+ * the eviction candidate of the main area, and only the one that a FrequencySketch estimates as more popular
+ * is kept. The main area is a segmented LRU: items hit a second time move from the probation segment to the
+ * protected segment (80% of the main area), so one-hit-wonder scans cannot push out the hot set.
+ */
+public class WTinyLFUCache<K,V> implements ICache<K,V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final Map<K, Node<K,V>> cache;
+    private final FrequencySketch<K> sketch;
+    private final NodeList<K,V> window = new NodeList<>();
+    private final NodeList<K,V> probation = new NodeList<>();
+    private final NodeList<K,V> protectedSegment = new NodeList<>();
+    private ICacheListener<K,V> listener = ICacheListener.noOp();
+
+    /**
+     * Constructs a WTinyLFUCache with a specified capacity.
+     *
+     * @param capacity The maximum number of items the cache can hold.
+     */
+    public WTinyLFUCache(int capacity) {
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = (capacity - windowCapacity) * 80 / 100;
+        this.cache = new HashMap<>();
+        this.sketch = new FrequencySketch<>(capacity);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        sketch.increment(key);
+        Node<K,V> node = cache.get(key);
+        if (node != null) {
+            node.value = value;
+            onHit(node);
+            return;
+        }
+        node = new Node<>(key, value);
+        cache.put(key, node);
+        window.addLast(node);
+        evict();
+    }
+
+    @Override
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K,V> node = cache.get(key);
+        if (node == null) {
+            listener.onMiss(key);
+            return null;
+        }
+        onHit(node);
+        return node.value;
+    }
+
+    @Override
+    public void remove(K key) {
+        Node<K,V> node = cache.remove(key);
+        if (node != null) {
+            listOf(node).remove(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    @Override
+    public void setCacheListener(ICacheListener<K,V> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Snapshot of the entries; the cache may be changed while it is traversed.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return CacheSpliterators.snapshot(cache.values(), node -> node.key);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return CacheSpliterators.snapshot(cache.values(), node -> Map.entry(node.key, node.value));
+    }
+
+    private void onHit(Node<K,V> node) {
+        switch (node.queue) {
+            case WINDOW -> window.moveToLast(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedSegment.addLast(node);
+                // keep the protected segment within its share by demoting its least recently used item
+                if (protectedSegment.size > protectedCapacity) {
+                    Node<K,V> demoted = protectedSegment.head;
+                    protectedSegment.remove(demoted);
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+            default -> protectedSegment.moveToLast(node);
+        }
+    }
+
+    /**
+     * Moves the overflow of the window into probation and, while the cache is over capacity, lets that
+     * candidate compete with the main area's victim. The one with the lower estimated frequency is evicted.
+     */
+    private void evict() {
+        Node<K,V> candidate = null;
+        while (window.size > windowCapacity) {
+            candidate = window.head;
+            window.remove(candidate);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+        }
+        while (cache.size() > capacity) {
+            Node<K,V> victim = probation.head;
+            if (victim == null || victim == candidate) {
+                if (protectedSegment.head != null) {
+                    victim = protectedSegment.head;
+                } else if (victim == null) {
+                    victim = window.head;
+                }
+            }
+            Node<K,V> evicted = victim;
+            if (candidate != null && victim != candidate && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evicted = candidate;
+            }
+            if (evicted == candidate) {
+                candidate = null;
+            }
+            cache.remove(evicted.key);
+            listOf(evicted).remove(evicted);
+            listener.onEviction(evicted.key, evicted.value);
+        }
+    }
+
+    private NodeList<K,V> listOf(Node<K,V> node) {
+        return switch (node.queue) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedSegment;
+        };
+    }
+
+    private static final class Node<K,V> {
+        private final K key;
+        private V value;
+        private int queue = WINDOW;
+        private Node<K,V> prev;
+        private Node<K,V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of nodes, from the least to the most recently used.
+     */
+    private static final class NodeList<K,V> {
+        private Node<K,V> head;
+        private Node<K,V> tail;
+        private int size;
+
+        private void addLast(Node<K,V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail != null) {
+                tail.next = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void remove(Node<K,V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        private void moveToLast(Node<K,V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
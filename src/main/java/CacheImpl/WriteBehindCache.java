@@ -0,0 +1,274 @@
+package CacheImpl;
+
+import Interfaces.CacheWriter;
+import Interfaces.ICache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Decorator that writes updates to the backing store in the background, so put and remove only take as long
+ * as the in-memory update. Pending updates are coalesced per key: a key written several times before it is
+ * flushed reaches the store once with its last value, and a remove turns its pending write into a delete.
+ * A daemon thread flushes the oldest pending updates in batches of up to batchSize, as soon as a full batch is
+ * pending or the oldest update has waited for the flush interval. While maxPendingWrites keys have pending
+ * updates, updates of further keys block until the next batch is taken, which bounds the memory used while
+ * the store is slow or down. A failed batch is queued again, except for keys updated in the meantime, and is
+ * retried after the flush interval.
+ * Flushes do not change the cache, and evicting or clearing an entry does not cancel its pending update.
+ * Use WriteBehindCacheBuilder to create instances, and close the cache to write the remaining updates.
+ */
+public class WriteBehindCache<K,V> extends CacheDecorator<K,V> implements AutoCloseable {
+    // stands for a pending delete in the queue of the flusher
+    private static final Object DELETE = new Object();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final BatchingFlusher<K,Object,Exception> flusher;
+
+    WriteBehindCache(ICache<K,V> cache, CacheWriter<K,V> writer, int batchSize, long flushIntervalNanos, int maxPendingWrites) {
+        super(cache);
+        if (batchSize <= 0 || maxPendingWrites <= 0 || flushIntervalNanos < 0) {
+            throw new IllegalArgumentException("Batch size and maximum pending writes must be positive.");
+        }
+        this.flusher = new BatchingFlusher<>(lock, "cache-write-behind", batchSize, flushIntervalNanos, maxPendingWrites,
+                (queued, newer) -> newer, batch -> writeBatch(writer, batch));
+    }
+
+    @Override
+    public V get(K key) {
+        lock.lock();
+        try {
+            return super.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the value and queues its write; blocks while too many other keys have pending updates.
+     *
+     * @throws IllegalStateException if the cache is closed.
+     */
+    @Override
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            flusher.enqueue(key, value);
+            super.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry and queues its delete; blocks while too many other keys have pending updates.
+     *
+     * @throws IllegalStateException if the cache is closed.
+     */
+    @Override
+    public void remove(K key) {
+        lock.lock();
+        try {
+            flusher.enqueue(key, DELETE);
+            super.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache only; pending updates are still written and the store keeps its entries.
+     */
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            super.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return super.getSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        lock.lock();
+        try {
+            return super.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates the spliterator of the wrapped cache under this cache's lock, so the snapshot of an engine is
+     * taken consistently; traversing it does not block writers.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        lock.lock();
+        try {
+            return super.spliterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        lock.lock();
+        try {
+            return super.entrySpliterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Computes and stores a missing value, queueing its write like put.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        lock.lock();
+        try {
+            V value = super.get(key);
+            if (value == null) {
+                value = mappingFunction.apply(key);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<K,V> getAll(Iterable<? extends K> keys) {
+        lock.lock();
+        try {
+            return super.getAll(keys);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the entries and queues their writes. When the batch has to wait for capacity, the entries queued
+     * so far are stored first, so the cache and the queue always agree on the latest value of a key.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        lock.lock();
+        try {
+            Map<K,V> queued = new LinkedHashMap<>();
+            for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+                if (!flusher.hasCapacity(entry.getKey()) && !queued.isEmpty()) {
+                    super.putAll(queued);
+                    queued.clear();
+                }
+                flusher.enqueue(entry.getKey(), entry.getValue());
+                queued.put(entry.getKey(), entry.getValue());
+            }
+            super.putAll(queued);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        lock.lock();
+        try {
+            List<K> queued = new ArrayList<>();
+            for (K key : keys) {
+                if (!flusher.hasCapacity(key) && !queued.isEmpty()) {
+                    super.removeAll(queued);
+                    queued.clear();
+                }
+                flusher.enqueue(key, DELETE);
+                queued.add(key);
+            }
+            super.removeAll(queued);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending updates on the caller's thread, including updates queued while the flush is running.
+     * A RuntimeException of the writer is rethrown as is, checked exceptions are wrapped in a CompletionException;
+     * the failed batch stays queued.
+     */
+    public void flush() {
+        try {
+            flusher.flush();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * @return The number of keys whose updates are not yet written to the store.
+     */
+    public int getPendingWriteCount() {
+        return flusher.getPendingCount();
+    }
+
+    /**
+     * @return The exception of the last failed batch, or null if no batch has failed.
+     */
+    public Exception getLastWriteFailure() {
+        return flusher.getLastFailure();
+    }
+
+    /**
+     * Stops the background thread and writes the remaining updates. Later updates are rejected.
+     */
+    @Override
+    public void close() {
+        if (flusher.stop()) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes one batch, the puts first and then the deletes.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K,V> void writeBatch(CacheWriter<K,V> writer, Map<K,Object> batch) throws Exception {
+        Map<K,V> writes = new LinkedHashMap<>();
+        List<K> deletes = new ArrayList<>();
+        for (Map.Entry<K,Object> update : batch.entrySet()) {
+            if (update.getValue() == DELETE) {
+                deletes.add(update.getKey());
+            } else {
+                writes.put(update.getKey(), (V) update.getValue());
+            }
+        }
+        if (!writes.isEmpty()) {
+            writer.writeAll(writes);
+        }
+        if (!deletes.isEmpty()) {
+            writer.deleteAll(deletes);
+        }
+    }
+}
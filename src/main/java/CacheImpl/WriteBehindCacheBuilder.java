@@ -0,0 +1,82 @@
+package CacheImpl;
+
+import Enums.CacheTypeEnum;
+import Interfaces.CacheWriter;
+
+import java.time.Duration;
+
+/**
+ * Builder class for constructing WriteBehindCache objects on top of any cache engine.
+ */
+public class WriteBehindCacheBuilder<K,V> {
+    private CacheTypeEnum cacheType = CacheTypeEnum.LRU;
+    private int capacity = 10;
+    private CacheWriter<K,V> writer;
+    private int batchSize = 100;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private int maxPendingWrites = 10_000;
+
+    /**
+     * Constructs a new WriteBehindCacheBuilder.
+     */
+    public WriteBehindCacheBuilder() {
+    }
+
+    public WriteBehindCacheBuilder<K,V> setCacheType(CacheTypeEnum cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    public WriteBehindCacheBuilder<K,V> setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Sets the writer of the backing store; required.
+     */
+    public WriteBehindCacheBuilder<K,V> setWriter(CacheWriter<K,V> writer) {
+        this.writer = writer;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of updates written with one writeAll or deleteAll call. Defaults to 100.
+     */
+    public WriteBehindCacheBuilder<K,V> setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets how long an update may wait for its batch to fill up, and how long a failed batch waits before
+     * it is retried. Defaults to one second.
+     */
+    public WriteBehindCacheBuilder<K,V> setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+        return this;
+    }
+
+    /**
+     * Sets the number of keys with pending updates at which updates of further keys block. Defaults to 10,000.
+     */
+    public WriteBehindCacheBuilder<K,V> setMaxPendingWrites(int maxPendingWrites) {
+        this.maxPendingWrites = maxPendingWrites;
+        return this;
+    }
+
+    /**
+     * Builds and returns the configured write-behind cache instance and starts its flush thread.
+     *
+     * @return WriteBehindCache wrapping an engine created by CacheFactory.
+     * @throws IllegalStateException if no writer was set.
+     */
+    public WriteBehindCache<K,V> build() {
+        if (writer == null) {
+            throw new IllegalStateException("A CacheWriter is required.");
+        }
+        CacheFactory<K,V> cacheFactory = new CacheFactory<>();
+        return new WriteBehindCache<>(cacheFactory.createCacheInstance(cacheType, capacity),
+                writer, batchSize, flushInterval.toNanos(), maxPendingWrites);
+    }
+}
@@ -0,0 +1,131 @@
+package CacheImpl;
+
+import Interfaces.CacheWriter;
+import Interfaces.ICache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Decorator that writes every update to the backing store before it changes the cache, so the cache never
+ * holds a value the store has not accepted. A failed write leaves the cache unchanged; a RuntimeException of
+ * the writer is rethrown as is, checked exceptions are wrapped in a CompletionException.
+ * All methods synchronize on the decorator, so concurrent updates of a key reach the store and the cache in
+ * the same order.
+ */
+public class WriteThroughCache<K,V> extends CacheDecorator<K,V> {
+    private final CacheWriter<K,V> writer;
+
+    /**
+     * @param cache  The cache holding the values.
+     * @param writer Writes the updates to the backing store.
+     */
+    public WriteThroughCache(ICache<K,V> cache, CacheWriter<K,V> writer) {
+        super(cache);
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        writeToStore(() -> writer.write(key, value));
+        super.put(key, value);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        writeToStore(() -> writer.delete(key));
+        super.remove(key);
+    }
+
+    /**
+     * Removes all entries from the cache only; the store keeps them.
+     */
+    @Override
+    public synchronized void clear() {
+        super.clear();
+    }
+
+    /**
+     * Computes and stores a missing value, writing it to the store like put.
+     */
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = super.get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return super.getSize();
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return super.containsKey(key);
+    }
+
+    /**
+     * Creates the spliterator of the wrapped cache under this cache's lock, so the snapshot of an engine is
+     * taken consistently; traversing it does not block writers.
+     */
+    @Override
+    public synchronized Spliterator<K> spliterator() {
+        return super.spliterator();
+    }
+
+    @Override
+    public synchronized Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return super.entrySpliterator();
+    }
+
+    @Override
+    public synchronized Map<K,V> getAll(Iterable<? extends K> keys) {
+        return super.getAll(keys);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> entries) {
+        writeToStore(() -> writer.writeAll(entries));
+        super.putAll(entries);
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<? extends K> keys) {
+        List<K> keyList = new ArrayList<>();
+        for (K key : keys) {
+            keyList.add(key);
+        }
+        writeToStore(() -> writer.deleteAll(keyList));
+        super.removeAll(keyList);
+    }
+
+    private void writeToStore(StoreWrite storeWrite) {
+        try {
+            storeWrite.run();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StoreWrite {
+        void run() throws Exception;
+    }
+}
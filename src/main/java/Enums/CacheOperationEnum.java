@@ -0,0 +1,16 @@
+package Enums;
+
+public enum CacheOperationEnum {
+    /**
+     * Enumeration representing the ICache operations whose latency is recorded by the CacheMetricsDecorator.
+     */
+    GET,
+    PUT,
+    REMOVE,
+    CLEAR,
+    GET_SIZE,
+    CONTAINS_KEY,
+    GET_ALL,
+    PUT_ALL,
+    REMOVE_ALL
+}
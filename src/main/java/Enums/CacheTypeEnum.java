@@ -6,5 +6,16 @@ public enum CacheTypeEnum {
      */
     FIFO,
     LFU,
-    LRU
+    LRU,
+    // thread-safe engines that can be shared between request threads without an external lock
+    CONCURRENT_LRU,
+    CONCURRENT_LFU,
+    // scan-resistant engine with a frequency-sketch admission filter
+    W_TINY_LFU,
+    // adaptive and scan-resistant engines with O(1) operations
+    ARC,
+    TWO_QUEUE,
+    LIRS,
+    // insertion-ordered engine whose hits only set a bit, so reads never reorder its list
+    SIEVE
 }
@@ -0,0 +1,41 @@
+package Interfaces;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads values from the backing store on behalf of a LoadingCache.
+ * Only load has to be implemented; loadAll and reload fall back to it.
+ */
+@FunctionalInterface
+public interface CacheLoader<K,V> {
+    /**
+     * @return The value for the key, or null when the store has none.
+     * @throws Exception if the store cannot be read; the exception is passed on to every waiting caller.
+     */
+    V load(K key) throws Exception;
+
+    /**
+     * Loads several keys at once. Override it when the store supports batch reads.
+     *
+     * @return The values found; keys without a value may be left out.
+     */
+    default Map<K,V> loadAll(Set<? extends K> keys) throws Exception {
+        Map<K,V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = load(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Computes a new value for an entry that is being refreshed while its old value is still served.
+     */
+    default V reload(K key, V oldValue) throws Exception {
+        return load(key);
+    }
+}
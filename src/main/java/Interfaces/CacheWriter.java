@@ -0,0 +1,42 @@
+package Interfaces;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes cache updates to the backing store on behalf of WriteThroughCache and WriteBehindCache.
+ * Only write and delete have to be implemented; writeAll and deleteAll fall back to them.
+ */
+public interface CacheWriter<K,V> {
+    /**
+     * Stores the value of the key, replacing the previous one.
+     *
+     * @throws Exception if the store cannot be written.
+     */
+    void write(K key, V value) throws Exception;
+
+    /**
+     * Removes the key from the store; deleting a missing key is not an error.
+     *
+     * @throws Exception if the store cannot be written.
+     */
+    void delete(K key) throws Exception;
+
+    /**
+     * Stores several entries at once. Override it when the store supports batch writes.
+     */
+    default void writeAll(Map<? extends K, ? extends V> entries) throws Exception {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes several keys at once. Override it when the store supports batch deletes.
+     */
+    default void deleteAll(Collection<? extends K> keys) throws Exception {
+        for (K key : keys) {
+            delete(key);
+        }
+    }
+}
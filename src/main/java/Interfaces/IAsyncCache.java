@@ -0,0 +1,36 @@
+package Interfaces;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Asynchronous view of a cache. Lookups never block the caller: a hit returns a completed future and a miss
+ * returns the future of the load, which is shared by all callers waiting for the same key.
+ */
+public interface IAsyncCache<K,V> {
+    /**
+     * @return A future of the cached or loaded value; completed with null when the loader has no value.
+     */
+    CompletableFuture<V> get(K key);
+
+    /**
+     * Like get, but loads a missing value with the mapping function instead of the cache loader.
+     */
+    CompletableFuture<V> get(K key, Function<? super K, ? extends V> mappingFunction);
+
+    /**
+     * @return A future of the values by key; keys the loader has no value for are left out.
+     */
+    CompletableFuture<Map<K,V>> getAll(Iterable<? extends K> keys);
+
+    /**
+     * Stores the value. The returned future is completed once the value is visible to get.
+     */
+    CompletableFuture<Void> put(K key, V value);
+
+    /**
+     * @return A blocking view sharing the entries and in-flight loads of this cache.
+     */
+    ICache<K,V> synchronous();
+}
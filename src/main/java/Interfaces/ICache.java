@@ -1,10 +1,31 @@
 package Interfaces;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Interface defining methods for implementing cache behavior.
+ * Iteration over keys and entries is weakly consistent: it never throws ConcurrentModificationException, returns
+ * every entry that stays in the cache during the whole iteration exactly once, and may or may not return entries
+ * added, updated or removed in the meantime. Iterating does not count as an access for the eviction policy.
  */
 public interface ICache <K,V> extends Iterable<K>{
     void put(K key, V value);
 
+    /**
+     * Returns the value for the key, or null when the key is not in the cache.
+     * A miss is reported to the cache listener.
+     */
     V get(K key);
 
     void remove(K key);
@@ -15,5 +36,135 @@ public interface ICache <K,V> extends Iterable<K>{
     int getSize();
 
     boolean containsKey(K key);
-}
 
+    /**
+     * Registers the listener notified about misses and evictions, replacing the previous one.
+     * Caches start with a no-op listener. Listeners are called on the caller's thread, so they should be cheap.
+     */
+    void setCacheListener(ICacheListener<K,V> listener);
+
+    /**
+     * Looks the key up with a single probe instead of containsKey followed by get.
+     *
+     * @return The cached value, or an empty Optional when the key is not in the cache.
+     */
+    default Optional<V> getIfPresent(K key) {
+        return Optional.ofNullable(get(key));
+    }
+
+    /**
+     * Returns the cached value or, on a miss, computes it, caches it and returns it.
+     * A null result of the mapping function is returned but not cached.
+     */
+    default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Looks up several keys at once. Engines override it to do the per-call bookkeeping once per batch.
+     * Every key that is not found is reported to the cache listener as a miss.
+     *
+     * @return The cached values by key, in the order of the keys; missing keys are left out.
+     */
+    default Map<K,V> getAll(Iterable<? extends K> keys) {
+        Map<K,V> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Adds or updates several entries at once. Engines may run their eviction once after the whole batch,
+     * so the entries that remain can differ slightly from putting the entries one by one.
+     */
+    default void putAll(Map<? extends K, ? extends V> entries) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes several keys at once.
+     */
+    default void removeAll(Iterable<? extends K> keys) {
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Removes every entry matching the filter, e.g. all keys with a tenant's prefix, with one pass over the
+     * entries and a single removeAll call instead of one lookup per key.
+     *
+     * @return The number of entries that matched.
+     */
+    default int removeIf(BiPredicate<? super K, ? super V> filter) {
+        List<K> keys = entryStream(false)
+                .filter(entry -> filter.test(entry.getKey(), entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        removeAll(keys);
+        return keys.size();
+    }
+
+    /**
+     * Iterates over the keys; weakly consistent like all iteration over the cache.
+     * Removing keys from the cache while iterating is allowed, Iterator.remove is not supported.
+     */
+    @Override
+    Iterator<K> iterator();
+
+    /**
+     * @return A weakly consistent spliterator over the keys. Engines override it with one that splits evenly,
+     *         so keyStream(true) spreads the work over all cores.
+     */
+    @Override
+    default Spliterator<K> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * @return A weakly consistent spliterator over immutable snapshots of the entries. The default looks each
+     *         key up with get, which counts as an access; engines override it to read their entries directly.
+     */
+    default Spliterator<Map.Entry<K,V>> entrySpliterator() {
+        return keyStream(false).map(key -> {
+            V value = get(key);
+            return value == null ? null : Map.entry(key, value);
+        }).filter(Objects::nonNull).spliterator();
+    }
+
+    /**
+     * @return A weakly consistent iterator over immutable snapshots of the entries.
+     */
+    default Iterator<Map.Entry<K,V>> entryIterator() {
+        return Spliterators.iterator(entrySpliterator());
+    }
+
+    /**
+     * @param parallel Whether the stream is parallel.
+     * @return A stream of the keys, e.g. to collect the keys of a bulk invalidation.
+     */
+    default Stream<K> keyStream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    /**
+     * @param parallel Whether the stream is parallel.
+     * @return A stream of immutable snapshots of the entries, e.g. for analytics or an export.
+     */
+    default Stream<Map.Entry<K,V>> entryStream(boolean parallel) {
+        return StreamSupport.stream(entrySpliterator(), parallel);
+    }
+}
@@ -0,0 +1,46 @@
+package Interfaces;
+
+/**
+ * Listener notified about cache events instead of the caches writing them to the console.
+ * All methods do nothing by default, so an implementation only overrides the events it needs.
+ */
+public interface ICacheListener<K,V> {
+    /**
+     * Called when get does not find the key.
+     */
+    default void onMiss(K key) {
+    }
+
+    /**
+     * Called when an entry is removed to make room for another one.
+     */
+    default void onEviction(K key, V value) {
+    }
+
+    /**
+     * Called when an entry is removed because its time-to-live or time-to-idle has passed.
+     */
+    default void onExpiration(K key, V value) {
+    }
+
+    /**
+     * Called when a cache refuses to store a new entry, e.g. the LegacyCacheAdapter when it is full.
+     */
+    default void onRejection(K key, V value) {
+    }
+
+    /**
+     * @return A listener that ignores every event.
+     */
+    @SuppressWarnings("unchecked")
+    static <K,V> ICacheListener<K,V> noOp() {
+        return (ICacheListener<K,V>) NoOpCacheListener.INSTANCE;
+    }
+
+    final class NoOpCacheListener implements ICacheListener<Object, Object> {
+        private static final NoOpCacheListener INSTANCE = new NoOpCacheListener();
+
+        private NoOpCacheListener() {
+        }
+    }
+}
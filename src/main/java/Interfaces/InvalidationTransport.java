@@ -0,0 +1,52 @@
+package Interfaces;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between the NearCaches of several processes. A batch published through one transport is
+ * delivered to the subscribers of every other transport connected to the same bus, but not back to its own.
+ */
+public interface InvalidationTransport<K> extends AutoCloseable {
+    /**
+     * Sends a batch of invalidations to the other subscribers.
+     *
+     * @throws IOException if the batch could not be sent; the caller may retry it.
+     */
+    void publish(List<Invalidation<K>> invalidations) throws IOException;
+
+    /**
+     * Registers a subscriber for the batches published by others. It may be called from a thread of the transport.
+     */
+    void subscribe(Consumer<List<Invalidation<K>>> subscriber);
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Invalidation of one key. Entries stamped with an older version than the invalidation are dropped.
+     */
+    final class Invalidation<K> {
+        private final K key;
+        private final long version;
+
+        public Invalidation(K key, long version) {
+            this.key = key;
+            this.version = version;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return key + "@" + version;
+        }
+    }
+}
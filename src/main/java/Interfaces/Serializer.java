@@ -0,0 +1,97 @@
+package Interfaces;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to bytes and back, e.g. to write them to a cache snapshot.
+ */
+public interface Serializer<T> {
+    byte[] serialize(T value) throws IOException;
+
+    T deserialize(byte[] bytes) throws IOException;
+
+    /**
+     * @return A serializer writing strings as UTF-8.
+     */
+    static Serializer<String> string() {
+        return new Serializer<String>() {
+            @Override
+            public byte[] serialize(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * @return A serializer writing integers as 4 big-endian bytes.
+     */
+    static Serializer<Integer> integer() {
+        return new Serializer<Integer>() {
+            @Override
+            public byte[] serialize(Integer value) {
+                return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+            }
+
+            @Override
+            public Integer deserialize(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getInt();
+            }
+        };
+    }
+
+    /**
+     * @return A serializer writing longs as 8 big-endian bytes.
+     */
+    static Serializer<Long> longValue() {
+        return new Serializer<Long>() {
+            @Override
+            public byte[] serialize(Long value) {
+                return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+            }
+
+            @Override
+            public Long deserialize(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        };
+    }
+
+    /**
+     * @return A serializer using Java serialization; works for any Serializable type, but is slow and verbose.
+     */
+    static <T extends Serializable> Serializer<T> java() {
+        return new Serializer<T>() {
+            @Override
+            public byte[] serialize(T value) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(value);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T deserialize(byte[] bytes) throws IOException {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new InvalidObjectException(e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package Interfaces;
+
+/**
+ * Computes the weight of a cache entry, e.g. its size in bytes.
+ * A weighted cache evicts entries until the sum of their weights fits its maximum weight. The weight of an
+ * entry is computed again when it leaves the cache, so it must not change while the entry is cached.
+ */
+@FunctionalInterface
+public interface Weigher<K,V> {
+    /**
+     * @return The weight of the entry; must not be negative.
+     */
+    int weigh(K key, V value);
+
+    /**
+     * @return A weigher that gives every entry a weight of 1, so the maximum weight is an entry count.
+     */
+    @SuppressWarnings("unchecked")
+    static <K,V> Weigher<K,V> singleton() {
+        return (Weigher<K,V>) SingletonWeigher.INSTANCE;
+    }
+
+    final class SingletonWeigher implements Weigher<Object, Object> {
+        private static final SingletonWeigher INSTANCE = new SingletonWeigher();
+
+        private SingletonWeigher() {
+        }
+
+        @Override
+        public int weigh(Object key, Object value) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package Simulator;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * KeyTrace reading 8-byte big-endian keys from a file; see KeyTrace.binary.
+ */
+final class BinaryKeyTrace implements KeyTrace {
+    private final FileChannel channel;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(1 << 16);
+
+    BinaryKeyTrace(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        bytes.flip();
+    }
+
+    @Override
+    public int read(long[] buffer) throws IOException {
+        int count = 0;
+        while (count < buffer.length) {
+            if (bytes.remaining() < Long.BYTES) {
+                bytes.compact();
+                int read = channel.read(bytes);
+                bytes.flip();
+                if (read <= 0 && bytes.remaining() < Long.BYTES) {
+                    if (bytes.hasRemaining() && read < 0) {
+                        throw new StreamCorruptedException("The trace ends with an incomplete key.");
+                    }
+                    break;
+                }
+                continue;
+            }
+            buffer[count++] = bytes.getLong();
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
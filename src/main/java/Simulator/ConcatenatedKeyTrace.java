@@ -0,0 +1,46 @@
+package Simulator;
+
+import java.io.IOException;
+
+/**
+ * KeyTrace replaying several traces one after another; see KeyTrace.concat.
+ */
+final class ConcatenatedKeyTrace implements KeyTrace {
+    private final KeyTrace[] traces;
+    private int current;
+
+    ConcatenatedKeyTrace(KeyTrace[] traces) {
+        this.traces = traces.clone();
+    }
+
+    @Override
+    public int read(long[] buffer) throws IOException {
+        while (current < traces.length) {
+            int read = traces[current].read(buffer);
+            if (read > 0) {
+                return read;
+            }
+            current++;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (KeyTrace trace : traces) {
+            try {
+                trace.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package Simulator;
+
+import CacheImpl.CacheFactory;
+import Enums.CacheTypeEnum;
+import Interfaces.ICache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays a key trace through several engines at several capacities and reports the hit ratio and throughput of
+ * each combination, i.e. one hit-ratio curve per engine. Every request is a get followed by a put of the key on a
+ * miss, the way a cache-aside client uses the cache.
+ * The trace is read only once, in chunks that are replayed through all caches in turn, so the memory used is the
+ * caches themselves plus one chunk, whatever the length of the trace. Only the get and put calls are timed.
+ */
+public class HitRatioSimulator {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final List<CacheTypeEnum> cacheTypes;
+    private final int[] capacities;
+    private final int chunkSize;
+
+    /**
+     * @param cacheTypes The engines to simulate, created through CacheFactory.
+     * @param capacities The capacities to simulate each engine at.
+     */
+    public HitRatioSimulator(List<CacheTypeEnum> cacheTypes, int... capacities) {
+        this(cacheTypes, capacities, DEFAULT_CHUNK_SIZE);
+    }
+
+    HitRatioSimulator(List<CacheTypeEnum> cacheTypes, int[] capacities, int chunkSize) {
+        if (cacheTypes.isEmpty() || capacities.length == 0) {
+            throw new IllegalArgumentException("At least one cache type and one capacity are required.");
+        }
+        for (int capacity : capacities) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacities must be positive.");
+            }
+        }
+        this.cacheTypes = List.copyOf(cacheTypes);
+        this.capacities = capacities.clone();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Replays the remaining keys of the trace. The trace is not closed.
+     *
+     * @return One result per engine and capacity, ordered by engine, then by capacity.
+     */
+    public List<SimulationResult> run(KeyTrace trace) throws IOException {
+        int[] sortedCapacities = capacities.clone();
+        Arrays.sort(sortedCapacities);
+        CacheFactory<Long, Long> cacheFactory = new CacheFactory<>();
+        List<ICache<Long, Long>> caches = new ArrayList<>();
+        for (CacheTypeEnum type : cacheTypes) {
+            for (int capacity : sortedCapacities) {
+                ICache<Long, Long> cache = cacheFactory.createCacheInstance(type, capacity);
+                if (cache == null) {
+                    throw new IllegalArgumentException("Cache type " + type + " cannot be created by the CacheFactory.");
+                }
+                caches.add(cache);
+            }
+        }
+        long[] hits = new long[caches.size()];
+        long[] elapsedNanos = new long[caches.size()];
+        long requestCount = 0;
+        long[] keys = new long[chunkSize];
+        Long[] boxedKeys = new Long[chunkSize];
+        int read;
+        while ((read = trace.read(keys)) > 0) {
+            // box once per chunk instead of once per cache, so boxing is neither repeated nor timed
+            for (int i = 0; i < read; i++) {
+                boxedKeys[i] = keys[i];
+            }
+            for (int c = 0; c < caches.size(); c++) {
+                ICache<Long, Long> cache = caches.get(c);
+                long chunkHits = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < read; i++) {
+                    Long key = boxedKeys[i];
+                    if (cache.get(key) != null) {
+                        chunkHits++;
+                    } else {
+                        cache.put(key, key);
+                    }
+                }
+                elapsedNanos[c] += System.nanoTime() - start;
+                hits[c] += chunkHits;
+            }
+            requestCount += read;
+        }
+        List<SimulationResult> results = new ArrayList<>(caches.size());
+        int c = 0;
+        for (CacheTypeEnum type : cacheTypes) {
+            for (int capacity : sortedCapacities) {
+                results.add(new SimulationResult(type, capacity, requestCount, hits[c], elapsedNanos[c]));
+                c++;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Formats the results as CSV with a header line, one row per engine and capacity.
+     */
+    public static String toCsv(List<SimulationResult> results) {
+        StringBuilder builder = new StringBuilder("type,capacity,requests,hits,hitRatio,opsPerSec\n");
+        for (SimulationResult result : results) {
+            builder.append(result.getCacheType())
+                    .append(',').append(result.getCapacity())
+                    .append(',').append(result.getRequestCount())
+                    .append(',').append(result.getHitCount())
+                    .append(',').append(String.format(Locale.ROOT, "%.4f", result.getHitRatio()))
+                    .append(',').append(Math.round(result.getThroughput()))
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Command line entry point; prints the results as CSV. Several trace options are replayed one after another,
+     * e.g. --zipf followed by --scan gives a hot set disturbed by a scan.
+     * <pre>
+     * HitRatioSimulator [--types LRU,ARC,...] [--capacities 1000,10000,...]
+     *                   (--text FILE | --binary FILE | --zipf LENGTH,KEYS[,EXPONENT[,SEED]]
+     *                    | --scan LENGTH[,FIRST_KEY] | --loop LENGTH,SIZE)...
+     * </pre>
+     * Without --types all engines of CacheTypeEnum are simulated.
+     */
+    public static void main(String[] args) throws IOException {
+        List<CacheTypeEnum> types = Arrays.asList(CacheTypeEnum.values());
+        int[] capacities = {1_000, 10_000, 100_000};
+        List<KeyTrace> traces = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of " + option);
+                }
+                String[] values = args[++i].split(",");
+                switch (option) {
+                    case "--types" -> {
+                        types = new ArrayList<>();
+                        for (String value : values) {
+                            types.add(CacheTypeEnum.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+                        }
+                    }
+                    case "--capacities" -> capacities = Arrays.stream(values).mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+                    case "--text" -> traces.add(KeyTrace.text(Path.of(args[i])));
+                    case "--binary" -> traces.add(KeyTrace.binary(Path.of(args[i])));
+                    case "--zipf" -> traces.add(KeyTrace.zipf(Long.parseLong(values[0]), Integer.parseInt(values[1]),
+                            values.length > 2 ? Double.parseDouble(values[2]) : 0.99,
+                            values.length > 3 ? Long.parseLong(values[3]) : 42));
+                    case "--scan" -> traces.add(KeyTrace.scan(Long.parseLong(values[0]),
+                            values.length > 1 ? Long.parseLong(values[1]) : 1L << 40));
+                    case "--loop" -> traces.add(KeyTrace.loop(Long.parseLong(values[0]), Integer.parseInt(values[1])));
+                    default -> throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            if (traces.isEmpty()) {
+                throw new IllegalArgumentException("No trace given.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: HitRatioSimulator [--types LRU,ARC,...] [--capacities 1000,10000,...] "
+                    + "(--text FILE | --binary FILE | --zipf LENGTH,KEYS[,EXPONENT[,SEED]] | --scan LENGTH[,FIRST_KEY] | --loop LENGTH,SIZE)...");
+            KeyTrace.concat(traces.toArray(new KeyTrace[0])).close();
+            System.exit(2);
+            return;
+        }
+        try (KeyTrace trace = KeyTrace.concat(traces.toArray(new KeyTrace[0]))) {
+            System.out.print(toCsv(new HitRatioSimulator(types, capacities).run(trace)));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Simulator;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sequence of accessed keys replayed by the HitRatioSimulator. A trace is read once, chunk by chunk, so even
+ * traces far larger than the heap are simulated with bounded memory.
+ */
+public interface KeyTrace extends Closeable {
+    /**
+     * Reads the next keys into the buffer.
+     *
+     * @return The number of keys read; 0 once the trace is exhausted.
+     */
+    int read(long[] buffer) throws IOException;
+
+    /**
+     * Text trace with one access per line. The key is the first token of the line, separated by whitespace or a
+     * comma, so further columns such as timestamps are ignored. Numeric keys are used as they are, other keys
+     * are hashed to 64 bits. Empty lines and lines starting with # are skipped.
+     */
+    static KeyTrace text(Path file) throws IOException {
+        return new TextKeyTrace(file);
+    }
+
+    /**
+     * Binary trace made of 8-byte big-endian keys, e.g. written by writeBinary. It is the most compact format
+     * and the fastest to read.
+     */
+    static KeyTrace binary(Path file) throws IOException {
+        return new BinaryKeyTrace(file);
+    }
+
+    /**
+     * Keys drawn from a Zipf distribution: key k - 1 is accessed with a probability proportional to 1 / k^exponent.
+     *
+     * @param length   The number of accesses.
+     * @param keySpace The number of distinct keys, 0 to keySpace - 1.
+     * @param exponent The skew; 0.99 is the usual model for web and database caches.
+     * @param seed     The seed of the random generator, so a trace can be repeated.
+     */
+    static KeyTrace zipf(long length, int keySpace, double exponent, long seed) {
+        return new SyntheticKeyTrace(length, new ZipfGenerator(keySpace, exponent, seed));
+    }
+
+    /**
+     * Keys accessed once each, in order, starting at firstKey: the pattern of a table scan or a batch job.
+     */
+    static KeyTrace scan(long length, long firstKey) {
+        long[] next = {firstKey};
+        return new SyntheticKeyTrace(length, () -> next[0]++);
+    }
+
+    /**
+     * Keys 0 to loopSize - 1 accessed over and over in the same order, the worst case for LRU once the loop
+     * does not fit into the cache.
+     */
+    static KeyTrace loop(long length, int loopSize) {
+        long[] next = {0};
+        return new SyntheticKeyTrace(length, () -> next[0]++ % loopSize);
+    }
+
+    /**
+     * @return A trace replaying the given traces one after another.
+     */
+    static KeyTrace concat(KeyTrace... traces) {
+        return new ConcatenatedKeyTrace(traces);
+    }
+
+    /**
+     * Writes the remaining keys of the trace to a file in the binary format, e.g. to convert a text trace once
+     * before simulating it many times.
+     *
+     * @return The number of keys written.
+     */
+    static long writeBinary(KeyTrace trace, Path file) throws IOException {
+        long count = 0;
+        long[] buffer = new long[8192];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            int read;
+            while ((read = trace.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    out.writeLong(buffer[i]);
+                }
+                count += read;
+            }
+        }
+        return count;
+    }
+}
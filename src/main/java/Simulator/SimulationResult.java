@@ -0,0 +1,71 @@
+package Simulator;
+
+import Enums.CacheTypeEnum;
+
+/**
+ * Outcome of replaying a trace through one engine at one capacity.
+ */
+public class SimulationResult {
+    private final CacheTypeEnum cacheType;
+    private final int capacity;
+    private final long requestCount;
+    private final long hitCount;
+    private final long elapsedNanos;
+
+    SimulationResult(CacheTypeEnum cacheType, int capacity, long requestCount, long hitCount, long elapsedNanos) {
+        this.cacheType = cacheType;
+        this.capacity = capacity;
+        this.requestCount = requestCount;
+        this.hitCount = hitCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public CacheTypeEnum getCacheType() {
+        return cacheType;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The share of requests that found their key in the cache, or 0 for an empty trace.
+     */
+    public double getHitRatio() {
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return The time spent in the cache's get and put calls, without reading the trace.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Requests per second, each request being a get plus a put on a miss.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : requestCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+                .append("type=").append(cacheType)
+                .append(", capacity=").append(capacity)
+                .append(", requests=").append(requestCount)
+                .append(", hits=").append(hitCount)
+                .append(", hitRatio=").append(getHitRatio())
+                .append(", opsPerSec=").append(Math.round(getThroughput()))
+                .toString();
+    }
+}
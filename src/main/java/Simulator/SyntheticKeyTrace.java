@@ -0,0 +1,30 @@
+package Simulator;
+
+import java.util.function.LongSupplier;
+
+/**
+ * KeyTrace of a given length whose keys come from a generator; see the synthetic factories of KeyTrace.
+ */
+final class SyntheticKeyTrace implements KeyTrace {
+    private final LongSupplier generator;
+    private long remaining;
+
+    SyntheticKeyTrace(long length, LongSupplier generator) {
+        this.remaining = length;
+        this.generator = generator;
+    }
+
+    @Override
+    public int read(long[] buffer) {
+        int count = (int) Math.min(buffer.length, remaining);
+        for (int i = 0; i < count; i++) {
+            buffer[i] = generator.getAsLong();
+        }
+        remaining -= count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,63 @@
+package Simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * KeyTrace reading one key per line of a text file; see KeyTrace.text.
+ */
+final class TextKeyTrace implements KeyTrace {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final BufferedReader reader;
+
+    TextKeyTrace(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int read(long[] buffer) throws IOException {
+        int count = 0;
+        String line;
+        while (count < buffer.length && (line = reader.readLine()) != null) {
+            int start = 0;
+            while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+                start++;
+            }
+            if (start == line.length() || line.charAt(start) == '#') {
+                continue;
+            }
+            int end = start;
+            while (end < line.length() && line.charAt(end) != ',' && !Character.isWhitespace(line.charAt(end))) {
+                end++;
+            }
+            buffer[count++] = parseKey(line, start, end);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses a decimal key, or hashes the token with 64-bit FNV-1a if it is not a number.
+     */
+    private static long parseKey(String line, int start, int end) {
+        try {
+            return Long.parseLong(line, start, end, 10);
+        } catch (NumberFormatException e) {
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = start; i < end; i++) {
+                hash ^= line.charAt(i);
+                hash *= FNV_PRIME;
+            }
+            return hash;
+        }
+    }
+}
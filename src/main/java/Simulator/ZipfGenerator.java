@@ -0,0 +1,78 @@
+package Simulator;
+
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Draws Zipf-distributed keys in O(1) time and memory per sample with the rejection-inversion method of
+ * Hörmann and Derflinger, so the key space can be far larger than a cumulative table would allow.
+ * Key 0 is the most popular one.
+ */
+final class ZipfGenerator implements LongSupplier {
+    private final int keySpace;
+    private final double exponent;
+    private final SplittableRandom random;
+    private final double hIntegralX1;
+    private final double hIntegralKeySpace;
+    private final double s;
+
+    ZipfGenerator(int keySpace, double exponent, long seed) {
+        if (keySpace <= 0 || exponent <= 0) {
+            throw new IllegalArgumentException("Key space and exponent must be positive.");
+        }
+        this.keySpace = keySpace;
+        this.exponent = exponent;
+        this.random = new SplittableRandom(seed);
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralKeySpace = hIntegral(keySpace + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    @Override
+    public long getAsLong() {
+        while (true) {
+            double u = hIntegralKeySpace + random.nextDouble() * (hIntegralX1 - hIntegralKeySpace);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > keySpace) {
+                k = keySpace;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k - 1;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1 - exponent);
+        if (t < -1) {
+            t = -1;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, accurate for x close to 0.
+     */
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x, accurate for x close to 0.
+     */
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}